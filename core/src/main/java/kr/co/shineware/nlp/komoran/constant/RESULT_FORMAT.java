@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.constant;
+
+/**
+ * 형태소 분석 결과를 쓸 때의 형식에 대한 enum 클래스입니다.
+ * 사용법 :
+ * <pre>
+ *     KomoranResultWriter writer = new KomoranResultWriter(RESULT_FORMAT.JSON);
+ *     writer.write(komoran.analyze("감기는 자주 걸리는 병이다"), System.out);
+ * </pre>
+ */
+public enum RESULT_FORMAT {
+	/**
+	 * {@link kr.co.shineware.nlp.komoran.model.KomoranResult#getPlainText()}와 같은 형식입니다.
+	 * <pre>
+	 *     감기/NNG 는/JX 자주/MAG
+	 * </pre>
+	 */
+	PLAIN,
+	/**
+	 * 한 줄에 형태소 하나를 번호, 형태소, 품사, 입력 문장 내 시작 위치, 끝 위치 순으로 tab으로 구분하여 씁니다.
+	 * 문장은 빈 줄로 구분됩니다.
+	 * <pre>
+	 *     1	감기	NNG	0	2
+	 *     2	는	JX	2	3
+	 * </pre>
+	 */
+	CONLL,
+	/**
+	 * 문장 하나를 한 줄의 JSON 객체로 씁니다. 형태소 별 필드는 {@link kr.co.shineware.nlp.komoran.model.Token}과 같습니다.
+	 * <pre>
+	 *     {"tokens":[{"morph":"감기","pos":"NNG","beginIndex":0,"endIndex":2},{"morph":"는","pos":"JX","beginIndex":2,"endIndex":3}]}
+	 * </pre>
+	 */
+	JSON
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.constant;
+
+/**
+ * 모델의 관측 점수와 전이 점수를 양자화하는 방식에 대한 enum 클래스입니다.
+ * 양자화된 점수는 모두 2의 거듭제곱 간격의 고정 소수점 값이므로 경로 점수의 합과 비교가 정수 연산과 같은 결과를 냅니다.
+ * 사용법 :
+ * <pre>
+ *     Resources resources = new Resources();
+ *     resources.load(DEFAULT_MODEL.STABLE);
+ *     Komoran komoran = new Komoran(resources.quantize(SCORE_QUANTIZATION.FIXED_16));
+ * </pre>
+ */
+public enum SCORE_QUANTIZATION {
+	/**
+	 * 점수를 16bit 고정 소수점(short)으로 저장합니다.
+	 */
+	FIXED_16,
+	/**
+	 * 점수를 256개의 대표 값 중 하나를 가리키는 8bit index(byte)로 저장합니다.
+	 */
+	CODEBOOK_8
+}
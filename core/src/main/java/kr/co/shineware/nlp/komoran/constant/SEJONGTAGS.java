@@ -25,270 +25,320 @@ public enum SEJONGTAGS {
     //End Of Eojeol
     EOE;
 
+    /*
+     * 아래의 static id 필드들은 마지막으로 로드된 pos.table 기준으로 덮어써집니다.
+     * 여러 모델을 동시에 사용하는 경우 값이 섞이므로 분석 코드에서는
+     * PosTable.getSejongTagIdTable()(또는 Resources.getSejongTagIdTable())을 사용합니다.
+     */
+    @Deprecated
     public static int BOE_ID;
 
     public static void BOE(int id) {
         BOE_ID = id;
     }
 
+    @Deprecated
     public static int EOE_ID;
 
     public static void EOE(int id) {
         EOE_ID = id;
     }
 
+    @Deprecated
     public static int NA_ID;
 
     public static void NA(int id) {
         NA_ID = id;
     }
 
+    @Deprecated
     public static int SN_ID;
 
     public static void SN(int id) {
         SN_ID = id;
     }
 
+    @Deprecated
     public static int SW_ID;
 
     public static void SW(int id) {
         SW_ID = id;
     }
 
+    @Deprecated
     public static int SH_ID;
 
     public static void SH(int id) {
         SH_ID = id;
     }
 
+    @Deprecated
     public static int SL_ID;
 
     public static void SL(int id) {
         SL_ID = id;
     }
 
+    @Deprecated
     public static int SO_ID;
 
     public static void SO(int id) {
         SO_ID = id;
     }
 
+    @Deprecated
     public static int SE_ID;
 
     public static void SE(int id) {
         SE_ID = id;
     }
 
+    @Deprecated
     public static int SS_ID;
 
     public static void SS(int id) {
         SS_ID = id;
     }
 
+    @Deprecated
     public static int SP_ID;
 
     public static void SP(int id) {
         SP_ID = id;
     }
 
+    @Deprecated
     public static int SF_ID;
 
     public static void SF(int id) {
         SF_ID = id;
     }
 
+    @Deprecated
     public static int XR_ID;
 
     public static void XR(int id) {
         XR_ID = id;
     }
 
+    @Deprecated
     public static int XSA_ID;
 
     public static void XSA(int id) {
         XSA_ID = id;
     }
 
+    @Deprecated
     public static int XSV_ID;
 
     public static void XSV(int id) {
         XSV_ID = id;
     }
 
+    @Deprecated
     public static int XSN_ID;
 
     public static void XSN(int id) {
         XSN_ID = id;
     }
 
+    @Deprecated
     public static int XPN_ID;
 
     public static void XPN(int id) {
         XPN_ID = id;
     }
 
+    @Deprecated
     public static int ETM_ID;
 
     public static void ETM(int id) {
         ETM_ID = id;
     }
 
+    @Deprecated
     public static int ETN_ID;
 
     public static void ETN(int id) {
         ETN_ID = id;
     }
 
+    @Deprecated
     public static int EC_ID;
 
     public static void EC(int id) {
         EC_ID = id;
     }
 
+    @Deprecated
     public static int EF_ID;
 
     public static void EF(int id) {
         EF_ID = id;
     }
 
+    @Deprecated
     public static int EP_ID;
 
     public static void EP(int id) {
         EP_ID = id;
     }
 
+    @Deprecated
     public static int JC_ID;
 
     public static void JC(int id) {
         JC_ID = id;
     }
 
+    @Deprecated
     public static int JX_ID;
 
     public static void JX(int id) {
         JX_ID = id;
     }
 
+    @Deprecated
     public static int JKQ_ID;
 
     public static void JKQ(int id) {
         JKQ_ID = id;
     }
 
+    @Deprecated
     public static int JKV_ID;
 
     public static void JKV(int id) {
         JKV_ID = id;
     }
 
+    @Deprecated
     public static int JKB_ID;
 
     public static void JKB(int id) {
         JKB_ID = id;
     }
 
+    @Deprecated
     public static int JKO_ID;
 
     public static void JKO(int id) {
         JKO_ID = id;
     }
 
+    @Deprecated
     public static int JKG_ID;
 
     public static void JKG(int id) {
         JKG_ID = id;
     }
 
+    @Deprecated
     public static int JKC_ID;
 
     public static void JKC(int id) {
         JKC_ID = id;
     }
 
+    @Deprecated
     public static int NNG_ID;
 
     public static void NNG(int id) {
         NNG_ID = id;
     }
 
+    @Deprecated
     public static int NNP_ID;
 
     public static void NNP(int id) {
         NNP_ID = id;
     }
 
+    @Deprecated
     public static int NNB_ID;
 
     public static void NNB(int id) {
         NNB_ID = id;
     }
 
+    @Deprecated
     public static int NP_ID;
 
     public static void NP(int id) {
         NP_ID = id;
     }
 
+    @Deprecated
     public static int NR_ID;
 
     public static void NR(int id) {
         NR_ID = id;
     }
 
+    @Deprecated
     public static int VV_ID;
 
     public static void VV(int id) {
         VV_ID = id;
     }
 
+    @Deprecated
     public static int VA_ID;
 
     public static void VA(int id) {
         VA_ID = id;
     }
 
+    @Deprecated
     public static int VX_ID;
 
     public static void VX(int id) {
         VX_ID = id;
     }
 
+    @Deprecated
     public static int VCP_ID;
 
     public static void VCP(int id) {
         VCP_ID = id;
     }
 
+    @Deprecated
     public static int VCN_ID;
 
     public static void VCN(int id) {
         VCN_ID = id;
     }
 
+    @Deprecated
     public static int MM_ID;
 
     public static void MM(int id) {
         MM_ID = id;
     }
 
+    @Deprecated
     public static int MAG_ID;
 
     public static void MAG(int id) {
         MAG_ID = id;
     }
 
+    @Deprecated
     public static int MAJ_ID;
 
     public static void MAJ(int id) {
         MAJ_ID = id;
     }
 
+    @Deprecated
     public static int IC_ID;
 
     public static void IC(int id) {
         IC_ID = id;
     }
 
+    @Deprecated
     public static int JKS_ID;
 
     public static void JKS(int id) {
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.core.model.UserDictionary;
+import kr.co.shineware.nlp.komoran.model.Token;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 문서를 어절 단위로 나누어 분석 결과를 보관하고, 문서가 수정되면 수정된 어절만 다시 분석합니다. </p>
+ * lattice는 띄어쓰기 위치에서 어절 끝 node 하나로만 이어지므로 어절의 분석 결과는 다른 어절과 관계없이 정해집니다.
+ * {@link #edit(int, int, CharSequence)}는 수정된 구간에 걸치거나 맞닿은 어절만 다시 분석하고
+ * 뒤쪽 어절은 보관된 결과의 위치만 옮기므로, 긴 문서에서도 수정 한 번의 분석 비용은 수정된 어절의 길이에 비례합니다. </p>
+ * 사용자 사전에 띄어쓰기가 포함된 형태소가 있는 경우에는 그 형태소가 걸치는 어절들을 함께 분석하며,
+ * 수정 위치로부터 그 형태소의 길이 안에 있는 어절도 다시 분석합니다.
+ * 반환되는 형태소는 {@link IncrementalAnalyzer}와 같이 전체 문서를 {@link Komoran#analyze(CharSequence)}로 분석한 결과와 같으며,
+ * 연속된 띄어쓰기 사이에 만들어지는 빈 미분석 형태소는 포함하지 않습니다. </p>
+ * 모델이나 사용자 사전을 바꾼 경우에는 {@link #setText(CharSequence)}로 문서 전체를 다시 분석하세요.
+ * thread-safe하지 않으므로 문서 별로 객체를 만들어 사용하세요.
+ * <pre>
+ *     DocumentAnalyzer document = new DocumentAnalyzer(komoran);
+ *     document.setText("감기는 자주 걸리는 병이다.");
+ *     //"자주"를 "가끔"으로 수정, "자주" 어절만 다시 분석됨
+ *     List&lt;Token&gt; tokenList = document.edit(4, 2, "가끔");
+ * </pre>
+ */
+public class DocumentAnalyzer {
+
+    private final Komoran komoran;
+    private final StringBuilder text = new StringBuilder();
+    //문서를 나눈 구간, 구간을 나눈 띄어쓰기는 앞 구간에 포함됨
+    private final List<Segment> segmentList = new ArrayList<>();
+
+    public DocumentAnalyzer(Komoran komoran) {
+        this.komoran = komoran;
+    }
+
+    /**
+     * 문서 전체를 바꾸고 모든 어절을 분석합니다.
+     *
+     * @return 문서 전체의 형태소 분석 결과
+     */
+    public List<Token> setText(CharSequence text) {
+        this.text.setLength(0);
+        this.text.append(text);
+        this.segmentList.clear();
+        this.segmentList.addAll(this.analyzeSegments(0, this.text.length()));
+        return this.getTokenList();
+    }
+
+    /**
+     * 문서의 [offset, offset + deletedLength) 구간을 insertedText로 바꾸고, 영향을 받는 어절만 다시 분석합니다.
+     *
+     * @param offset        수정 시작 위치
+     * @param deletedLength 지울 문자 수
+     * @param insertedText  삽입할 문자열, 삽입하지 않는 경우 빈 문자열
+     * @return 문서 전체의 형태소 분석 결과, 위치는 수정된 문서 기준
+     * @throws IndexOutOfBoundsException 구간이 문서를 벗어나는 경우
+     */
+    public List<Token> edit(int offset, int deletedLength, CharSequence insertedText) {
+        if (offset < 0 || deletedLength < 0 || offset + deletedLength > this.text.length()) {
+            throw new IndexOutOfBoundsException("offset : " + offset + ", deletedLength : " + deletedLength
+                    + ", length : " + this.text.length());
+        }
+        UserDictionary userDic = this.komoran.getUserDic();
+        int maxSpacedKeyLength = userDic == null ? 0 : userDic.getMaxSpacedKeyLength();
+        //띄어쓰기가 포함된 형태소가 수정된 문자에 걸치는 경우를 위해 그 길이만큼 넓힌 구간
+        int editBeginIdx = offset;
+        int editEndIdx = offset + deletedLength;
+        if (maxSpacedKeyLength > 0) {
+            editBeginIdx -= maxSpacedKeyLength + 1;
+            editEndIdx += maxSpacedKeyLength + 1;
+        }
+
+        //수정 구간이 시작되는 구간, 문서 끝에 삽입하는 경우 띄어쓰기로 끝나지 않은 마지막 구간
+        int firstSegmentIdx = 0;
+        int regionBeginIdx = 0;
+        while (firstSegmentIdx < this.segmentList.size()
+                && regionBeginIdx + this.segmentList.get(firstSegmentIdx).length <= editBeginIdx) {
+            regionBeginIdx += this.segmentList.get(firstSegmentIdx).length;
+            firstSegmentIdx++;
+        }
+        if (firstSegmentIdx == this.segmentList.size() && firstSegmentIdx > 0
+                && this.text.charAt(regionBeginIdx - 1) != ' ') {
+            firstSegmentIdx--;
+            regionBeginIdx -= this.segmentList.get(firstSegmentIdx).length;
+        }
+        //수정 구간 바로 뒤에서 시작하는 구간까지 포함, 삽입된 문자와 한 어절이 될 수 있음
+        int lastSegmentIdx = firstSegmentIdx;
+        int regionEndIdx = regionBeginIdx;
+        while (lastSegmentIdx < this.segmentList.size() && regionEndIdx <= editEndIdx) {
+            regionEndIdx += this.segmentList.get(lastSegmentIdx).length;
+            lastSegmentIdx++;
+        }
+
+        this.text.replace(offset, offset + deletedLength, insertedText.toString());
+        regionEndIdx += insertedText.length() - deletedLength;
+
+        List<Segment> subList = this.segmentList.subList(firstSegmentIdx, lastSegmentIdx);
+        subList.clear();
+        subList.addAll(this.analyzeSegments(regionBeginIdx, regionEndIdx));
+        return this.getTokenList();
+    }
+
+    /**
+     * 문서 전체의 형태소 분석 결과를 반환합니다. 호출할 때마다 새 Token을 만들어 반환합니다.
+     */
+    public List<Token> getTokenList() {
+        List<Token> tokenList = new ArrayList<>();
+        int segmentBeginIdx = 0;
+        for (Segment segment : this.segmentList) {
+            for (Token token : segment.tokenList) {
+                tokenList.add(new Token(token.getMorph(), token.getPos(),
+                        token.getBeginIndex() + segmentBeginIdx, token.getEndIndex() + segmentBeginIdx));
+            }
+            segmentBeginIdx += segment.length;
+        }
+        return tokenList;
+    }
+
+    public String getText() {
+        return this.text.toString();
+    }
+
+    public int getLength() {
+        return this.text.length();
+    }
+
+    //문서의 [beginIdx, endIdx) 구간을 띄어쓰기 위치에서 나누어 분석
+    private List<Segment> analyzeSegments(int beginIdx, int endIdx) {
+        UserDictionary userDic = this.komoran.getUserDic();
+        int maxSpacedKeyLength = userDic == null ? 0 : userDic.getMaxSpacedKeyLength();
+
+        List<Segment> segments = new ArrayList<>();
+        int segmentBeginIdx = beginIdx;
+        for (int idx = beginIdx; idx < endIdx; idx++) {
+            if (this.text.charAt(idx) != ' ') {
+                continue;
+            }
+            if (maxSpacedKeyLength > 0
+                    && IncrementalAnalyzer.isSpannedByUserDic(userDic, this.text, idx, maxSpacedKeyLength)) {
+                continue;
+            }
+            segments.add(this.analyzeSegment(segmentBeginIdx, idx + 1));
+            segmentBeginIdx = idx + 1;
+        }
+        if (segmentBeginIdx < endIdx) {
+            segments.add(this.analyzeSegment(segmentBeginIdx, endIdx));
+        }
+        return segments;
+    }
+
+    private Segment analyzeSegment(int beginIdx, int endIdx) {
+        Segment segment = new Segment(endIdx - beginIdx);
+        //앞뒤의 띄어쓰기는 어절 끝 node만 만들기 때문에 제외
+        int morphBeginIdx = beginIdx;
+        int morphEndIdx = endIdx;
+        while (morphBeginIdx < morphEndIdx && this.text.charAt(morphBeginIdx) == ' ') {
+            morphBeginIdx++;
+        }
+        while (morphBeginIdx < morphEndIdx && this.text.charAt(morphEndIdx - 1) == ' ') {
+            morphEndIdx--;
+        }
+        if (morphBeginIdx == morphEndIdx) {
+            return segment;
+        }
+        int offset = morphBeginIdx - beginIdx;
+        for (Token token : this.komoran.analyze(CharBuffer.wrap(this.text, morphBeginIdx, morphEndIdx)).getTokenList()) {
+            //연속된 띄어쓰기 사이의 빈 미분석 형태소는 나누는 위치에 따라 달라지므로 포함하지 않음
+            if (token.getMorph().isEmpty()) {
+                continue;
+            }
+            token.setBeginIndex(token.getBeginIndex() + offset);
+            token.setEndIndex(token.getEndIndex() + offset);
+            segment.tokenList.add(token);
+        }
+        return segment;
+    }
+
+    //문서의 한 구간과 구간 시작 위치 기준의 형태소
+    private static final class Segment {
+        private final int length;
+        private final List<Token> tokenList = new ArrayList<>();
+
+        private Segment(int length) {
+            this.length = length;
+        }
+    }
+}
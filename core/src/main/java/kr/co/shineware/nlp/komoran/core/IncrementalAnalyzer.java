@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.core.model.UserDictionary;
+import kr.co.shineware.nlp.komoran.model.KomoranResult;
+import kr.co.shineware.nlp.komoran.model.Token;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+
+import java.nio.CharBuffer;
+
+/**
+ * 조금씩 들어오는 문자열을 어절이 끝날 때마다 분석하여 형태소를 전달합니다. </p>
+ * lattice는 띄어쓰기 위치에서 어절 끝 node 하나로만 이어지므로, 띄어쓰기 앞의 어절들은 뒤에 올 문자와 관계없이 분석 결과가 정해집니다.
+ * {@link #feed(CharSequence)}는 입력된 문자열을 쌓아 두다가 띄어쓰기(' ')가 나오면 그 앞까지를 분석하여 형태소를 전달하고,
+ * {@link #flush()}는 남은 문자열을 모두 분석합니다. 따라서 지연 시간은 문장이 아닌 어절의 길이에 비례합니다. </p>
+ * 사용자 사전에 띄어쓰기가 포함된 형태소가 있는 경우에는 띄어쓰기 뒤의 문자가 그 형태소의 길이만큼 들어온 뒤,
+ * 띄어쓰기를 넘는 형태소가 없는 경우에만 나누어 분석합니다. 이 경우를 포함하여 전달되는 형태소는 전체 문자열을 {@link Komoran#analyze(CharSequence)}로
+ * 분석한 결과와 같습니다. 단, 연속된 띄어쓰기 사이에 만들어지는 빈 미분석 형태소는 전달하지 않습니다. </p>
+ * 형태소의 위치({@link Token#getBeginIndex()}, {@link Token#getEndIndex()})는 처음 입력된 문자를 0으로 하는 위치이며, flush 후에도 이어집니다.
+ * thread-safe하지 않으므로 입력 stream 별로 객체를 만들어 사용하세요.
+ * <pre>
+ *     IncrementalAnalyzer analyzer = new IncrementalAnalyzer(komoran, new IncrementalAnalyzer.TokenListener() {
+ *         public void onToken(Token token) {
+ *             System.out.println(token);
+ *         }
+ *     });
+ *     analyzer.feed("감기는 자");
+ *     analyzer.feed("주 걸리는 ");
+ *     analyzer.flush();
+ * </pre>
+ */
+public class IncrementalAnalyzer {
+
+    private static final KoreanUnitParser UNIT_PARSER = new KoreanUnitParser();
+
+    private final Komoran komoran;
+    private final TokenListener listener;
+    //아직 분석하지 않은 문자열
+    private final StringBuilder pending = new StringBuilder();
+    //pending의 첫 문자의 입력 내 위치
+    private int pendingOffset;
+    //다음 feed에서 띄어쓰기를 찾기 시작할 pending 내 위치
+    private int scanIdx;
+
+    public IncrementalAnalyzer(Komoran komoran, TokenListener listener) {
+        this.komoran = komoran;
+        this.listener = listener;
+    }
+
+    /**
+     * 문자열을 입력합니다. 입력으로 끝난 어절이 있는 경우 분석하여 형태소를 전달합니다.
+     */
+    public void feed(CharSequence text) {
+        this.pending.append(text);
+        UserDictionary userDic = this.komoran.getUserDic();
+        int maxSpacedKeyLength = userDic == null ? 0 : userDic.getMaxSpacedKeyLength();
+
+        int cutIdx = -1;
+        int idx = this.scanIdx;
+        for (; idx < this.pending.length(); idx++) {
+            if (this.pending.charAt(idx) != ' ') {
+                continue;
+            }
+            if (maxSpacedKeyLength == 0) {
+                cutIdx = idx;
+                continue;
+            }
+            //띄어쓰기를 넘는 형태소가 있는지 확인할 수 있을 만큼 입력되지 않은 경우
+            if (this.pending.length() - idx - 1 < maxSpacedKeyLength) {
+                break;
+            }
+            if (!isSpannedByUserDic(userDic, this.pending, idx, maxSpacedKeyLength)) {
+                cutIdx = idx;
+            }
+        }
+        this.scanIdx = idx;
+
+        if (cutIdx != -1) {
+            this.analyze(0, cutIdx);
+            this.pending.delete(0, cutIdx + 1);
+            this.pendingOffset += cutIdx + 1;
+            this.scanIdx -= cutIdx + 1;
+        }
+    }
+
+    /**
+     * 남은 문자열을 모두 분석하여 형태소를 전달합니다.
+     */
+    public void flush() {
+        this.analyze(0, this.pending.length());
+        this.pendingOffset += this.pending.length();
+        this.pending.setLength(0);
+        this.scanIdx = 0;
+    }
+
+    //pending의 [beginIdx, endIdx) 구간을 분석하여 형태소를 전달
+    private void analyze(int beginIdx, int endIdx) {
+        //앞쪽의 띄어쓰기는 어절 끝 node만 만들기 때문에 건너뜀
+        while (beginIdx < endIdx && this.pending.charAt(beginIdx) == ' ') {
+            beginIdx++;
+        }
+        if (beginIdx == endIdx) {
+            return;
+        }
+        KomoranResult result = this.komoran.analyze(CharBuffer.wrap(this.pending, beginIdx, endIdx));
+        int offset = this.pendingOffset + beginIdx;
+        for (Token token : result.getTokenList()) {
+            //연속된 띄어쓰기 사이의 빈 미분석 형태소는 나누는 위치에 따라 달라지므로 전달하지 않음
+            if (token.getMorph().isEmpty()) {
+                continue;
+            }
+            token.setBeginIndex(token.getBeginIndex() + offset);
+            token.setEndIndex(token.getEndIndex() + offset);
+            this.listener.onToken(token);
+        }
+    }
+
+    //text의 spaceIdx 위치의 띄어쓰기를 포함하는 사용자 사전 형태소가 있는지 확인
+    static boolean isSpannedByUserDic(UserDictionary userDic, CharSequence text, int spaceIdx, int maxSpacedKeyLength) {
+        //형태소의 자소 단위 길이가 maxSpacedKeyLength 이하이므로 문자 단위로도 이 범위 안에 있음
+        int windowBeginIdx = Math.max(0, spaceIdx - maxSpacedKeyLength);
+        int windowEndIdx = Math.min(text.length(), spaceIdx + maxSpacedKeyLength + 1);
+        String jasoUnits = UNIT_PARSER.parse(text, windowBeginIdx, windowEndIdx);
+        int spaceJasoIdx = UNIT_PARSER.parse(text, windowBeginIdx, spaceIdx).length();
+
+        UserDictionary.Matcher matcher = userDic.newMatcher();
+        for (int i = 0; i < jasoUnits.length(); i++) {
+            matcher.next(jasoUnits.charAt(i));
+            if (i < spaceJasoIdx) {
+                continue;
+            }
+            while (matcher.find()) {
+                if (i + 1 - matcher.getLength() <= spaceJasoIdx) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 분석이 끝난 형태소를 전달받습니다.
+     */
+    public interface TokenListener {
+        void onToken(Token token);
+    }
+}
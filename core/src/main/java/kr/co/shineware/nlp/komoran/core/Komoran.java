@@ -17,43 +17,57 @@
  *******************************************************************************/
 package kr.co.shineware.nlp.komoran.core;
 
-import kr.co.shineware.ds.aho_corasick.FindContext;
 import kr.co.shineware.nlp.komoran.constant.*;
 import kr.co.shineware.nlp.komoran.core.model.*;
-import kr.co.shineware.nlp.komoran.core.model.combinationrules.CombinationRuleChecker;
-import kr.co.shineware.nlp.komoran.core.model.combinationrules.MergedCombinationRuleChecker;
-import kr.co.shineware.nlp.komoran.corpus.parser.CorpusParser;
-import kr.co.shineware.nlp.komoran.corpus.parser.model.ProblemAnswerPair;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie;
 import kr.co.shineware.nlp.komoran.model.KomoranResult;
+import kr.co.shineware.nlp.komoran.model.KomoranResultWriter;
 import kr.co.shineware.nlp.komoran.model.MorphTag;
 import kr.co.shineware.nlp.komoran.model.ScoredTag;
-import kr.co.shineware.nlp.komoran.modeler.model.IrregularNode;
-import kr.co.shineware.nlp.komoran.modeler.model.Observation;
+import kr.co.shineware.nlp.komoran.model.TokenColumns;
 import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
 import kr.co.shineware.nlp.komoran.util.KomoranCallable;
 import kr.co.shineware.util.common.file.FileUtil;
 import kr.co.shineware.util.common.model.Pair;
-import kr.co.shineware.util.common.string.StringUtil;
 
 import java.io.*;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * KOMORAN core 클래스입니다.
  */
 public class Komoran implements Cloneable {
 
-    private CombinationRuleChecker combinationRuleChecker;
-    private Resources resources;
-    private Observation userDic;
+    //delta에 쌓인 변경 사항이 이 수를 넘으면 사용자 사전을 다시 정리
+    private static final int USER_DIC_COMPACTION_THRESHOLD = 1024;
+    //CharacterClassTable의 연속된 기호 분류 별 품사
+    private static final SEJONGTAGS[] CONTINUOUS_SYMBOL_TAGS = {null, SEJONGTAGS.SL, SEJONGTAGS.SN, SEJONGTAGS.SH};
+    private static final double[] CONTINUOUS_SYMBOL_SCORE = {0.0, SCORE.SL, SCORE.SN, SCORE.SH};
+    private static final ExecutorService USER_DIC_COMPACTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "komoran-userdic-compactor");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    //분석에 사용되는 모든 상태는 snapshot 하나로 묶어 atomic하게 교체
+    private final AtomicReference<KomoranSnapshot> snapshot = new AtomicReference<>();
+    //snapshot을 갱신하는 쪽끼리만 동기화 (분석은 lock 없이 snapshot을 읽음)
+    private final Object snapshotLock = new Object();
+    private final Object userDicCompactionLock = new Object();
+    private boolean compactingUserDic;
     private KoreanUnitParser unitParser;
 
-    private HashMap<String, List<Pair<String, String>>> fwd;
-
     /**
      * modelPath 디렉토리에 있는 모델 파일들을 로딩하여 객체를 생성합니다. </p>
      * modelPath 디렉토리에는 pos.table, observation.model, transition.model, irregular.model 파일이 포함되어 있어야 합니다. </p>
@@ -62,12 +76,9 @@ public class Komoran implements Cloneable {
      * @param modelPath 모델 파일들이 포함되어 있는 디렉토리 경로
      */
     public Komoran(String modelPath) {
-        this.resources = new Resources();
-        this.load(modelPath);
-        this.unitParser = new KoreanUnitParser();
-        MorphUtil morphUtil = new MorphUtil();
-        TagUtil tagUtil = new TagUtil(this.resources.getTable());
-        this.combinationRuleChecker = new MergedCombinationRuleChecker(morphUtil, tagUtil);
+        Resources resources = new Resources();
+        resources.load(modelPath);
+        this.init(resources);
     }
 
     /**
@@ -77,41 +88,66 @@ public class Komoran implements Cloneable {
      * @param modelType 기본으로 제공되는 모델의 타입
      */
     public Komoran(DEFAULT_MODEL modelType) {
+        Resources resources = new Resources();
+        resources.load(modelType);
+        this.init(resources);
+    }
 
-        this.resources = new Resources();
-        this.resources.init();
-        String modelPath;
-        if (modelType == DEFAULT_MODEL.EXPERIMENT) {
-            modelPath = FILENAME.EXPERIMENT_MODEL;
-        } else if (modelType == DEFAULT_MODEL.STABLE) {
-            modelPath = FILENAME.STABLE_MODEL;
-        } else {
-            modelPath = FILENAME.STABLE_MODEL;
-        }
-
-        String delimiter = "/";
-        InputStream posTableFile =
-                this.getResourceStream(modelPath + delimiter + FILENAME.POS_TABLE);
-        InputStream irrModelFile =
-                this.getResourceStream(modelPath + delimiter + FILENAME.IRREGULAR_MODEL);
-        InputStream observationFile =
-                this.getResourceStream(modelPath + delimiter + FILENAME.OBSERVATION);
-        InputStream transitionFile =
-                this.getResourceStream(modelPath + delimiter + FILENAME.TRANSITION);
-
-        this.resources.loadPosTable(posTableFile);
-        this.resources.loadIrregular(irrModelFile);
-        this.resources.loadObservation(observationFile);
-        this.resources.loadTransition(transitionFile);
+    /**
+     * 이미 로딩된 모델을 사용하여 객체를 생성합니다. </p>
+     * 모델은 복사되지 않고 공유되므로 여러 Komoran 객체가 하나의 모델을 동시에 사용할 수 있습니다.
+     * <pre>
+     *     Resources resources = ResourcesRegistry.getShared().acquire(DEFAULT_MODEL.STABLE);
+     *     Komoran komoran = new Komoran(resources);
+     * </pre>
+     *
+     * @param resources 로딩된 모델
+     */
+    public Komoran(Resources resources) {
+        this.init(resources);
+    }
+
+    private void init(Resources resources) {
         this.unitParser = new KoreanUnitParser();
+        this.snapshot.set(KomoranSnapshot.builder(resources).build());
+    }
+
+    /**
+     * 분석에 사용되는 모델을 반환합니다.
+     */
+    public Resources getResources() {
+        return this.snapshot.get().getResources();
+    }
 
-        MorphUtil morphUtil = new MorphUtil();
-        TagUtil tagUtil = new TagUtil(this.resources.getTable());
-        this.combinationRuleChecker = new MergedCombinationRuleChecker(morphUtil, tagUtil);
+    /**
+     * 현재 분석에 사용되는 snapshot을 반환합니다.
+     */
+    public KomoranSnapshot getSnapshot() {
+        return this.snapshot.get();
     }
 
-    private InputStream getResourceStream(String path) {
-        return getClass().getClassLoader().getResourceAsStream(path);
+    /**
+     * 분석에 사용할 snapshot을 교체합니다. </p>
+     * 교체 이전에 시작된 분석은 이전 snapshot으로 끝까지 진행되며, 이후에 시작되는 분석부터 새로운 snapshot을 사용합니다.
+     * 다른 thread의 변경을 덮어쓰지 않으려면 {@link #compareAndSetSnapshot(KomoranSnapshot, KomoranSnapshot)}을 사용합니다.
+     *
+     * @param nextSnapshot 새로운 snapshot
+     */
+    public void setSnapshot(KomoranSnapshot nextSnapshot) {
+        synchronized (this.snapshotLock) {
+            this.snapshot.set(nextSnapshot);
+        }
+    }
+
+    /**
+     * 현재 snapshot이 expectedSnapshot인 경우에만 nextSnapshot으로 교체합니다.
+     *
+     * @return 교체된 경우 true
+     */
+    public boolean compareAndSetSnapshot(KomoranSnapshot expectedSnapshot, KomoranSnapshot nextSnapshot) {
+        synchronized (this.snapshotLock) {
+            return this.snapshot.compareAndSet(expectedSnapshot, nextSnapshot);
+        }
     }
 
     /**
@@ -136,9 +172,10 @@ public class Komoran implements Cloneable {
                 komoranResultList.add(executor.submit(komoranCallable));
             }
 
+            KomoranResultWriter resultWriter = new KomoranResultWriter(RESULT_FORMAT.PLAIN);
             for (Future<KomoranResult> komoranResultFuture : komoranResultList) {
                 KomoranResult komoranResult = komoranResultFuture.get();
-                bw.write(komoranResult.getPlainText());
+                resultWriter.write(komoranResult, bw);
                 bw.newLine();
             }
             bw.close();
@@ -182,6 +219,37 @@ public class Komoran implements Cloneable {
         return komoranResultList;
     }
 
+    /**
+     * 여러 문장을 입력 받아 형태소 분석을 진행하고, 결과를 문장 순서대로 columns 뒤에 추가합니다. </p>
+     * 형태소마다 객체를 만들지 않고 lattice의 최적 경로에서 바로 primitive 배열에 결과를 쓰므로 많은 문장의 결과를 색인이나 학습 데이터로 넘길 때 사용합니다.
+     * 결과는 1-best이며 batch 전체에 같은 모델과 사용자 사전이 적용됩니다. </p>
+     * 호출한 thread에서 문장을 순서대로 분석합니다. 여러 thread로 나누어 분석하려면 thread 별로 batch와 TokenColumns를 나누어 호출하세요.
+     * <pre>
+     *     TokenColumns columns = new TokenColumns();
+     *     for (List&lt;String&gt; batch : batches) {
+     *         columns.clear();
+     *         komoran.analyze(batch, columns);
+     *         indexer.index(columns.getMorphIds(), columns.getTagIds(), columns.getSentenceOffsets());
+     *     }
+     * </pre>
+     *
+     * @param sentences 분석할 문장들이 담긴 List. 각 원소는 하나의 문장이라고 간주합니다.
+     * @param columns   분석 결과를 추가할 columns
+     */
+    public void analyze(List<String> sentences, TokenColumns columns) {
+        //batch가 끝날 때까지 같은 snapshot을 사용
+        KomoranSnapshot snapshot = this.snapshot.get();
+        List<UserDictionary> userDics = this.getUserDics(snapshot, Collections.<UserDictionary>emptyList());
+        for (String sentence : sentences) {
+            String jasoUnits = unitParser.parse(sentence, 0, sentence.length());
+            Lattice lattice = this.buildLattice(snapshot, sentence, jasoUnits, 1, userDics);
+            //입력 문장 전체가 미분석인 경우
+            if (!columns.add(lattice, jasoUnits)) {
+                columns.add(this.makeNAResult(snapshot, sentence, jasoUnits));
+            }
+        }
+    }
+
     /**
      * 입력된 문장에 대해서 형태소 분석을 진행합니다.
      *
@@ -192,27 +260,57 @@ public class Komoran implements Cloneable {
         return this.analyze(sentence, 1).get(0);
     }
 
+    /**
+     * 입력된 문자열에 대해서 형태소 분석을 진행합니다. </p>
+     * StringBuilder, CharBuffer 등을 String으로 복사하지 않고 바로 자소 단위로 분할합니다.
+     *
+     * @param sentence 분석 대상 문장
+     * @return 형태소 분석 결과
+     */
+    public KomoranResult analyze(CharSequence sentence) {
+        return this.analyze(sentence, 1, Collections.<UserDictionary>emptyList()).get(0);
+    }
+
+    /**
+     * 문자 배열의 [offset, offset + length) 구간에 대해서 형태소 분석을 진행합니다. </p>
+     * 구간을 String으로 복사하지 않고 바로 자소 단위로 분할하며, 결과의 위치({@link kr.co.shineware.nlp.komoran.model.Token#getBeginIndex()} 등)는 offset을 0으로 하는 위치입니다.
+     * <pre>
+     *     char[] buffer = ...;
+     *     KomoranResult komoranResult = komoran.analyze(buffer, lineBegin, lineEnd - lineBegin);
+     * </pre>
+     *
+     * @param chars  분석 대상 문장이 담긴 배열
+     * @param offset 문장의 시작 위치
+     * @param length 문장의 길이
+     * @return 형태소 분석 결과
+     * @throws IndexOutOfBoundsException 구간이 배열을 벗어나는 경우
+     */
+    public KomoranResult analyze(char[] chars, int offset, int length) {
+        //wrap된 buffer의 charAt은 offset으로부터의 상대 위치
+        return this.analyze(CharBuffer.wrap(chars, offset, length));
+    }
+
     public double scoreDebug(List<String> analyzeResultList, List<String> analyzePosList){
 
+        Resources resources = this.getResources();
         String prevPos = SYMBOL.BOE;
         double score = 0.0;
 
         for(int i=0;i<analyzePosList.size();i++){
             String currentMorph = analyzeResultList.get(i);
             String currentPos = analyzePosList.get(i);
-            FindContext<List<ScoredTag>> findContext = this.resources.getObservation().getTrieDictionary().newFindContext();
             String jasoUnits = unitParser.parse(currentMorph);
-            ScoredTag scoredTag = getScoredTag(jasoUnits, findContext, currentPos);
-            score += getScore(currentMorph, scoredTag, prevPos, currentPos);
+            ScoredTag scoredTag = getScoredTag(resources, jasoUnits, currentPos);
+            score += getScore(resources, currentMorph, scoredTag, prevPos, currentPos);
             prevPos = currentPos;
         }
         return score;
     }
 
-    private double getScore(String currentMorph, ScoredTag scoredTag, String prevPos, String currentPos) {
-        int prevId = this.resources.getTable().getId(prevPos);
-        int currentId= this.resources.getTable().getId(currentPos);
-        double transitionScore = this.resources.getTransition().get(prevId, currentId);
+    private double getScore(Resources resources, String currentMorph, ScoredTag scoredTag, String prevPos, String currentPos) {
+        int prevId = resources.getTable().getId(prevPos);
+        int currentId= resources.getTable().getId(currentPos);
+        double transitionScore = resources.getTransition().getScore(prevId, currentId);
         System.out.println(prevPos+"->"+currentPos+":"+transitionScore);
         System.out.println(currentMorph+ " : "+scoredTag);
 
@@ -220,17 +318,15 @@ public class Komoran implements Cloneable {
 
     }
 
-    private ScoredTag getScoredTag(String jasoUnits, FindContext<List<ScoredTag>> findContext, String posResult) {
+    private ScoredTag getScoredTag(Resources resources, String jasoUnits, String posResult) {
 
-        for(int i=0;i<jasoUnits.length();i++){
-            Map<String, List<ScoredTag>> keyScoreTagMap = this.resources.getObservation().getTrieDictionary().get(findContext, jasoUnits.charAt(i));
-            if(keyScoreTagMap.get(jasoUnits) == null){
-                continue;
-            }
-            for (ScoredTag scoredTag : keyScoreTagMap.get(jasoUnits)) {
-                if(scoredTag.getTag().equals(posResult)){
-                    return scoredTag;
-                }
+        List<ScoredTag> scoredTags = resources.getAnalysisDictionary().getScoredTags(jasoUnits);
+        if (scoredTags == null) {
+            return null;
+        }
+        for (ScoredTag scoredTag : scoredTags) {
+            if (scoredTag.getTag().equals(posResult)) {
+                return scoredTag;
             }
         }
         return null;
@@ -244,26 +340,81 @@ public class Komoran implements Cloneable {
      * @return 형태소 분석 결과 중 nbest 수 만큼의 결과
      */
     public List<KomoranResult> analyze(String sentence, int nbest) {
+        return this.analyze(sentence, nbest, Collections.<UserDictionary>emptyList());
+    }
 
-        Lattice lattice = new Lattice(this.resources, this.userDic, nbest, combinationRuleChecker);
+    /**
+     * 사용자 사전 overlay를 추가로 적용하여 형태소 분석을 진행 후 n-best 결과를 반환합니다. </p>
+     * overlay는 이 객체의 사용자 사전(setUserDic)과 함께 적용되며, 모델과 사용자 사전은 복사되지 않고 공유됩니다.
+     * <pre>
+     *     UserDictionary tenantDic = komoran.loadUserDicOverlay("tenant/dic.user");
+     *     List&lt;KomoranResult&gt; results = komoran.analyze("바람과 함께 사라지다를 봤어", 1, Collections.singletonList(tenantDic));
+     * </pre>
+     *
+     * @param sentence 분석 대상 문장
+     * @param nbest    분석 결과 중 추출할 상위 n개의 수
+     * @param overlays 이번 분석에만 적용할 사용자 사전들
+     * @return 형태소 분석 결과 중 nbest 수 만큼의 결과
+     */
+    public List<KomoranResult> analyze(CharSequence sentence, int nbest, List<UserDictionary> overlays) {
+
+        //분석이 끝날 때까지 같은 snapshot을 사용
+        KomoranSnapshot snapshot = this.snapshot.get();
+        //자소 단위로 분할
+        String jasoUnits = unitParser.parse(sentence, 0, sentence.length());
+        Lattice lattice = this.buildLattice(snapshot, sentence, jasoUnits, nbest, this.getUserDics(snapshot, overlays));
+
+        List<List<LatticeNode>> nBestPath = lattice.findNBestPath();
+
+        List<KomoranResult> nbestResultList = new ArrayList<>();
+
+        //입력 문장 전체가 미분석인 경우
+        if (nBestPath == null) {
+            nbestResultList.add(this.makeNAResult(snapshot, sentence, jasoUnits));
+        } else {
+            for (List<LatticeNode> shortestPath : nBestPath) {
+                Collections.reverse(shortestPath);
+                List<LatticeNode> resultList = new ArrayList<>(shortestPath);
+                nbestResultList.add(new KomoranResult(resultList, jasoUnits));
+            }
+        }
+
+        return nbestResultList;
+    }
+
+    //입력 문장 전체를 하나의 미분석 형태소로 하는 결과
+    private KomoranResult makeNAResult(KomoranSnapshot snapshot, CharSequence sentence, String jasoUnits) {
+        List<LatticeNode> resultList = new ArrayList<>();
+        resultList.add(new LatticeNode(0, jasoUnits.length(), new MorphTag(sentence.toString(), SYMBOL.NA, this.getTagId(snapshot, SEJONGTAGS.NA)), SCORE.NA));
+        return new KomoranResult(resultList, jasoUnits);
+    }
+
+    //문장의 lattice를 만들고 끝 node까지 연결
+    private Lattice buildLattice(KomoranSnapshot snapshot, CharSequence sentence, String jasoUnits, int nbest, List<UserDictionary> userDics) {
+
+        Lattice lattice = new Lattice(snapshot.getResources(), userDics, nbest, snapshot.getCombinationRuleChecker());
 
         //연속된 숫자, 외래어, 기호 등을 파싱 하기 위한 버퍼
         ContinuousSymbolBuffer continuousSymbolBuffer = new ContinuousSymbolBuffer();
+        //문자 별 분류 (모델을 로드할 때 계산됨)
+        CharacterClassTable characterClassTable = lattice.getAnalysisDictionary().getCharacterClassTable();
 
-        //자소 단위로 분할
-        String jasoUnits = unitParser.parse(sentence);
-        List<Pair<Character, KoreanUnitParser.UnitType>> jasoUnitsWithType = unitParser.parseWithType(sentence);
+        //자소 별 종류는 미분석 형태소를 만들 때만 필요하므로 처음 필요할 때 분할
+        JasoUnitsWithType jasoUnitsWithType = new JasoUnitsWithType(unitParser, sentence);
 
         int length = jasoUnits.length();
         //start 노드 또는 end 노드의 바로 다음 인덱스
         //어절의 시작을 알리는 idx
         int whitespaceIndex = 0;
+        //미분석 처리가 시작되는 idx, 긴 어절을 나누지 않는 경우에는 어절의 시작
+        int segmentBeginIndex = 0;
+        boolean longEojeol = this.isLongEojeol(snapshot, jasoUnits, 0);
         boolean inserted;
 
         for (int curJasoIndex = 0; curJasoIndex < length; curJasoIndex++) {
 
             //기분석 사전
-            int skipIdx = this.lookupFwd(lattice, jasoUnits, curJasoIndex);
+            int skipIdx = this.lookupFwd(snapshot, lattice, jasoUnits, curJasoIndex);
             if (skipIdx != -1) {
                 curJasoIndex = skipIdx - 1;
                 continue;
@@ -271,163 +422,180 @@ public class Komoran implements Cloneable {
 
             //띄어쓰기인 경우
             if (jasoUnits.charAt(curJasoIndex) == ' ') {
-                this.consumeContiniousSymbolParserBuffer(lattice, curJasoIndex, continuousSymbolBuffer);
-                this.bridgeToken(lattice, curJasoIndex, jasoUnits, whitespaceIndex, jasoUnitsWithType);
+                this.consumeContinuousSymbolBuffer(snapshot, lattice, jasoUnits, curJasoIndex, continuousSymbolBuffer);
+                //어절을 나눈 경우에는 문장 끝과 같이 점수가 가장 높은 node 뒤에 미분석 node를 연결
+                int prevNodeIdx = segmentBeginIndex == whitespaceIndex ? 0 : lattice.getBestNodeIdx(segmentBeginIndex);
+                this.bridgeToken(snapshot, lattice, curJasoIndex, segmentBeginIndex, prevNodeIdx, jasoUnitsWithType);
                 whitespaceIndex = curJasoIndex + 1;
+                segmentBeginIndex = whitespaceIndex;
+                longEojeol = this.isLongEojeol(snapshot, jasoUnits, whitespaceIndex);
             }
 
+            char jaso = jasoUnits.charAt(curJasoIndex);
             //이 부분도 조금 더 깔끔한 방법으로 처리 할 수 없을지 고민해보자
-            this.continuousSymbolParsing(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex, continuousSymbolBuffer); //숫자, 영어, 외래어 파싱
+            this.continuousSymbolParsing(snapshot, lattice, jasoUnits, curJasoIndex, continuousSymbolBuffer, characterClassTable.getSymbolClass(jaso)); //숫자, 영어, 외래어 파싱
+
+            //공백 없이 긴 어절은 나눌 수 있는 위치마다 미분석 처리의 시작 위치를 옮김
+            //현재 위치까지 연결된 node가 없는 경우에는 이전 위치부터 현재 위치까지를 미분석으로 처리하고 현재 위치부터 다시 분석
+            if (longEojeol && curJasoIndex > segmentBeginIndex
+                    && this.isSegmentBoundary(snapshot, lattice, characterClassTable, jasoUnits, curJasoIndex)) {
+                if (lattice.getNodeList(curJasoIndex) == null) {
+                    this.appendNANode(snapshot, lattice, segmentBeginIndex, lattice.getBestNodeIdx(segmentBeginIndex), curJasoIndex, jasoUnitsWithType);
+                }
+                //불규칙 node만 있는 열에는 미분석 node를 연결할 수 없으므로 시작 위치를 옮기지 않음
+                if (lattice.getBestNodeIdx(curJasoIndex) != -1) {
+                    segmentBeginIndex = curJasoIndex;
+                }
+            }
 
             //기타 기호인 경우
-            this.symbolParsing(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex); // 기타 심볼 파싱
-            this.userDicParsing(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex); //사용자 사전 적용
+            if (characterClassTable.isSymbol(jaso)) {
+                this.symbolParsing(snapshot, lattice, jaso, curJasoIndex); // 기타 심볼 파싱
+            }
+            this.userDicParsing(lattice, jasoUnits, curJasoIndex); //사용자 사전 적용
 
-            this.regularParsing(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex); //일반규칙 파싱
-            this.irregularParsing(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex); //불규칙 파싱
-            this.irregularExtends(lattice, jasoUnits.charAt(curJasoIndex), curJasoIndex); //불규칙 확장
+            //사전의 key에 나타나지 않는 문자(숫자, 영어, 기호 등)에서 끝나는 형태소나 불규칙 확장은 없음
+            if (!characterClassTable.isDictionaryCharacter(jaso)) {
+                lattice.resetAnalysisDictionary();
+                continue;
+            }
+            this.dictionaryParsing(snapshot, lattice, jasoUnits, curJasoIndex); //일반규칙 및 불규칙 파싱
+            this.irregularExtends(snapshot, lattice, jaso, curJasoIndex); //불규칙 확장
         }
 
 
-        this.consumeContiniousSymbolParserBuffer(lattice, jasoUnits, continuousSymbolBuffer);
+        this.consumeContinuousSymbolBuffer(snapshot, lattice, jasoUnits, jasoUnits.length(), continuousSymbolBuffer);
         lattice.setLastIdx(jasoUnits.length());
         inserted = lattice.appendEndNode();
         //입력 문장의 끝에 END 품사가 올 수 없는 경우
         if (!inserted) {
-            double NAPenaltyScore = SCORE.NA;
-            if (whitespaceIndex != 0) {
-                NAPenaltyScore += lattice.getNodeList(whitespaceIndex).get(0).getScore();
-            }
-            String combinedWord = unitParser.combineWithType(jasoUnitsWithType.subList(whitespaceIndex, jasoUnits.length()));
-            LatticeNode latticeNode = new LatticeNode(whitespaceIndex, jasoUnits.length(), new MorphTag(combinedWord, SYMBOL.NA, SEJONGTAGS.NA_ID), NAPenaltyScore);
-            latticeNode.setPrevNodeIdx(0);
-            lattice.appendNode(latticeNode);
+            //어절의 시작 열에는 문장 시작 또는 어절 끝 node가 있으며, 어절을 나눈 경우에는 점수가 가장 높은 node 뒤에 연결
+            int prevNodeIdx = segmentBeginIndex == whitespaceIndex ? 0 : lattice.getBestNodeIdx(segmentBeginIndex);
+            this.appendNANode(snapshot, lattice, segmentBeginIndex, prevNodeIdx, jasoUnits.length(), jasoUnitsWithType);
             lattice.appendEndNode();
         }
 
-        List<List<LatticeNode>> nBestPath = lattice.findNBestPath();
+        return lattice;
+    }
 
-        List<KomoranResult> nbestResultList = new ArrayList<>();
 
-        //입력 문장 전체가 미분석인 경우
-        if (nBestPath == null) {
-            List<LatticeNode> resultList = new ArrayList<>();
-            resultList.add(new LatticeNode(0, jasoUnits.length(), new MorphTag(sentence, "NA", -1), SCORE.NA));
-            nbestResultList.add(new KomoranResult(resultList, jasoUnits));
-        } else {
-            for (List<LatticeNode> shortestPath : nBestPath) {
-                Collections.reverse(shortestPath);
-                List<LatticeNode> resultList = new ArrayList<>(shortestPath);
-                nbestResultList.add(new KomoranResult(resultList, jasoUnits));
+    private List<UserDictionary> getUserDics(KomoranSnapshot snapshot, List<UserDictionary> overlays) {
+        UserDictionary userDic = snapshot.getUserDic();
+        if (overlays.isEmpty()) {
+            return userDic == null ? Collections.<UserDictionary>emptyList() : Collections.singletonList(userDic);
+        }
+        List<UserDictionary> userDics = new ArrayList<>(overlays.size() + 1);
+        if (userDic != null) {
+            userDics.add(userDic);
+        }
+        for (UserDictionary overlay : overlays) {
+            if (overlay.getPosTable() != snapshot.getResources().getTable()) {
+                throw new IllegalArgumentException("user dictionary overlay was built for another model");
             }
+            userDics.add(overlay);
         }
+        return userDics;
+    }
 
-        return nbestResultList;
+    //beginIdx 열의 prevNodeIdx번째 node 뒤에 endIdx까지의 미분석 node를 추가
+    private void appendNANode(KomoranSnapshot snapshot, Lattice lattice, int beginIdx, int prevNodeIdx, int endIdx, JasoUnitsWithType jasoUnitsWithType) {
+        double NAPenaltyScore = SCORE.NA;
+        if (beginIdx != 0) {
+            NAPenaltyScore += lattice.getNodeList(beginIdx).get(prevNodeIdx).getScore();
+        }
+        String combinedWord = unitParser.combineWithType(jasoUnitsWithType.subList(beginIdx, endIdx));
+        LatticeNode latticeNode = new LatticeNode(beginIdx, endIdx, new MorphTag(combinedWord, SYMBOL.NA, this.getTagId(snapshot, SEJONGTAGS.NA)), NAPenaltyScore);
+        latticeNode.setPrevNodeIdx(prevNodeIdx);
+        lattice.appendNode(latticeNode);
     }
 
+    private boolean isLongEojeol(KomoranSnapshot snapshot, String jasoUnits, int whitespaceIndex) {
+        if (snapshot.getMaxEojeolLength() == 0) {
+            return false;
+        }
+        int eojeolEndIdx = jasoUnits.indexOf(' ', whitespaceIndex);
+        eojeolEndIdx = eojeolEndIdx == -1 ? jasoUnits.length() : eojeolEndIdx;
+        return eojeolEndIdx - whitespaceIndex > snapshot.getMaxEojeolLength();
+    }
 
-    private void bridgeToken(Lattice lattice, int curIdx, String jasoUnits, int prevBeginSymbolIdx, List<Pair<Character, KoreanUnitParser.UnitType>> jasoUnitsWithType) {
+    //문자 종류가 바뀌는 위치, 문장 부호나 기호 뒤, 종결 어미로 끝나는 node가 있는 위치에서 어절을 나눔
+    private boolean isSegmentBoundary(KomoranSnapshot snapshot, Lattice lattice, CharacterClassTable characterClassTable, String jasoUnits, int idx) {
+        int prevScript = characterClassTable.getScript(jasoUnits.charAt(idx - 1));
+        if (prevScript == CharacterClassTable.NONE || prevScript != characterClassTable.getScript(jasoUnits.charAt(idx))) {
+            return true;
+        }
+        List<LatticeNode> latticeNodes = lattice.getNodeList(idx);
+        if (prevScript != CharacterClassTable.HANGUL || latticeNodes == null) {
+            return false;
+        }
+        int efTagId = this.getTagId(snapshot, SEJONGTAGS.EF);
+        for (LatticeNode latticeNode : latticeNodes) {
+            if (latticeNode.getMorphTag().getTagId() == efTagId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void bridgeToken(KomoranSnapshot snapshot, Lattice lattice, int curIdx, int prevBeginSymbolIdx, int prevNodeIdx, JasoUnitsWithType jasoUnitsWithType) {
 
 
-        if (lattice.put(curIdx, curIdx + 1, SYMBOL.EOE, SYMBOL.EOE, SEJONGTAGS.EOE_ID, 0.0)) {
+        if (lattice.put(curIdx, curIdx + 1, SYMBOL.EOE, this.getTagId(snapshot, SEJONGTAGS.EOE), 0.0)) {
             return;
         }
         //공백이라면 END 기호를 삽입
-        LatticeNode naLatticeNode = lattice.makeNode(prevBeginSymbolIdx, curIdx, unitParser.combineWithType(jasoUnitsWithType.subList(prevBeginSymbolIdx, curIdx)), SYMBOL.NA, this.resources.getTable().getId(SYMBOL.NA), SCORE.NA, 0);
+        LatticeNode naLatticeNode = lattice.makeNode(prevBeginSymbolIdx, curIdx, unitParser.combineWithType(jasoUnitsWithType.subList(prevBeginSymbolIdx, curIdx)), this.getTagId(snapshot, SEJONGTAGS.NA), SCORE.NA, prevNodeIdx);
 
         int naNodeIndex = lattice.appendNode(naLatticeNode);
-        LatticeNode endLatticeNode = lattice.makeNode(curIdx, curIdx + 1, SYMBOL.EOE, SYMBOL.EOE, SEJONGTAGS.EOE_ID, 0.0, naNodeIndex);
+        LatticeNode endLatticeNode = lattice.makeNode(curIdx, curIdx + 1, SYMBOL.EOE, this.getTagId(snapshot, SEJONGTAGS.EOE), 0.0, naNodeIndex);
         lattice.appendNode(endLatticeNode);
     }
 
-    private void symbolParsing(Lattice lattice, char jaso, int idx) {
-
-        Character.UnicodeBlock unicodeBlock = Character.UnicodeBlock.of(jaso);
-        //숫자
-        if (StringUtil.isNumeric(jaso)) {
-        } else if (unicodeBlock == Character.UnicodeBlock.BASIC_LATIN) {
-            if (!isEnglishCharacter(jaso) && !isWhitespaceCharacter(jaso) && !isDictionaryEntryCharacter(jaso)) {
-                lattice.put(idx, idx + 1, "" + jaso, SYMBOL.SW, SEJONGTAGS.SW_ID, SCORE.SW);
-            }
-        } else if (!StringUtil.isKorean(jaso) && !StringUtil.isJapanese(jaso) && !StringUtil.isChinese(jaso)) {
-            lattice.put(idx, idx + 1, "" + jaso, SYMBOL.SW, SEJONGTAGS.SW_ID, SCORE.SW);
-        }
-    }
-
-    private boolean isDictionaryEntryCharacter(char jaso) {
-        return this.resources.getObservation().getTrieDictionary().getValue("" + jaso) != null;
-    }
-
-    private boolean isWhitespaceCharacter(char jaso) {
-        return jaso == ' ';
-    }
-
-    private boolean isEnglishCharacter(char jaso) {
-        return ((jaso >= 'A') && (jaso <= 'Z')) || ((jaso >= 'a') && (jaso <= 'z'));
+    private void symbolParsing(KomoranSnapshot snapshot, Lattice lattice, char jaso, int idx) {
+        lattice.put(idx, idx + 1, "" + jaso, this.getTagId(snapshot, SEJONGTAGS.SW), SCORE.SW);
     }
 
-    private void userDicParsing(Lattice lattice, char jaso, int curIndex) {
-        //Aho-corasick TRIE 기반의 사전 검색하여 형태소와 품사 및 품사 점수(observation)를 얻어옴
-        Map<String, List<ScoredTag>> morphScoredTagsMap = lattice.retrievalUserDicObservation(jaso);
-
-        if (morphScoredTagsMap == null || morphScoredTagsMap.size() == 0) {
-            return;
-        }
-
-        //형태소 정보만 얻어옴
-        Set<String> morphes = morphScoredTagsMap.keySet();
+    private void userDicParsing(Lattice lattice, String jasoUnits, int curIndex) {
+        //사용자 사전에서 현재 위치에서 끝나는 형태소와 품사 및 점수(observation)를 얻어옴
+        List<UserDictionary.Matcher> matchers = lattice.retrievalUserDic(jasoUnits.charAt(curIndex));
 
         //각 형태소와 품사 정보를 lattice에 삽입
-        for (String morph : morphes) {
-            int beginIdx = curIndex - morph.length() + 1;
-            int endIdx = curIndex + 1;
-
-            //형태소에 대한 품사 및 점수(observation) 정보를 List 형태로 가져옴
-            List<ScoredTag> scoredTags = morphScoredTagsMap.get(morph);
-            for (ScoredTag scoredTag : scoredTags) {
-                lattice.put(beginIdx, endIdx, morph, scoredTag.getTag(), scoredTag.getTagId(), scoredTag.getScore());
+        for (UserDictionary.Matcher matcher : matchers) {
+            while (matcher.find()) {
+                int beginIdx = curIndex - matcher.getLength() + 1;
+                int endIdx = curIndex + 1;
+                String morph = jasoUnits.substring(beginIdx, endIdx);
+
+                for (ScoredTag scoredTag : matcher.getScoredTags()) {
+                    lattice.put(beginIdx, endIdx, morph, scoredTag.getTagId(), scoredTag.getScore());
+                }
             }
         }
     }
 
-    private int lookupFwd(Lattice lattice, String token, int curJasoIndex) {
+    private int lookupFwd(KomoranSnapshot snapshot, Lattice lattice, String token, int curJasoIndex) {
 
-        if (this.fwd == null) {
+        if (snapshot.getFwd() == null) {
             return -1;
         }
 
         //현재 인덱스가 시작이거나 이전 인덱스가 공백인 경우 (word 단어인 경우)
         //즉, 현재 인덱스가 온전한 단어의 시작 부분인 경우
         if (curJasoIndex == 0 || token.charAt(curJasoIndex - 1) == ' ') {
-            //다음 공백을 찾아 단어(word)의 마지막 인덱스를 가져옴
-            //다음에 공백이 없다면 입력 문자열의 마지막 인덱스를 가져옴 = 마지막 단어인 경우
-            int wordEndIdx = token.indexOf(' ', curJasoIndex);
-            wordEndIdx = wordEndIdx == -1 ? token.length() : wordEndIdx;
-            String targetWord = token.substring(curJasoIndex, wordEndIdx);
-            List<Pair<String, String>> fwdResultList = this.fwd.get(targetWord);
-
-            if (fwdResultList != null) {
-                this.insertLatticeForFwd(lattice, curJasoIndex, wordEndIdx, fwdResultList, targetWord);
+            //다음 공백까지 automaton을 따라가며 단어(word)가 기분석 사전에 있는지 확인
+            FwdDictionary fwd = snapshot.getFwd();
+            int entry = fwd.findWord(token, curJasoIndex);
+            if (entry != FwdDictionary.NONE) {
+                //다음에 공백이 없다면 입력 문자열의 마지막 인덱스를 가져옴 = 마지막 단어인 경우
+                int wordEndIdx = token.indexOf(' ', curJasoIndex);
+                wordEndIdx = wordEndIdx == -1 ? token.length() : wordEndIdx;
+                lattice.put(curJasoIndex, wordEndIdx, fwd, entry);
                 return wordEndIdx;
             }
         }
         return -1;
     }
 
-    private void insertLatticeForFwd(Lattice lattice, int beginIdx, int endIdx,
-                                     List<Pair<String, String>> fwdResultList, String targetWord) {
-
-        //기분석 사전과 targetWord의 문자열이 일치하는 경우
-//        if (hasRegularFWDValues(fwdResultList, targetWord)) {
-//            for (Pair<String, String> morphPosPair : fwdResultList) {
-//                lattice.put(beginIdx, beginIdx + this.unitParser.parse(morphPosPair.getFirst()).length(), morphPosPair.getFirst(), morphPosPair.getSecond(), this.resources.getTable().getId(morphPosPair.getSecond()), 0.0);
-//                beginIdx += beginIdx + this.unitParser.parse(morphPosPair.getFirst()).length();
-//            }
-//        } else {
-        lattice.put(beginIdx, endIdx, fwdResultList);
-//        }
-    }
-
     private boolean hasRegularFWDValues(List<Pair<String, String>> fwdResultList, String targetWord) {
         StringBuilder fwdMorphs = new StringBuilder();
 
@@ -438,210 +606,171 @@ public class Komoran implements Cloneable {
         return fwdMorphs.toString().equals(targetWord);
     }
 
-    private void continuousSymbolParsing(Lattice lattice, char charAt, int i, ContinuousSymbolBuffer continuousSymbolBuffer) {
-        String curPos = "";
-        if (StringUtil.isEnglish(charAt)) {
-            curPos = "SL";
-        } else if (StringUtil.isNumeric(charAt)) {
-            curPos = "SN";
-        } else if (StringUtil.isChinese(charAt)) {
-            curPos = "SH";
-        } else if (StringUtil.isForeign(charAt)) {
-            curPos = "SL";
-        }
-
-        //현재 기호의 품사가 이전 기호의 품사와 같은 경우에는 갱신하여 추가
-        if (curPos.equals(continuousSymbolBuffer.getPrevPos())) {
-            continuousSymbolBuffer.setPrevMorph(continuousSymbolBuffer.getPrevMorph() + charAt);
-        } else {
-            switch (continuousSymbolBuffer.getPrevPos()) {
-                case "SL":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), i,
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SL
-                    );
-                    break;
-                case "SN":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), i,
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SN
-                    );
-                    break;
-                case "SH":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), i,
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SH
-                    );
-                    break;
-            }
-            continuousSymbolBuffer.setPrevBeginIdx(i);
-            continuousSymbolBuffer.setPrevMorph("" + charAt);
-            continuousSymbolBuffer.setPrevPos(curPos);
-        }
-    }
-
-    private void consumeContiniousSymbolParserBuffer(Lattice lattice, String in, ContinuousSymbolBuffer continuousSymbolBuffer) {
-        if (continuousSymbolBuffer.getPrevPos().trim().length() != 0) {
-            switch (continuousSymbolBuffer.getPrevPos()) {
-                case "SL":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(),
-                            in.length(),
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SL
-                    );
-                    break;
-                case "SH":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(),
-                            in.length(),
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SH
-                    );
-                    break;
-                case "SN":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(),
-                            in.length(),
-                            continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(),
-                            this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()),
-                            SCORE.SN
-                    );
-                    break;
-            }
+    private void continuousSymbolParsing(KomoranSnapshot snapshot, Lattice lattice, String jasoUnits, int i, ContinuousSymbolBuffer continuousSymbolBuffer, int symbolClass) {
+        //현재 기호의 분류가 이전 기호의 분류와 같은 경우에는 구간을 늘림
+        if (symbolClass == continuousSymbolBuffer.getSymbolClass()) {
+            return;
         }
+        this.consumeContinuousSymbolBuffer(snapshot, lattice, jasoUnits, i, continuousSymbolBuffer);
+        continuousSymbolBuffer.begin(symbolClass, i);
     }
 
-    private void consumeContiniousSymbolParserBuffer(Lattice lattice, int endIdx, ContinuousSymbolBuffer continuousSymbolBuffer) {
-        if (continuousSymbolBuffer.getPrevPos().trim().length() != 0) {
-            switch (continuousSymbolBuffer.getPrevPos()) {
-                case "SL":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), endIdx, continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(), this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()), SCORE.SL);
-                    break;
-                case "SH":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), endIdx, continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(), this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()), SCORE.SH);
-                    break;
-                case "SN":
-                    lattice.put(continuousSymbolBuffer.getPrevBeginIdx(), endIdx, continuousSymbolBuffer.getPrevMorph(),
-                            continuousSymbolBuffer.getPrevPos(), this.resources.getTable().getId(continuousSymbolBuffer.getPrevPos()), SCORE.SN);
-                    break;
-            }
+    //연속된 기호 구간을 endIdx 위치까지의 형태소로 lattice에 추가하고 비움
+    private void consumeContinuousSymbolBuffer(KomoranSnapshot snapshot, Lattice lattice, String jasoUnits, int endIdx, ContinuousSymbolBuffer continuousSymbolBuffer) {
+        int symbolClass = continuousSymbolBuffer.getSymbolClass();
+        if (symbolClass == CharacterClassTable.NONE) {
+            return;
         }
+        int beginIdx = continuousSymbolBuffer.getBeginIdx();
+        lattice.put(beginIdx, endIdx, jasoUnits.substring(beginIdx, endIdx),
+                this.getTagId(snapshot, CONTINUOUS_SYMBOL_TAGS[symbolClass]), CONTINUOUS_SYMBOL_SCORE[symbolClass]);
+        continuousSymbolBuffer.clear();
     }
 
-    private void irregularExtends(Lattice lattice, char jaso, int curIndex) {
+    private void irregularExtends(KomoranSnapshot snapshot, Lattice lattice, char jaso, int curIndex) {
         List<LatticeNode> prevLatticeNodes = lattice.getNodeList(curIndex);
         if (prevLatticeNodes != null) {
-            Set<LatticeNode> extendedIrrNodeList = new HashSet<>();
+            AnalysisDictionary analysisDictionary = snapshot.getResources().getAnalysisDictionary();
+            PackedScoredTags scoredTags = analysisDictionary.getPackedScoredTags();
+            List<LatticeNode> extendedIrrNodeList = null;
 
             for (LatticeNode prevLatticeNode : prevLatticeNodes) {
                 //불규칙 태그인 경우에 대해서만
-                if (prevLatticeNode.getMorphTag().getTagId() == SYMBOL.IRREGULAR_ID) {
-                    //마지막 형태소 정보를 얻어옴
-                    String lastMorph = prevLatticeNode.getMorphTag().getMorph();
-
-                    //불규칙의 마지막 형태소에 현재 자소 단위를 합쳤을 때 자식 노드가 있다면 계속 탐색 가능 후보로 처리 해야함
-                    if (this.resources.getObservation().getTrieDictionary().hasChild((lastMorph + jaso).toCharArray())) {
-                        LatticeNode extendedIrregularNode = new LatticeNode();
-                        extendedIrregularNode.setBeginIdx(prevLatticeNode.getBeginIdx());
-                        extendedIrregularNode.setEndIdx(curIndex + 1);
-                        extendedIrregularNode.setMorphTag(new MorphTag(prevLatticeNode.getMorphTag().getMorph() + jaso, SYMBOL.IRREGULAR, SYMBOL.IRREGULAR_ID));
-                        extendedIrregularNode.setPrevNodeIdx(prevLatticeNode.getPrevNodeIdx());
-                        extendedIrregularNode.setScore(prevLatticeNode.getScore());
-                        extendedIrrNodeList.add(extendedIrregularNode);
-                    }
-                    //불규칙의 마지막 형태소에 현재 자소 단위를 합쳐 점수를 얻어옴
-                    List<ScoredTag> lastScoredTags = this.resources.getObservation().getTrieDictionary().getValue(lastMorph + jaso);
-                    if (lastScoredTags == null) {
-                        continue;
+                if (prevLatticeNode.getMorphTag().getTagId() != SYMBOL.IRREGULAR_ID) {
+                    continue;
+                }
+                //불규칙의 마지막 형태소에 해당하는 사전 상태에서 현재 자소 단위로 한 칸만 이동
+                int state = prevLatticeNode.getDictionaryState();
+                if (state == -1) {
+                    continue;
+                }
+                int nextState = analysisDictionary.child(state, jaso);
+                if (nextState == -1) {
+                    continue;
+                }
+                String extendedMorph = null;
+
+                //불규칙의 마지막 형태소에 현재 자소 단위를 합쳤을 때 자식 노드가 있다면 계속 탐색 가능 후보로 처리 해야함
+                if (analysisDictionary.hasChild(nextState, AnalysisDictionary.OBSERVATION)) {
+                    extendedMorph = prevLatticeNode.getMorphTag().getMorph() + jaso;
+                    LatticeNode extendedIrregularNode = new LatticeNode();
+                    extendedIrregularNode.setBeginIdx(prevLatticeNode.getBeginIdx());
+                    extendedIrregularNode.setEndIdx(curIndex + 1);
+                    extendedIrregularNode.setMorphTag(new MorphTag(extendedMorph, SYMBOL.IRREGULAR, SYMBOL.IRREGULAR_ID));
+                    extendedIrregularNode.setPrevNodeIdx(prevLatticeNode.getPrevNodeIdx());
+                    extendedIrregularNode.setScore(prevLatticeNode.getScore());
+                    extendedIrregularNode.setDictionaryState(nextState);
+                    if (extendedIrrNodeList == null) {
+                        extendedIrrNodeList = new ArrayList<>();
                     }
+                    extendedIrrNodeList.add(extendedIrregularNode);
+                }
+                //불규칙의 마지막 형태소에 현재 자소 단위를 합쳐 점수를 얻어옴
+                int entry = analysisDictionary.getObservationEntry(nextState);
+                if (entry == -1) {
+                    continue;
+                }
+                if (extendedMorph == null) {
+                    extendedMorph = prevLatticeNode.getMorphTag().getMorph() + jaso;
+                }
 
-                    //얻어온 점수를 토대로 lattice에 넣음
-                    for (ScoredTag scoredTag : lastScoredTags) {
-                        lattice.put(prevLatticeNode.getBeginIdx(), curIndex + 1, prevLatticeNode.getMorphTag().getMorph() + jaso,
-                                scoredTag.getTag(), scoredTag.getTagId(), scoredTag.getScore());
-                    }
+                //얻어온 점수를 토대로 lattice에 넣음
+                for (int i = scoredTags.getBegin(entry); i < scoredTags.getEnd(entry); i++) {
+                    lattice.put(prevLatticeNode.getBeginIdx(), curIndex + 1, extendedMorph,
+                            scoredTags.getTagId(i), scoredTags.getScore(i));
                 }
             }
-            for (LatticeNode extendedIrrNode : extendedIrrNodeList) {
-                lattice.appendNode(extendedIrrNode);
+            if (extendedIrrNodeList != null) {
+                for (LatticeNode extendedIrrNode : extendedIrrNodeList) {
+                    lattice.appendNode(extendedIrrNode);
+                }
             }
 
         }
     }
 
-    private void irregularParsing(Lattice lattice, char jaso, int curIndex) {
-        //불규칙 노드들을 얻어옴
-        Map<String, List<IrregularNode>> morphIrrNodesMap = lattice.retrievalIrregularNodes(jaso);
-        if (morphIrrNodesMap == null || morphIrrNodesMap.size() == 0) {
+    private void dictionaryParsing(KomoranSnapshot snapshot, Lattice lattice, String jasoUnits, int curIndex) {
+        //관측 사전과 불규칙 사전이 합쳐진 automaton에서 한 번의 상태 전이로 현재 위치에서 끝나는 후보를 모두 얻어옴
+        int state = lattice.retrievalAnalysisDictionary(jasoUnits.charAt(curIndex));
+        AnalysisDictionary analysisDictionary = lattice.getAnalysisDictionary();
+        int firstMatch = analysisDictionary.firstMatch(state);
+        if (firstMatch == CompiledTrie.NONE) {
             return;
         }
+        this.regularParsing(snapshot, lattice, analysisDictionary, firstMatch, jasoUnits, curIndex);
+        this.irregularParsing(lattice, analysisDictionary, firstMatch, curIndex);
+    }
+
+    private void irregularParsing(Lattice lattice, AnalysisDictionary analysisDictionary, int match, int curIndex) {
+        if (match == CompiledTrie.NONE) {
+            return;
+        }
+        //점수가 같은 불규칙 후보가 있을 때 이전과 같은 후보가 선택되도록 짧은 불규칙 패턴부터 삽입
+        this.irregularParsing(lattice, analysisDictionary, analysisDictionary.nextMatch(match), curIndex);
 
-        //형태소 정보만 얻어옴
-        Set<String> morphs = morphIrrNodesMap.keySet();
-        for (String morph : morphs) {
+        //불규칙 노드들을 얻어옴 (token 점수는 모델 로드 시 계산되어 있음)
+        IrregularExpansion[] irregularExpansions = analysisDictionary.getIrregularExpansions(match);
+        if (irregularExpansions == null) {
+            return;
+        }
 
-            int beginIdx = curIndex - morph.length() + 1;
+        int beginIdx = curIndex - analysisDictionary.getLength(match) + 1;
+        int endIdx = curIndex + 1;
+
+        for (IrregularExpansion irregularExpansion : irregularExpansions) {
+            lattice.put(beginIdx, endIdx, irregularExpansion);
+        }
+    }
+
+    private void regularParsing(KomoranSnapshot snapshot, Lattice lattice, AnalysisDictionary analysisDictionary,
+                                int firstMatch, String jasoUnits, int curIndex) {
+        //형태소에 대한 품사 및 점수(observation) 정보는 배열에 모여 있으므로 index로 접근
+        //EC 품사 뒤에는 같은 점수의 EF 품사가 모델에서 미리 추가되어 있음
+        PackedScoredTags scoredTags = analysisDictionary.getLatticeScoredTags(
+                this.getTagId(snapshot, SEJONGTAGS.EC), this.getTagId(snapshot, SEJONGTAGS.EF));
+        for (int match = firstMatch; match != CompiledTrie.NONE; match = analysisDictionary.nextMatch(match)) {
+            int entry = analysisDictionary.getObservationEntry(match);
+            if (entry == -1) {
+                continue;
+            }
+
+            int beginIdx = curIndex - analysisDictionary.getLength(match) + 1;
             int endIdx = curIndex + 1;
+            String morph = jasoUnits.substring(beginIdx, endIdx);
 
-            List<IrregularNode> irrNodes = morphIrrNodesMap.get(morph);
-            for (IrregularNode irregularNode : irrNodes) {
-//                lattice.put(beginIdx, endIdx, irregularNode);
-                this.insertLattice(lattice, beginIdx, endIdx, irregularNode);
+            //각 형태소와 품사 정보를 lattice에 삽입
+            for (int i = scoredTags.getBegin(entry); i < scoredTags.getEnd(entry); i++) {
+                lattice.put(beginIdx, endIdx, morph, scoredTags.getTagId(i), scoredTags.getScore(i));
             }
         }
     }
 
-    private void insertLattice(Lattice lattice, int beginIdx, int endIdx,
-                               IrregularNode irregularNode) {
-        lattice.put(beginIdx, endIdx, irregularNode);
+    private int getTagId(KomoranSnapshot snapshot, SEJONGTAGS tag) {
+        return snapshot.getResources().getSejongTagIdTable().getId(tag);
     }
 
-    private void regularParsing(Lattice lattice, char jaso, int curIndex) {
-        //TRIE 기반의 사전 검색하여 형태소와 품사 및 품사 점수(observation)를 얻어옴
-        Map<String, List<ScoredTag>> morphScoredTagsMap = lattice.retrievalObservation(jaso);
+    //입력 문장의 자소 별 종류, 미분석 형태소를 음절로 조합할 때 처음 요청되면 분할함
+    private static final class JasoUnitsWithType {
+        private final KoreanUnitParser unitParser;
+        private final CharSequence sentence;
+        private List<Pair<Character, KoreanUnitParser.UnitType>> jasoUnitsWithType;
 
-        if (morphScoredTagsMap == null || morphScoredTagsMap.size() == 0) {
-            return;
+        private JasoUnitsWithType(KoreanUnitParser unitParser, CharSequence sentence) {
+            this.unitParser = unitParser;
+            this.sentence = sentence;
         }
 
-        //형태소 정보만 얻어옴
-        Set<String> morphes = morphScoredTagsMap.keySet();
-
-        //각 형태소와 품사 정보를 lattice에 삽입
-        for (String morph : morphes) {
-            int beginIdx = curIndex - morph.length() + 1;
-            int endIdx = curIndex + 1;
-
-            //형태소에 대한 품사 및 점수(observation) 정보를 List 형태로 가져옴
-            List<ScoredTag> scoredTags = morphScoredTagsMap.get(morph);
-            for (ScoredTag scoredTag : scoredTags) {
-                lattice.put(beginIdx, endIdx, morph, scoredTag.getTag(), scoredTag.getTagId(), scoredTag.getScore());
-                //품사가 EC인 경우에 품사를 EF로 변환하여 lattice에 추가
-                if (scoredTag.getTag().equals(SYMBOL.EC)) {
-                    lattice.put(beginIdx, endIdx, morph, SYMBOL.EF, SEJONGTAGS.EF_ID, scoredTag.getScore());
-                }
+        private List<Pair<Character, KoreanUnitParser.UnitType>> subList(int fromIndex, int toIndex) {
+            if (this.jasoUnitsWithType == null) {
+                this.jasoUnitsWithType = this.unitParser.parseWithType(this.sentence, 0, this.sentence.length());
             }
+            return this.jasoUnitsWithType.subList(fromIndex, toIndex);
         }
     }
 
-    private void load(String modelPath) {
-        this.resources.load(modelPath);
-    }
-
     /**
      * 형태소 분석 시 사용될 기분석 사전을 로드합니다. </p>
-     * 형태소 분석 진행 전에 로드되어야 합니다. </p>
+     * 새로운 사전을 모두 로드한 뒤에 교체하므로 분석 중에 호출하더라도 진행 중인 분석에는 영향을 주지 않습니다. </p>
      * <pre>
      *     Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
      *     komoran.setFWDic("user_data/fwd.user");
@@ -652,30 +781,11 @@ public class Komoran implements Cloneable {
      */
     public void setFWDic(String filename) {
         try {
-            CorpusParser corpusParser = new CorpusParser();
-            BufferedReader br = new BufferedReader(
-                    new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8));
-//            BufferedReader br = new BufferedReader(new FileReader(filename));
-            String line;
-            this.fwd = new HashMap<>();
-            while ((line = br.readLine()) != null) {
-                String[] tmp = line.split("\t");
-                //주석이거나 format에 안 맞는 경우는 skip
-                if (tmp.length != 2 || tmp[0].charAt(0) == '#') {
-                    continue;
-                }
-                ProblemAnswerPair problemAnswerPair = corpusParser.parse(line);
-                List<Pair<String, String>> convertAnswerList = new ArrayList<>();
-                for (Pair<String, String> pair : problemAnswerPair.getAnswerList()) {
-                    convertAnswerList.add(
-                            new Pair<>(pair.getFirst(), pair.getSecond()));
-                }
-
-                this.fwd.put(this.unitParser.parse(problemAnswerPair.getProblem()),
-                        convertAnswerList);
+            //새로운 기분석 사전을 모두 로드한 뒤에 교체
+            FwdDictionary fwd = FwdDictionary.load(filename, this.getResources().getTable());
+            synchronized (this.snapshotLock) {
+                this.snapshot.set(this.snapshot.get().toBuilder().fwd(fwd).build());
             }
-            br.close();
-
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -683,7 +793,7 @@ public class Komoran implements Cloneable {
 
     /**
      * 형태소 분석 시 사용될 사용자 사전을 로드합니다. </p>
-     * 형태소 분석 진행 전에 로드되어야 합니다.
+     * 새로운 사전을 모두 로드한 뒤에 교체하므로 분석 중에 호출하더라도 진행 중인 분석에는 영향을 주지 않습니다.
      * <pre>
      *     Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
      *     komoran.setUserDic("user_date/dic.user");
@@ -694,35 +804,185 @@ public class Komoran implements Cloneable {
      */
     public void setUserDic(String userDic) {
         try {
-
-            this.userDic = new Observation();
-            BufferedReader br = new BufferedReader(new FileReader(userDic));
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.length() == 0 || line.charAt(0) == '#') continue;
-                int lastIdx = line.lastIndexOf("\t");
-
-                String morph;
-                String pos;
-                //사용자 사전에 태그가 없는 경우에는 고유 명사로 태깅
-                if (lastIdx == -1) {
-                    morph = line.trim();
-                    pos = "NNP";
-                } else {
-                    morph = line.substring(0, lastIdx);
-                    pos = line.substring(lastIdx + 1);
-                }
-                this.userDic.put(morph, pos, this.resources.getTable().getId(pos), 0.0);
-
+            //새로운 사용자 사전을 모두 로드한 뒤에 교체
+            UserDictionary loadedUserDic = UserDictionary.load(userDic, this.getResources().getTable());
+            synchronized (this.snapshotLock) {
+                this.setUserDicSnapshot(loadedUserDic);
             }
-            br.close();
-
-            //init
-            this.userDic.getTrieDictionary().buildFailLink();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
 
+    /**
+     * {@link UserDictionary#compile(String, String, kr.co.shineware.nlp.komoran.modeler.model.PosTable)}로 컴파일된 사용자 사전을 로드합니다. </p>
+     * 텍스트 사전을 파싱하지 않으므로 큰 사용자 사전도 빠르게 로드되며, 다른 pos.table로 컴파일된 사전은 적용하지 않습니다.
+     * <pre>
+     *     Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+     *     komoran.setCompiledUserDic("user_data/dic.user.bin");
+     * </pre>
+     *
+     * @param filename 컴파일된 사용자 사전 파일 경로
+     */
+    public void setCompiledUserDic(String filename) {
+        try {
+            UserDictionary loadedUserDic = UserDictionary.loadCompiled(filename, this.getResources().getTable());
+            synchronized (this.snapshotLock) {
+                this.setUserDicSnapshot(loadedUserDic);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 공백 없이 긴 어절(해시태그, 붙여 쓴 채팅, OCR 결과 등)을 나누어 분석하도록 설정합니다. </p>
+     * 자소 단위 길이가 maxEojeolLength보다 긴 어절은 문자 종류가 바뀌는 위치, 문장 부호 뒤, 종결 어미 뒤에서 나뉘며,
+     * 분석할 수 없는 부분이 있더라도 그 구간만 미분석(NA)으로 처리됩니다.
+     * <pre>
+     *     Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+     *     komoran.setMaxEojeolLength(64);
+     * </pre>
+     *
+     * @param maxEojeolLength 어절을 나누어 분석하는 기준 길이, 나누지 않는 경우 0
+     */
+    public void setMaxEojeolLength(int maxEojeolLength) {
+        synchronized (this.snapshotLock) {
+            this.snapshot.set(this.snapshot.get().toBuilder().maxEojeolLength(maxEojeolLength).build());
+        }
+    }
+
+    /**
+     * 이 객체의 모델에 적용할 수 있는 사용자 사전 overlay를 로드합니다. </p>
+     * 로드된 사전은 이 객체의 사용자 사전을 바꾸지 않으며, {@link #newView(UserDictionary...)}나
+     * {@link #analyze(CharSequence, int, List)}에 전달하여 사용합니다.
+     *
+     * @param filename 사용자 사전 파일 경로
+     * @return 사용자 사전 overlay
+     */
+    public UserDictionary loadUserDicOverlay(String filename) throws IOException {
+        return UserDictionary.load(filename, this.getResources().getTable());
+    }
+
+    /**
+     * 모델과 사용자 사전을 공유하면서 overlay를 추가로 적용하는 가벼운 분석기를 생성합니다. </p>
+     * view는 분석 시점의 이 객체 상태를 그대로 사용하므로 이후의 사용자 사전 변경도 반영됩니다.
+     * <pre>
+     *     KomoranView tenantView = komoran.newView(komoran.loadUserDicOverlay("tenant/dic.user"));
+     *     KomoranResult komoranResult = tenantView.analyze("바람과 함께 사라지다를 봤어");
+     * </pre>
+     *
+     * @param overlays view에 적용할 사용자 사전들
+     * @return 분석기 view
+     */
+    public KomoranView newView(UserDictionary... overlays) {
+        return new KomoranView(this, Arrays.asList(overlays));
+    }
+
+    /**
+     * 현재 적용되어 있는 사용자 사전 snapshot을 반환합니다.
+     *
+     * @return 사용자 사전, 로드된 적이 없는 경우 null
+     */
+    public UserDictionary getUserDic() {
+        return this.snapshot.get().getUserDic();
+    }
+
+    /**
+     * 사용자 사전에 형태소를 추가합니다. </p>
+     * 전체 사전을 다시 만들지 않고 변경된 형태소만 반영하며, 변경 사항이 쌓이면 background에서 사전을 다시 정리합니다.
+     * 이미 분석 중인 문장에는 영향을 주지 않습니다.
+     * <pre>
+     *     komoran.addUserDicEntry("코모란", "NNP");
+     * </pre>
+     *
+     * @param morph 형태소
+     * @param pos   품사
+     */
+    public void addUserDicEntry(String morph, String pos) {
+        synchronized (this.snapshotLock) {
+            this.updateUserDic(this.getOrCreateUserDic().add(morph, pos));
+        }
+    }
+
+    /**
+     * 사용자 사전에서 형태소의 특정 품사를 삭제합니다.
+     *
+     * @param morph 형태소
+     * @param pos   품사
+     */
+    public void removeUserDicEntry(String morph, String pos) {
+        synchronized (this.snapshotLock) {
+            this.updateUserDic(this.getOrCreateUserDic().remove(morph, pos));
+        }
+    }
+
+    /**
+     * 사용자 사전에서 형태소를 모든 품사에 대해 삭제합니다.
+     *
+     * @param morph 형태소
+     */
+    public void removeUserDicEntry(String morph) {
+        synchronized (this.snapshotLock) {
+            this.updateUserDic(this.getOrCreateUserDic().remove(morph));
+        }
+    }
+
+    private UserDictionary getOrCreateUserDic() {
+        KomoranSnapshot currentSnapshot = this.snapshot.get();
+        if (currentSnapshot.getUserDic() == null) {
+            return UserDictionary.empty(currentSnapshot.getResources().getTable());
+        }
+        return currentSnapshot.getUserDic();
+    }
+
+    //snapshotLock 안에서 호출
+    private void setUserDicSnapshot(UserDictionary userDic) {
+        this.snapshot.set(this.snapshot.get().toBuilder().userDic(userDic).build());
+    }
+
+    //snapshotLock 안에서 호출
+    private void updateUserDic(UserDictionary updatedUserDic) {
+        this.setUserDicSnapshot(updatedUserDic);
+        if (!this.compactingUserDic && updatedUserDic.getDeltaSize() >= USER_DIC_COMPACTION_THRESHOLD) {
+            this.compactingUserDic = true;
+            USER_DIC_COMPACTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    compactUserDic();
+                }
+            });
+        }
+    }
+
+    /**
+     * 추가/삭제된 사용자 사전의 형태소를 전체 사전에 합칩니다. </p>
+     * 변경 사항이 일정 수 이상 쌓이면 background에서 자동으로 호출되므로 직접 호출할 필요는 없습니다.
+     */
+    public void compactUserDic() {
+        //compact는 한 번에 하나씩만 진행 (rebase는 가장 최근에 compact된 사전을 기준으로 해야 함)
+        synchronized (this.userDicCompactionLock) {
+            UserDictionary compactedFrom;
+            synchronized (this.snapshotLock) {
+                compactedFrom = this.snapshot.get().getUserDic();
+            }
+            try {
+                if (compactedFrom == null) {
+                    return;
+                }
+                //사전 전체를 다시 만드는 동안에도 분석과 추가/삭제는 계속 진행됨
+                UserDictionary compacted = compactedFrom.compact();
+                synchronized (this.snapshotLock) {
+                    UserDictionary currentUserDic = this.snapshot.get().getUserDic();
+                    if (currentUserDic != null) {
+                        this.setUserDicSnapshot(currentUserDic.rebase(compactedFrom, compacted));
+                    }
+                }
+            } finally {
+                synchronized (this.snapshotLock) {
+                    this.compactingUserDic = false;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.core.model.FwdDictionary;
+import kr.co.shineware.nlp.komoran.core.model.MorphUtil;
+import kr.co.shineware.nlp.komoran.core.model.Resources;
+import kr.co.shineware.nlp.komoran.core.model.TagUtil;
+import kr.co.shineware.nlp.komoran.core.model.UserDictionary;
+import kr.co.shineware.nlp.komoran.core.model.combinationrules.CombinationRuleChecker;
+import kr.co.shineware.nlp.komoran.core.model.combinationrules.MergedCombinationRuleChecker;
+import kr.co.shineware.nlp.komoran.exception.FileFormatException;
+
+import java.io.IOException;
+
+/**
+ * 형태소 분석에 필요한 상태(모델, 사용자 사전, 기분석 사전, 결합 규칙)를 묶은 불변 snapshot입니다. </p>
+ * {@link Komoran}은 snapshot 하나를 atomic하게 교체하는 방식으로 사전을 갱신하므로,
+ * 분석 중인 문장은 분석을 시작할 때의 snapshot만을 사용합니다. </p>
+ * 새로운 snapshot은 {@link Builder}로 분석 thread 밖에서 미리 준비한 뒤 교체합니다.
+ * <pre>
+ *     KomoranSnapshot next = komoran.getSnapshot().toBuilder()
+ *             .userDic("user_data/dic.user")
+ *             .fwd("user_data/fwd.user")
+ *             .build();
+ *     komoran.setSnapshot(next);
+ * </pre>
+ */
+public final class KomoranSnapshot {
+
+    private final Resources resources;
+    private final UserDictionary userDic;
+    private final FwdDictionary fwd;
+    private final CombinationRuleChecker combinationRuleChecker;
+    private final int maxEojeolLength;
+
+    private KomoranSnapshot(Builder builder) {
+        this.resources = builder.resources;
+        this.userDic = builder.userDic;
+        this.fwd = builder.fwd;
+        this.combinationRuleChecker = builder.combinationRuleChecker;
+        this.maxEojeolLength = builder.maxEojeolLength;
+    }
+
+    /**
+     * 모델로부터 snapshot을 만드는 builder를 생성합니다.
+     *
+     * @param resources 로딩된 모델
+     */
+    public static Builder builder(Resources resources) {
+        return new Builder(resources);
+    }
+
+    /**
+     * 이 snapshot의 내용으로 초기화된 builder를 생성합니다.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(this.resources);
+        builder.userDic = this.userDic;
+        builder.fwd = this.fwd;
+        builder.combinationRuleChecker = this.combinationRuleChecker;
+        builder.maxEojeolLength = this.maxEojeolLength;
+        return builder;
+    }
+
+    public Resources getResources() {
+        return this.resources;
+    }
+
+    /**
+     * @return 사용자 사전, 없는 경우 null
+     */
+    public UserDictionary getUserDic() {
+        return this.userDic;
+    }
+
+    /**
+     * @return 기분석 사전, 없는 경우 null
+     */
+    public FwdDictionary getFwd() {
+        return this.fwd;
+    }
+
+    public CombinationRuleChecker getCombinationRuleChecker() {
+        return this.combinationRuleChecker;
+    }
+
+    /**
+     * @return 어절을 나누어 분석하는 기준 길이(자소 단위), 이보다 긴 어절을 나누며 나누지 않는 경우 0
+     */
+    public int getMaxEojeolLength() {
+        return this.maxEojeolLength;
+    }
+
+    public static final class Builder {
+
+        private Resources resources;
+        private UserDictionary userDic;
+        private FwdDictionary fwd;
+        private CombinationRuleChecker combinationRuleChecker;
+        private int maxEojeolLength;
+
+        private Builder(Resources resources) {
+            this.resources = resources;
+        }
+
+        /**
+         * 모델을 교체합니다. 결합 규칙은 새로운 모델 기준으로 다시 생성되며, 사용자 사전과 기분석 사전은 새로운 모델로 다시 로드해야 합니다.
+         */
+        public Builder resources(Resources resources) {
+            this.resources = resources;
+            this.combinationRuleChecker = null;
+            return this;
+        }
+
+        /**
+         * @param userDic 사용자 사전, 사용하지 않는 경우 null
+         */
+        public Builder userDic(UserDictionary userDic) {
+            this.userDic = userDic;
+            return this;
+        }
+
+        /**
+         * 사용자 사전 파일을 현재 모델 기준으로 로드합니다.
+         *
+         * @param filename 사용자 사전 파일 경로
+         */
+        public Builder userDic(String filename) throws IOException {
+            this.userDic = UserDictionary.load(filename, this.resources.getTable());
+            return this;
+        }
+
+        /**
+         * @param fwd 기분석 사전, 사용하지 않는 경우 null
+         */
+        public Builder fwd(FwdDictionary fwd) {
+            this.fwd = fwd;
+            return this;
+        }
+
+        /**
+         * 기분석 사전 파일을 현재 모델 기준으로 로드합니다.
+         *
+         * @param filename 기분석 사전 파일 경로
+         * @see FwdDictionary#load(String, kr.co.shineware.nlp.komoran.modeler.model.PosTable)
+         */
+        public Builder fwd(String filename) throws IOException, FileFormatException {
+            return this.fwd(FwdDictionary.load(filename, this.resources.getTable()));
+        }
+
+        public Builder combinationRuleChecker(CombinationRuleChecker combinationRuleChecker) {
+            this.combinationRuleChecker = combinationRuleChecker;
+            return this;
+        }
+
+        /**
+         * 자소 단위 길이가 maxEojeolLength보다 긴 어절을 문자 종류가 바뀌는 위치, 문장 부호 뒤, 종결 어미 뒤에서 나누어 분석합니다. </p>
+         * 나눈 구간 중 분석할 수 없는 구간만 미분석(NA)으로 처리되므로 어절 전체가 미분석이 되지 않습니다. 기본 값은 0(나누지 않음)입니다.
+         *
+         * @param maxEojeolLength 어절을 나누어 분석하는 기준 길이, 나누지 않는 경우 0
+         */
+        public Builder maxEojeolLength(int maxEojeolLength) {
+            if (maxEojeolLength < 0) {
+                throw new IllegalArgumentException("maxEojeolLength must not be negative : " + maxEojeolLength);
+            }
+            this.maxEojeolLength = maxEojeolLength;
+            return this;
+        }
+
+        public KomoranSnapshot build() {
+            if (this.resources == null) {
+                throw new IllegalStateException("resources is not set");
+            }
+            if (this.userDic != null && this.userDic.getPosTable() != this.resources.getTable()) {
+                throw new IllegalArgumentException("user dictionary was built for another model");
+            }
+            if (this.fwd != null && this.fwd.getPosTable() != this.resources.getTable()) {
+                throw new IllegalArgumentException("fwd dictionary was built for another model");
+            }
+            if (this.combinationRuleChecker == null) {
+                this.combinationRuleChecker = new MergedCombinationRuleChecker(
+                        new MorphUtil(), new TagUtil(this.resources.getTable()));
+            }
+            return new KomoranSnapshot(this);
+        }
+    }
+}
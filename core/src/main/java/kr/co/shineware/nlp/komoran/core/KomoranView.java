@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.core.model.UserDictionary;
+import kr.co.shineware.nlp.komoran.model.KomoranResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link Komoran}의 모델과 사용자 사전을 공유하면서 사용자 사전 overlay를 추가로 적용하는 분석기입니다. </p>
+ * Komoran 객체와 overlay에 대한 참조만 가지므로 tenant 별로 생성하더라도 overlay 크기만큼의 메모리만 사용합니다.
+ * {@link Komoran#newView(UserDictionary...)}로 생성합니다.
+ */
+public class KomoranView {
+
+    private final Komoran komoran;
+    private final List<UserDictionary> overlays;
+
+    KomoranView(Komoran komoran, List<UserDictionary> overlays) {
+        for (UserDictionary overlay : overlays) {
+            if (overlay.getPosTable() != komoran.getResources().getTable()) {
+                throw new IllegalArgumentException("user dictionary overlay was built for another model");
+            }
+        }
+        this.komoran = komoran;
+        this.overlays = Collections.unmodifiableList(new ArrayList<>(overlays));
+    }
+
+    /**
+     * 입력된 문장에 대해서 형태소 분석을 진행합니다.
+     *
+     * @param sentence 분석 대상 문장
+     * @return 형태소 분석 결과
+     */
+    public KomoranResult analyze(String sentence) {
+        return this.analyze(sentence, 1).get(0);
+    }
+
+    /**
+     * 입력된 문장에 대해서 형태소 분석을 진행 후 n-best 결과를 반환합니다.
+     *
+     * @param sentence 분석 대상 문장
+     * @param nbest    분석 결과 중 추출할 상위 n개의 수
+     * @return 형태소 분석 결과 중 nbest 수 만큼의 결과
+     */
+    public List<KomoranResult> analyze(String sentence, int nbest) {
+        return this.komoran.analyze(sentence, nbest, this.overlays);
+    }
+
+    /**
+     * 이 view에 적용되는 사용자 사전 overlay들을 반환합니다.
+     */
+    public List<UserDictionary> getOverlays() {
+        return this.overlays;
+    }
+
+    public Komoran getKomoran() {
+        return this.komoran;
+    }
+}
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.SYMBOL;
+import kr.co.shineware.nlp.komoran.core.model.trie.AhoCorasickDictionaryReader;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrieBuilder;
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import kr.co.shineware.nlp.komoran.modeler.model.IrregularNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * 관측 사전(observation.model)과 불규칙 사전(irregular.model)을 하나로 합친 분석용 automaton입니다. </p>
+ * 두 사전의 key를 하나의 {@link CompiledTrie}에 담고, key마다 종류(kind)를 구분한 payload를 연결합니다.
+ * 따라서 자소 하나당 한 번의 상태 전이로 현재 위치에서 끝나는 형태소와 불규칙 후보를 모두 얻을 수 있습니다. </p>
+ * 불변 객체이므로 여러 thread에서 동시에 사용할 수 있으며, 생성은 {@link Builder}를 통해서 합니다.
+ */
+public final class AnalysisDictionary {
+
+    public static final int OBSERVATION = 1;
+    public static final int IRREGULAR = 1 << 1;
+
+    private final CompiledTrie trie;
+    //key 별 종류
+    private final byte[] kinds;
+    //key 별 관측 정보 (관측 사전에 없는 key는 빈 구간)
+    private final PackedScoredTags scoredTags;
+    //key 별 불규칙 정보 (불규칙 사전에 없는 key는 null)
+    private final List<IrregularNode>[] irregularNodes;
+    //key 별 불규칙 node의 token 점수를 미리 찾아 둔 것 (불규칙 사전에 없는 key는 null)
+    private final IrregularExpansion[][] irregularExpansions;
+    //상태의 자식 쪽에 있는 key들의 종류
+    private final byte[] childKinds;
+    //문자 별 분류
+    private final CharacterClassTable characterClassTable;
+    //연결 어미 뒤에 종결 어미가 추가된 품사 목록, 처음 요청될 때 한 번 계산됨
+    private volatile EndingExpansion endingExpansion;
+    private final int observationSize;
+    private final int irregularSize;
+
+    @SuppressWarnings("unchecked")
+    private AnalysisDictionary(Builder builder) {
+        Set<JasoSequence> keys = new HashSet<>(builder.scoredTags.keySet());
+        keys.addAll(builder.irregularNodes.keySet());
+
+        this.kinds = new byte[keys.size()];
+        this.irregularNodes = new List[keys.size()];
+        PackedScoredTags.Builder scoredTagsBuilder = new PackedScoredTags.Builder();
+        CompiledTrieBuilder trieBuilder = new CompiledTrieBuilder();
+        for (JasoSequence key : keys) {
+            List<ScoredTag> keyScoredTags = builder.scoredTags.get(key);
+            int entry = scoredTagsBuilder.add(keyScoredTags == null ? Collections.<ScoredTag>emptyList() : keyScoredTags);
+            trieBuilder.put(key, entry);
+            this.irregularNodes[entry] = builder.irregularNodes.get(key);
+            if (keyScoredTags != null) {
+                this.kinds[entry] |= OBSERVATION;
+            }
+            if (this.irregularNodes[entry] != null) {
+                this.kinds[entry] |= IRREGULAR;
+            }
+        }
+        this.scoredTags = scoredTagsBuilder.build();
+        this.trie = trieBuilder.build();
+        this.observationSize = builder.scoredTags.size();
+        this.irregularSize = builder.irregularNodes.size();
+
+        this.childKinds = new byte[this.trie.getStateCount()];
+        boolean[] keyCharacters = new boolean[Character.MAX_VALUE + 1];
+        for (JasoSequence key : keys) {
+            byte keyKinds = this.kinds[this.trie.getValue(key)];
+            int state = CompiledTrie.ROOT;
+            for (int i = 0; i < key.length(); i++) {
+                this.childKinds[state] |= keyKinds;
+                state = this.trie.child(state, key.charAt(i));
+                keyCharacters[key.charAt(i)] = true;
+            }
+        }
+        this.irregularExpansions = this.expandIrregularNodes();
+        this.characterClassTable = new CharacterClassTable(this, keyCharacters);
+    }
+
+    private AnalysisDictionary(AnalysisDictionary source, PackedScoredTags scoredTags) {
+        this.trie = source.trie;
+        this.kinds = source.kinds;
+        this.scoredTags = scoredTags;
+        this.irregularNodes = source.irregularNodes;
+        this.childKinds = source.childKinds;
+        this.characterClassTable = source.characterClassTable;
+        this.observationSize = source.observationSize;
+        this.irregularSize = source.irregularSize;
+        //양자화된 점수로 다시 계산
+        this.irregularExpansions = this.expandIrregularNodes();
+    }
+
+    private IrregularExpansion[][] expandIrregularNodes() {
+        IrregularExpansion[][] expansions = new IrregularExpansion[this.irregularNodes.length][];
+        for (int entry = 0; entry < this.irregularNodes.length; entry++) {
+            List<IrregularNode> nodes = this.irregularNodes[entry];
+            if (nodes == null) {
+                continue;
+            }
+            expansions[entry] = new IrregularExpansion[nodes.size()];
+            for (int i = 0; i < nodes.size(); i++) {
+                expansions[entry][i] = new IrregularExpansion(nodes.get(i), this);
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * 관측 점수를 양자화한 사전을 반환합니다. automaton과 불규칙 정보는 복사하지 않고 공유합니다.
+     */
+    public AnalysisDictionary quantize(ScoreQuantizer quantizer) {
+        return new AnalysisDictionary(this, this.scoredTags.quantize(quantizer));
+    }
+
+    /**
+     * 문자 jaso를 입력한 이후의 상태를 반환합니다. 시작 상태는 {@link CompiledTrie#ROOT}입니다.
+     */
+    public int transition(int state, char jaso) {
+        return this.trie.transition(state, jaso);
+    }
+
+    /**
+     * 현재 상태에서 끝나는 key 중 가장 긴 key의 상태를 반환합니다.
+     *
+     * @return key의 상태, 없는 경우 {@link CompiledTrie#NONE}
+     */
+    public int firstMatch(int state) {
+        return this.trie.firstMatch(state);
+    }
+
+    /**
+     * match 상태보다 짧으면서 같은 위치에서 끝나는 다음 key의 상태를 반환합니다.
+     *
+     * @return key의 상태, 없는 경우 {@link CompiledTrie#NONE}
+     */
+    public int nextMatch(int matchState) {
+        return this.trie.nextMatch(matchState);
+    }
+
+    /**
+     * match 상태에 해당하는 key의 길이를 반환합니다.
+     */
+    public int getLength(int matchState) {
+        return this.trie.getDepth(matchState);
+    }
+
+    /**
+     * 상태의 관측 정보가 저장된 {@link #getPackedScoredTags()}의 entry 번호를 반환합니다.
+     *
+     * @return entry 번호, key가 끝나지 않는 상태이거나 관측 사전에 없는 key인 경우 -1
+     */
+    public int getObservationEntry(int matchState) {
+        int entry = this.trie.getValue(matchState);
+        return entry != CompiledTrie.NO_VALUE && (this.kinds[entry] & OBSERVATION) != 0 ? entry : -1;
+    }
+
+    /**
+     * 자소 단위 형태소의 관측 정보가 저장된 {@link #getPackedScoredTags()}의 entry 번호를 반환합니다.
+     *
+     * @return entry 번호, 관측 사전에 없는 형태소인 경우 -1
+     */
+    public int getObservationEntry(CharSequence key) {
+        int entry = this.trie.getValue(key);
+        return entry != CompiledTrie.NO_VALUE && (this.kinds[entry] & OBSERVATION) != 0 ? entry : -1;
+    }
+
+    /**
+     * 모델을 로드할 때 계산된 문자 별 분류를 반환합니다.
+     */
+    public CharacterClassTable getCharacterClassTable() {
+        return this.characterClassTable;
+    }
+
+    /**
+     * lattice에 추가할 품사 및 점수 목록을 반환합니다. {@link #getPackedScoredTags()}와 entry 번호가 같으며,
+     * 연결 어미(EC) 바로 뒤에 같은 점수의 종결 어미(EF)가 추가되어 있으므로 분석 중에 품사를 비교할 필요가 없습니다.
+     *
+     * @param ecTagId 모델의 EC 품사 id
+     * @param efTagId 모델의 EF 품사 id
+     */
+    public PackedScoredTags getLatticeScoredTags(int ecTagId, int efTagId) {
+        EndingExpansion expansion = this.endingExpansion;
+        if (expansion == null || expansion.ecTagId != ecTagId || expansion.efTagId != efTagId) {
+            expansion = new EndingExpansion(ecTagId, efTagId, this.scoredTags.duplicateTag(ecTagId, efTagId, SYMBOL.EF));
+            this.endingExpansion = expansion;
+        }
+        return expansion.scoredTags;
+    }
+
+    /**
+     * 모든 key의 관측 정보가 저장된 배열을 반환합니다.
+     */
+    public PackedScoredTags getPackedScoredTags() {
+        return this.scoredTags;
+    }
+
+    /**
+     * match 상태에 연결된 관측 정보(품사 및 점수)를 반환합니다.
+     *
+     * @return 품사 목록, 관측 사전에 없는 key인 경우 null
+     */
+    public List<ScoredTag> getScoredTags(int matchState) {
+        int entry = this.getObservationEntry(matchState);
+        return entry == -1 ? null : this.scoredTags.getScoredTags(entry);
+    }
+
+    /**
+     * match 상태에 연결된 불규칙 정보를 반환합니다.
+     *
+     * @return 불규칙 node 목록, 불규칙 사전에 없는 key인 경우 null
+     */
+    public List<IrregularNode> getIrregularNodes(int matchState) {
+        return this.irregularNodes[this.trie.getValue(matchState)];
+    }
+
+    /**
+     * match 상태에 연결된 불규칙 정보를 token 점수가 채워진 형태로 반환합니다.
+     *
+     * @return {@link #getIrregularNodes(int)}와 같은 순서의 배열, 불규칙 사전에 없는 key인 경우 null
+     */
+    public IrregularExpansion[] getIrregularExpansions(int matchState) {
+        return this.irregularExpansions[this.trie.getValue(matchState)];
+    }
+
+    /**
+     * 사전에 포함되지 않은 불규칙 node의 token 점수를 이 사전에서 찾습니다.
+     */
+    public IrregularExpansion expand(IrregularNode irregularNode) {
+        return new IrregularExpansion(irregularNode, this);
+    }
+
+    /**
+     * 자소 단위 형태소의 관측 정보를 반환합니다.
+     *
+     * @return 품사 목록, 관측 사전에 없는 형태소인 경우 null
+     */
+    public List<ScoredTag> getScoredTags(CharSequence key) {
+        int entry = this.trie.getValue(key);
+        if (entry == CompiledTrie.NO_VALUE || (this.kinds[entry] & OBSERVATION) == 0) {
+            return null;
+        }
+        return this.scoredTags.getScoredTags(entry);
+    }
+
+    /**
+     * 자소 단위 형태소가 관측 사전에 있는지 확인합니다.
+     */
+    public boolean containsObservation(CharSequence key) {
+        int entry = this.trie.getValue(key);
+        return entry != CompiledTrie.NO_VALUE && (this.kinds[entry] & OBSERVATION) != 0;
+    }
+
+    /**
+     * 자소 단위 불규칙 패턴의 불규칙 정보를 반환합니다.
+     *
+     * @return 불규칙 node 목록, 불규칙 사전에 없는 경우 null
+     */
+    public List<IrregularNode> getIrregularNodes(CharSequence key) {
+        int entry = this.trie.getValue(key);
+        return entry == CompiledTrie.NO_VALUE ? null : this.irregularNodes[entry];
+    }
+
+    /**
+     * 자소 단위 문자열에 정확히 일치하는 상태를 찾습니다.
+     *
+     * @return 상태, 어떤 key의 prefix도 아닌 경우 -1
+     */
+    public int find(CharSequence key) {
+        return this.trie.find(key);
+    }
+
+    /**
+     * 상태에서 jaso로 바로 이어지는 상태를 반환합니다. {@link #transition(int, char)}와 달리 fail link를 따라가지 않으므로
+     * 한 형태소를 한 글자씩 늘려가며 찾을 때 사용합니다.
+     *
+     * @return 상태, 없는 경우 -1
+     */
+    public int child(int state, char jaso) {
+        return this.trie.child(state, jaso);
+    }
+
+    /**
+     * 상태 뒤에 한 글자 이상 이어지는 kind 종류의 key가 있는지 확인합니다.
+     *
+     * @param state {@link #find(CharSequence)} 또는 {@link #child(int, char)}로 얻은 상태
+     * @param kind  {@link #OBSERVATION} 또는 {@link #IRREGULAR}
+     */
+    public boolean hasChild(int state, int kind) {
+        return (this.childKinds[state] & kind) != 0;
+    }
+
+    /**
+     * prefix 뒤에 한 글자 이상 이어지는 kind 종류의 key가 있는지 확인합니다.
+     *
+     * @param prefix 자소 단위 문자열
+     * @param kind   {@link #OBSERVATION} 또는 {@link #IRREGULAR}
+     */
+    public boolean hasChild(CharSequence prefix, int kind) {
+        int state = this.trie.find(prefix);
+        return state != -1 && this.hasChild(state, kind);
+    }
+
+    /**
+     * 관측 사전의 key 수를 반환합니다.
+     */
+    public int getObservationSize() {
+        return this.observationSize;
+    }
+
+    /**
+     * 불규칙 사전의 key 수를 반환합니다.
+     */
+    public int getIrregularSize() {
+        return this.irregularSize;
+    }
+
+    public int getStateCount() {
+        return this.trie.getStateCount();
+    }
+
+    /**
+     * 관측 사전의 모든 key와 품사 목록을 방문합니다.
+     */
+    public void forEachObservation(final EntryVisitor<List<ScoredTag>> visitor) {
+        this.trie.forEach(new CompiledTrie.EntryVisitor() {
+            @Override
+            public void visit(String key, int value) {
+                if ((kinds[value] & OBSERVATION) != 0) {
+                    visitor.visit(key, scoredTags.getScoredTags(value));
+                }
+            }
+        });
+    }
+
+    /**
+     * 불규칙 사전의 모든 key와 불규칙 node 목록을 방문합니다.
+     */
+    public void forEachIrregular(final EntryVisitor<List<IrregularNode>> visitor) {
+        this.trie.forEach(new CompiledTrie.EntryVisitor() {
+            @Override
+            public void visit(String key, int value) {
+                if (irregularNodes[value] != null) {
+                    visitor.visit(key, irregularNodes[value]);
+                }
+            }
+        });
+    }
+
+    /**
+     * 이 사전의 내용으로 초기화된 builder를 생성합니다.
+     */
+    public Builder toBuilder() {
+        final Builder builder = new Builder();
+        this.forEachObservation(new EntryVisitor<List<ScoredTag>>() {
+            @Override
+            public void visit(String key, List<ScoredTag> value) {
+                builder.putObservation(key, value);
+            }
+        });
+        this.forEachIrregular(new EntryVisitor<List<IrregularNode>>() {
+            @Override
+            public void visit(String key, List<IrregularNode> value) {
+                builder.putIrregular(key, value);
+            }
+        });
+        return builder;
+    }
+
+    private static final class EndingExpansion {
+        private final int ecTagId;
+        private final int efTagId;
+        private final PackedScoredTags scoredTags;
+
+        private EndingExpansion(int ecTagId, int efTagId, PackedScoredTags scoredTags) {
+            this.ecTagId = ecTagId;
+            this.efTagId = efTagId;
+            this.scoredTags = scoredTags;
+        }
+    }
+
+    public interface EntryVisitor<V> {
+        void visit(String key, V value);
+    }
+
+    public static final class Builder {
+
+        //model 파일의 key 수가 많으므로 압축하여 보관
+        private final Map<JasoSequence, List<ScoredTag>> scoredTags = new HashMap<>();
+        private final Map<JasoSequence, List<IrregularNode>> irregularNodes = new HashMap<>();
+
+        /**
+         * @param key        자소 단위 형태소
+         * @param scoredTags 형태소의 품사 및 점수 목록
+         */
+        public Builder putObservation(CharSequence key, List<ScoredTag> scoredTags) {
+            this.scoredTags.put(JasoSequence.of(key), scoredTags);
+            return this;
+        }
+
+        /**
+         * @param key            자소 단위 불규칙 패턴
+         * @param irregularNodes 불규칙 node 목록
+         */
+        public Builder putIrregular(CharSequence key, List<IrregularNode> irregularNodes) {
+            this.irregularNodes.put(JasoSequence.of(key), irregularNodes);
+            return this;
+        }
+
+        /**
+         * 관측 사전 모델 파일을 읽어 기존 관측 정보를 대체합니다.
+         */
+        public Builder loadObservation(InputStream inputStream) throws IOException {
+            this.scoredTags.clear();
+            AhoCorasickDictionaryReader.read(inputStream, new AhoCorasickDictionaryReader.EntryHandler<List<ScoredTag>>() {
+                @Override
+                public void handle(String key, List<ScoredTag> value) {
+                    scoredTags.put(JasoSequence.of(key), value);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * 불규칙 사전 모델 파일을 읽어 기존 불규칙 정보를 대체합니다.
+         */
+        public Builder loadIrregular(InputStream inputStream) throws IOException {
+            this.irregularNodes.clear();
+            AhoCorasickDictionaryReader.read(inputStream, new AhoCorasickDictionaryReader.EntryHandler<List<IrregularNode>>() {
+                @Override
+                public void handle(String key, List<IrregularNode> value) {
+                    irregularNodes.put(JasoSequence.of(key), value);
+                }
+            });
+            return this;
+        }
+
+        public AnalysisDictionary build() {
+            return new AnalysisDictionary(this);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.util.common.string.StringUtil;
+
+/**
+ * 문자 별 분류를 모델을 로드할 때 미리 계산해 둔 표입니다. </p>
+ * 분석 중에는 문자마다 {@link Character.UnicodeBlock#of(char)}, StringUtil의 문자 종류 검사, 한 글자 형태소의 사전 조회를 하는 대신
+ * 배열 원소 하나만 읽습니다. 각 원소는 다음 정보를 bit로 가집니다. </p>
+ * <ul>
+ *     <li>연속된 기호로 묶이는 문자의 품사 ({@link #SL}, {@link #SN}, {@link #SH}, 해당하지 않는 경우 {@link #NONE})</li>
+ *     <li>한 글자 기타 기호(SW)로 추가되는 문자인지 여부</li>
+ *     <li>관측 사전에 한 글자 형태소로 있는 문자인지 여부</li>
+ *     <li>관측 사전이나 불규칙 사전의 key에 나타나는 문자인지 여부</li>
+ *     <li>한글 문자인지 여부</li>
+ * </ul>
+ */
+public final class CharacterClassTable {
+
+    //연속된 기호의 품사, 하위 2 bit
+    public static final int NONE = 0;
+    public static final int SL = 1;
+    public static final int SN = 2;
+    public static final int SH = 3;
+    private static final int SYMBOL_MASK = 0x03;
+    //문자 종류, 연속된 기호의 품사 외에 한글을 구분함
+    public static final int HANGUL = 4;
+
+    private static final int SW = 1 << 2;
+    private static final int DICTIONARY_ENTRY = 1 << 3;
+    private static final int DICTIONARY_CHARACTER = 1 << 4;
+    private static final int KOREAN = 1 << 5;
+
+    private final byte[] classes = new byte[Character.MAX_VALUE + 1];
+
+    /**
+     * @param analysisDictionary 한 글자 형태소를 조회할 사전
+     * @param keyCharacters      관측 사전과 불규칙 사전의 key에 나타나는 문자 여부 (문자 값을 index로 하는 배열)
+     */
+    CharacterClassTable(AnalysisDictionary analysisDictionary, boolean[] keyCharacters) {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char ch = (char) c;
+            int characterClass = classifySymbol(ch);
+            if (keyCharacters[c] && analysisDictionary.containsObservation(String.valueOf(ch))) {
+                characterClass |= DICTIONARY_ENTRY;
+            }
+            //분석 중 확인하던 순서와 같이 숫자, 기본 라틴 문자, 그 외 문자 순으로 확인하며 숫자는 기호가 아님
+            if (!StringUtil.isNumeric(ch)) {
+                if (Character.UnicodeBlock.of(ch) == Character.UnicodeBlock.BASIC_LATIN) {
+                    if (!StringUtil.isEnglish(ch) && ch != ' ' && (characterClass & DICTIONARY_ENTRY) == 0) {
+                        characterClass |= SW;
+                    }
+                } else if (!StringUtil.isKorean(ch) && !StringUtil.isJapanese(ch) && !StringUtil.isChinese(ch)) {
+                    characterClass |= SW;
+                }
+            }
+            if (keyCharacters[c]) {
+                characterClass |= DICTIONARY_CHARACTER;
+            }
+            if (StringUtil.isKorean(ch)) {
+                characterClass |= KOREAN;
+            }
+            this.classes[c] = (byte) characterClass;
+        }
+    }
+
+    private static int classifySymbol(char ch) {
+        if (StringUtil.isEnglish(ch)) {
+            return SL;
+        } else if (StringUtil.isNumeric(ch)) {
+            return SN;
+        } else if (StringUtil.isChinese(ch)) {
+            return SH;
+        } else if (StringUtil.isForeign(ch)) {
+            return SL;
+        }
+        return NONE;
+    }
+
+    /**
+     * 연속된 기호로 묶이는 문자의 품사를 반환합니다.
+     *
+     * @return {@link #SL}, {@link #SN}, {@link #SH} 중 하나, 해당하지 않는 경우 {@link #NONE}
+     */
+    public int getSymbolClass(char ch) {
+        return this.classes[ch] & SYMBOL_MASK;
+    }
+
+    /**
+     * 문자 종류를 반환합니다. 공백 없이 긴 어절을 나눌 위치를 찾을 때 사용합니다.
+     *
+     * @return 연속된 기호인 경우 {@link #getSymbolClass(char)}와 같은 값, 한글인 경우 {@link #HANGUL},
+     * 그 외(문장 부호, 기타 기호 등)인 경우 {@link #NONE}
+     */
+    public int getScript(char ch) {
+        int symbolClass = this.classes[ch] & SYMBOL_MASK;
+        if (symbolClass != NONE) {
+            return symbolClass;
+        }
+        return (this.classes[ch] & KOREAN) != 0 ? HANGUL : NONE;
+    }
+
+    /**
+     * 한 글자 기타 기호(SW)로 lattice에 추가되는 문자인지 확인합니다.
+     */
+    public boolean isSymbol(char ch) {
+        return (this.classes[ch] & SW) != 0;
+    }
+
+    /**
+     * 관측 사전에 한 글자 형태소로 있는 문자인지 확인합니다.
+     */
+    public boolean isDictionaryEntry(char ch) {
+        return (this.classes[ch] & DICTIONARY_ENTRY) != 0;
+    }
+
+    /**
+     * 관측 사전이나 불규칙 사전의 key에 나타나는 문자인지 확인합니다. </p>
+     * 나타나지 않는 문자는 사전 automaton을 시작 상태로 되돌리며, 이 문자에서 끝나는 형태소나 불규칙 후보도 없습니다.
+     */
+    public boolean isDictionaryCharacter(char ch) {
+        return (this.classes[ch] & DICTIONARY_CHARACTER) != 0;
+    }
+}
@@ -2,33 +2,34 @@ package kr.co.shineware.nlp.komoran.core.model;
 
 /**
  * Created by shin285 on 2017. 1. 23..
+ * 연속된 숫자, 외래어, 한자의 시작 위치와 분류만 기록합니다. </p>
+ * 형태소 문자열은 문자마다 이어 붙이지 않고 연속 구간이 끝났을 때 입력 문자열에서 한 번만 잘라내므로 구간의 길이에 비례하는 시간이 듭니다.
  */
 public class ContinuousSymbolBuffer {
-	private String prevPos = "";
-	private String prevMorph = "";
-	private int prevBeginIdx = 0;
+	//CharacterClassTable의 연속된 기호 분류
+	private int symbolClass = CharacterClassTable.NONE;
+	private int beginIdx = 0;
 
-	public String getPrevPos() {
-		return prevPos;
+	public int getSymbolClass() {
+		return symbolClass;
 	}
 
-	public void setPrevPos(String prevPos) {
-		this.prevPos = prevPos;
+	public int getBeginIdx() {
+		return beginIdx;
 	}
 
-	public String getPrevMorph() {
-		return prevMorph;
+	/**
+	 * beginIdx 위치에서 symbolClass 분류의 새로운 연속 구간을 시작합니다.
+	 */
+	public void begin(int symbolClass, int beginIdx) {
+		this.symbolClass = symbolClass;
+		this.beginIdx = beginIdx;
 	}
 
-	public void setPrevMorph(String prevMorph) {
-		this.prevMorph = prevMorph;
-	}
-
-	public int getPrevBeginIdx() {
-		return prevBeginIdx;
-	}
-
-	public void setPrevBeginIdx(int prevBeginIdx) {
-		this.prevBeginIdx = prevBeginIdx;
+	/**
+	 * 연속 구간을 비웁니다. 다음 문자는 분류와 관계 없이 새로운 구간을 시작합니다.
+	 */
+	public void clear() {
+		this.symbolClass = CharacterClassTable.NONE;
 	}
 }
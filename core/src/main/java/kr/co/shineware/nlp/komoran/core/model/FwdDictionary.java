@@ -0,0 +1,514 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.corpus.parser.CorpusParser;
+import kr.co.shineware.nlp.komoran.corpus.parser.model.ProblemAnswerPair;
+import kr.co.shineware.nlp.komoran.exception.FileFormatException;
+import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import kr.co.shineware.util.common.model.Pair;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 기분석 사전의 불변 snapshot입니다. </p>
+ * 자소 단위 어절을 최소 비순환 automaton(DAFSA)으로 저장합니다. 어절의 공통 접두사뿐 아니라 조사, 어미와 같은 공통 접미사도
+ * 상태를 공유하므로 어절 수가 많아져도 메모리가 완만하게 늘어납니다.
+ * 어절은 automaton을 따라가는 동안 사전 순서의 번호(entry)로 변환되며, 분석 결과는 entry 번호로 primitive 배열에서 찾습니다. </p>
+ * 품사는 로드할 때 pos.table의 id로 변환해 두므로 분석 중에는 품사 id를 다시 찾지 않습니다.
+ */
+public final class FwdDictionary {
+
+    public static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private final PosTable posTable;
+
+    //상태 별 transition 구간의 시작 (길이 = 상태 수 + 1)
+    private final int[] firstTransition;
+    private final boolean[] finals;
+    //상태 별로 label 순으로 정렬된 transition
+    private final char[] labels;
+    private final int[] targets;
+    //transition을 지날 때 entry 번호에 더할 값 (현재 상태에서 끝나는 어절 수 + 앞선 transition 아래의 어절 수)
+    private final int[] entryOffsets;
+
+    //entry 별 형태소 구간의 시작 (길이 = entry 수 + 1)
+    private final int[] tokenOffsets;
+    //같은 형태소는 같은 String 객체를 공유
+    private final String[] morphs;
+    private final short[] tagIds;
+    //품사 id 별 품사 문자열
+    private final String[] tags;
+
+    private FwdDictionary(PosTable posTable, int[] firstTransition, boolean[] finals, char[] labels, int[] targets,
+                          int[] entryOffsets, int[] tokenOffsets, String[] morphs, short[] tagIds, String[] tags) {
+        this.posTable = posTable;
+        this.firstTransition = firstTransition;
+        this.finals = finals;
+        this.labels = labels;
+        this.targets = targets;
+        this.entryOffsets = entryOffsets;
+        this.tokenOffsets = tokenOffsets;
+        this.morphs = morphs;
+        this.tagIds = tagIds;
+        this.tags = tags;
+    }
+
+    /**
+     * 기분석 사전 파일을 로드합니다. 각 라인은 "어절[TAB]형태소/품사+형태소/품사..." 형태이며 '#'으로 시작하는 라인은 무시합니다.
+     *
+     * @param filename 기분석 사전 파일 경로
+     * @param posTable 기분석 사전을 적용할 모델의 pos.table
+     */
+    public static FwdDictionary load(String filename, PosTable posTable) throws IOException, FileFormatException {
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+        CorpusParser corpusParser = new CorpusParser();
+        Builder builder = new Builder(posTable);
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] tmp = line.split("\t");
+                //주석이거나 format에 안 맞는 경우는 skip
+                if (tmp.length != 2 || tmp[0].charAt(0) == '#') {
+                    continue;
+                }
+                ProblemAnswerPair problemAnswerPair = corpusParser.parse(line);
+                builder.put(unitParser.parse(problemAnswerPair.getProblem()), problemAnswerPair.getAnswerList());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * chars의 [begin, end) 구간과 일치하는 어절을 찾습니다. 일치하지 않는 글자를 만나면 바로 중단합니다.
+     *
+     * @return entry 번호, 없는 경우 {@link #NONE}
+     */
+    public int find(CharSequence chars, int begin, int end) {
+        int state = ROOT;
+        int entry = 0;
+        for (int i = begin; i < end; i++) {
+            int transition = this.findTransition(state, chars.charAt(i));
+            if (transition == -1) {
+                return NONE;
+            }
+            entry += this.entryOffsets[transition];
+            state = this.targets[transition];
+        }
+        return this.finals[state] ? entry : NONE;
+    }
+
+    /**
+     * begin부터 다음 공백 또는 문장의 끝까지를 하나의 어절로 보고 일치하는 어절을 찾습니다.
+     * 어절의 끝을 미리 찾지 않고 automaton을 따라가면서 확인합니다.
+     *
+     * @return entry 번호, 없는 경우 {@link #NONE}
+     */
+    public int findWord(CharSequence text, int begin) {
+        int state = ROOT;
+        int entry = 0;
+        for (int i = begin; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            int transition = this.findTransition(state, c);
+            if (transition == -1) {
+                return NONE;
+            }
+            entry += this.entryOffsets[transition];
+            state = this.targets[transition];
+        }
+        return this.finals[state] ? entry : NONE;
+    }
+
+    private int findTransition(int state, char c) {
+        int low = this.firstTransition[state];
+        int high = this.firstTransition[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = this.labels[mid];
+            if (midLabel < c) {
+                low = mid + 1;
+            } else if (midLabel > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 자소 단위 어절의 분석 결과를 반환합니다.
+     *
+     * @return 형태소와 품사의 목록, 없는 경우 null
+     */
+    public List<Pair<String, String>> get(CharSequence key) {
+        int entry = this.find(key, 0, key.length());
+        if (entry == NONE) {
+            return null;
+        }
+        List<Pair<String, String>> analysis = new ArrayList<>(this.getEnd(entry) - this.getBegin(entry));
+        for (int i = this.getBegin(entry); i < this.getEnd(entry); i++) {
+            analysis.add(new Pair<>(this.getMorph(i), this.getTag(i)));
+        }
+        return analysis;
+    }
+
+    /**
+     * entry의 첫 번째 형태소 index를 반환합니다.
+     */
+    public int getBegin(int entry) {
+        return this.tokenOffsets[entry];
+    }
+
+    /**
+     * entry의 마지막 형태소 다음 index를 반환합니다.
+     */
+    public int getEnd(int entry) {
+        return this.tokenOffsets[entry + 1];
+    }
+
+    public String getMorph(int index) {
+        return this.morphs[index];
+    }
+
+    public int getTagId(int index) {
+        return this.tagIds[index];
+    }
+
+    public String getTag(int index) {
+        return this.tags[this.tagIds[index]];
+    }
+
+    /**
+     * 어절의 수를 반환합니다.
+     */
+    public int size() {
+        return this.tokenOffsets.length - 1;
+    }
+
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    public int getStateCount() {
+        return this.finals.length;
+    }
+
+    public PosTable getPosTable() {
+        return this.posTable;
+    }
+
+    public static final class Builder {
+
+        private final PosTable posTable;
+        //key = 자소 단위 어절, value = 형태소 구간의 시작
+        private final Map<JasoSequence, Integer> entries = new HashMap<>();
+        private final Map<String, String> morphPool = new HashMap<>();
+        private String[] morphs = new String[16];
+        private short[] tagIds = new short[16];
+        private int tokenCount;
+
+        /**
+         * @param posTable 기분석 사전을 적용할 모델의 pos.table
+         */
+        public Builder(PosTable posTable) {
+            this.posTable = posTable;
+        }
+
+        /**
+         * 어절의 분석 결과를 추가합니다. 이미 있는 어절인 경우 분석 결과를 덮어씁니다.
+         *
+         * @param key      자소 단위 어절
+         * @param analysis 형태소와 품사의 목록
+         */
+        public Builder put(CharSequence key, List<Pair<String, String>> analysis) {
+            if (key.length() == 0) {
+                throw new IllegalArgumentException("empty key");
+            }
+            if (analysis.isEmpty() || analysis.size() > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("invalid analysis size : " + key);
+            }
+            //형태소 수를 함께 저장하기 위해 첫 칸에 길이를 기록
+            int required = this.tokenCount + analysis.size() + 1;
+            if (required > this.tagIds.length) {
+                int capacity = Math.max(required, this.tagIds.length * 2);
+                this.morphs = Arrays.copyOf(this.morphs, capacity);
+                this.tagIds = Arrays.copyOf(this.tagIds, capacity);
+            }
+            int begin = this.tokenCount;
+            this.tagIds[this.tokenCount++] = (short) analysis.size();
+            for (Pair<String, String> morphPosPair : analysis) {
+                Integer tagId = this.posTable.findId(morphPosPair.getSecond());
+                if (tagId == null) {
+                    throw new IllegalArgumentException("unknown pos : " + morphPosPair.getSecond());
+                }
+                this.morphs[this.tokenCount] = this.intern(morphPosPair.getFirst());
+                this.tagIds[this.tokenCount] = tagId.shortValue();
+                this.tokenCount++;
+            }
+            this.entries.put(JasoSequence.of(key), begin);
+            return this;
+        }
+
+        private String intern(String morph) {
+            String pooled = this.morphPool.get(morph);
+            if (pooled == null) {
+                this.morphPool.put(morph, morph);
+                pooled = morph;
+            }
+            return pooled;
+        }
+
+        public FwdDictionary build() {
+            JasoSequence[] keys = this.entries.keySet().toArray(new JasoSequence[this.entries.size()]);
+            Arrays.sort(keys);
+
+            //entry 번호는 사전 순서이므로 분석 결과도 같은 순서로 다시 배치
+            int[] tokenOffsets = new int[keys.length + 1];
+            int tokenSize = 0;
+            for (int entry = 0; entry < keys.length; entry++) {
+                tokenSize += this.tagIds[this.entries.get(keys[entry])];
+                tokenOffsets[entry + 1] = tokenSize;
+            }
+            String[] packedMorphs = new String[tokenSize];
+            short[] packedTagIds = new short[tokenSize];
+            for (int entry = 0; entry < keys.length; entry++) {
+                int begin = this.entries.get(keys[entry]) + 1;
+                int length = tokenOffsets[entry + 1] - tokenOffsets[entry];
+                System.arraycopy(this.morphs, begin, packedMorphs, tokenOffsets[entry], length);
+                System.arraycopy(this.tagIds, begin, packedTagIds, tokenOffsets[entry], length);
+            }
+
+            String[] tags = new String[0];
+            for (Map.Entry<Integer, String> idPos : this.posTable.getIdPosTable().entrySet()) {
+                if (idPos.getKey() >= tags.length) {
+                    tags = Arrays.copyOf(tags, idPos.getKey() + 1);
+                }
+                tags[idPos.getKey()] = idPos.getValue();
+            }
+
+            return new AutomatonBuilder(keys).build(this.posTable, tokenOffsets, packedMorphs, packedTagIds, tags);
+        }
+    }
+
+    /**
+     * 정렬된 key로부터 최소 automaton을 만듭니다. (Daciuk et al., 2000)
+     * 직전 key와 공통 접두사가 끝난 이후의 상태들은 더 이상 바뀌지 않으므로, 그 즉시 같은 상태가 이미 있는지 확인하여 합칩니다.
+     */
+    private static final class AutomatonBuilder {
+
+        private final JasoSequence[] keys;
+        private final Map<State, State> register = new HashMap<>();
+        private final List<State> path = new ArrayList<>();
+        private int stateCount;
+
+        private AutomatonBuilder(JasoSequence[] keys) {
+            this.keys = keys;
+        }
+
+        private FwdDictionary build(PosTable posTable, int[] tokenOffsets, String[] morphs, short[] tagIds, String[] tags) {
+            State root = this.newState();
+            this.path.add(root);
+            JasoSequence prevKey = JasoSequence.EMPTY;
+            for (JasoSequence key : this.keys) {
+                int commonPrefix = 0;
+                int maxPrefix = Math.min(key.length(), prevKey.length());
+                while (commonPrefix < maxPrefix && key.charAt(commonPrefix) == prevKey.charAt(commonPrefix)) {
+                    commonPrefix++;
+                }
+                this.minimize(commonPrefix);
+                State state = this.path.get(commonPrefix);
+                for (int i = commonPrefix; i < key.length(); i++) {
+                    State next = this.newState();
+                    state.add(key.charAt(i), next);
+                    this.path.add(next);
+                    state = next;
+                }
+                state.isFinal = true;
+                prevKey = key;
+            }
+            this.minimize(0);
+            return this.freeze(root, posTable, tokenOffsets, morphs, tagIds, tags);
+        }
+
+        private State newState() {
+            return new State(this.stateCount++);
+        }
+
+        //path에서 depth보다 깊은 상태들을 등록된 상태와 합침
+        private void minimize(int depth) {
+            for (int i = this.path.size() - 1; i > depth; i--) {
+                State state = this.path.get(i);
+                State registered = this.register.get(state);
+                if (registered == null) {
+                    this.register.put(state, state);
+                } else {
+                    this.path.get(i - 1).replaceLastTarget(registered);
+                }
+                this.path.remove(i);
+            }
+        }
+
+        private FwdDictionary freeze(State root, PosTable posTable, int[] tokenOffsets, String[] morphs, short[] tagIds, String[] tags) {
+            //합쳐진 상태만 남도록 root부터 BFS 순서로 상태 번호를 다시 부여
+            List<State> states = new ArrayList<>();
+            root.number = 0;
+            states.add(root);
+            int transitionCount = 0;
+            for (int i = 0; i < states.size(); i++) {
+                State state = states.get(i);
+                transitionCount += state.size;
+                for (int t = 0; t < state.size; t++) {
+                    if (state.targets[t].number == -1) {
+                        state.targets[t].number = states.size();
+                        states.add(state.targets[t]);
+                    }
+                }
+            }
+
+            int[] entryCounts = new int[states.size()];
+            Arrays.fill(entryCounts, -1);
+            for (State state : states) {
+                countEntries(state, entryCounts);
+            }
+
+            int[] firstTransition = new int[states.size() + 1];
+            boolean[] finals = new boolean[states.size()];
+            char[] labels = new char[transitionCount];
+            int[] targets = new int[transitionCount];
+            int[] entryOffsets = new int[transitionCount];
+            int transition = 0;
+            for (int i = 0; i < states.size(); i++) {
+                State state = states.get(i);
+                firstTransition[i] = transition;
+                finals[i] = state.isFinal;
+                int skipped = state.isFinal ? 1 : 0;
+                for (int t = 0; t < state.size; t++) {
+                    int target = state.targets[t].number;
+                    labels[transition] = state.labels[t];
+                    targets[transition] = target;
+                    entryOffsets[transition] = skipped;
+                    skipped += entryCounts[target];
+                    transition++;
+                }
+            }
+            firstTransition[states.size()] = transition;
+            return new FwdDictionary(posTable, firstTransition, finals, labels, targets, entryOffsets,
+                    tokenOffsets, morphs, tagIds, tags);
+        }
+
+        //상태 아래에서 끝나는 어절 수를 자식부터 계산 (긴 어절에서 재귀가 깊어지지 않도록 stack 사용)
+        private static void countEntries(State start, int[] entryCounts) {
+            Deque<State> stack = new ArrayDeque<>();
+            stack.push(start);
+            while (!stack.isEmpty()) {
+                State state = stack.peek();
+                if (entryCounts[state.number] != -1) {
+                    stack.pop();
+                    continue;
+                }
+                boolean ready = true;
+                int count = state.isFinal ? 1 : 0;
+                for (int t = 0; t < state.size; t++) {
+                    int target = state.targets[t].number;
+                    if (entryCounts[target] == -1) {
+                        stack.push(state.targets[t]);
+                        ready = false;
+                    } else {
+                        count += entryCounts[target];
+                    }
+                }
+                if (ready) {
+                    entryCounts[state.number] = count;
+                    stack.pop();
+                }
+            }
+        }
+    }
+
+    /**
+     * automaton을 만드는 동안 사용하는 상태입니다. 등록된 이후에는 바뀌지 않으므로 내용으로 비교합니다.
+     */
+    private static final class State {
+
+        private final int id;
+        //freeze할 때 부여되는 최종 상태 번호
+        private int number = -1;
+        private boolean isFinal;
+        private char[] labels = new char[1];
+        private State[] targets = new State[1];
+        private int size;
+
+        private State(int id) {
+            this.id = id;
+        }
+
+        private void add(char label, State target) {
+            if (this.size == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.size * 2);
+                this.targets = Arrays.copyOf(this.targets, this.size * 2);
+            }
+            this.labels[this.size] = label;
+            this.targets[this.size] = target;
+            this.size++;
+        }
+
+        private void replaceLastTarget(State target) {
+            this.targets[this.size - 1] = target;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof State)) {
+                return false;
+            }
+            State other = (State) obj;
+            if (this.isFinal != other.isFinal || this.size != other.size) {
+                return false;
+            }
+            //자식들은 이미 합쳐진 상태이므로 객체가 같은지만 비교
+            for (int i = 0; i < this.size; i++) {
+                if (this.labels[i] != other.labels[i] || this.targets[i] != other.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = this.isFinal ? 1 : 0;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + this.labels[i];
+                hash = 31 * hash + this.targets[i].id;
+            }
+            return hash;
+        }
+    }
+}
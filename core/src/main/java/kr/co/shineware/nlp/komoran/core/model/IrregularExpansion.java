@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.modeler.model.IrregularNode;
+import kr.co.shineware.util.common.model.Pair;
+
+import java.util.List;
+
+/**
+ * 불규칙 node의 token별 관측 점수와 품사를 모델을 로드할 때 미리 찾아 둔 것입니다. </p>
+ * 분석 중에는 token마다 관측 사전을 조회하고 품사 목록에서 같은 품사를 찾는 대신 배열만 따라갑니다.
+ * 관측 사전에 없는 형태소나 품사인 token은 점수가 없는 것으로 표시되며 lattice에 추가되지 않습니다.
+ */
+public final class IrregularExpansion {
+
+    private final IrregularNode irregularNode;
+    private final String[] morphs;
+    private final int[] tagIds;
+    private final String[] tags;
+    //관측 사전에 없는 token인 경우 NaN
+    private final double[] scores;
+    //마지막 token의 형태소에 해당하는 사전 상태 (불규칙 확장의 시작점)
+    private final int lastMorphState;
+
+    IrregularExpansion(IrregularNode irregularNode, AnalysisDictionary analysisDictionary) {
+        this.irregularNode = irregularNode;
+        List<Pair<String, Integer>> tokens = irregularNode.getTokens();
+        int size = tokens == null ? 0 : tokens.size();
+        this.morphs = new String[size];
+        this.tagIds = new int[size];
+        this.tags = new String[size];
+        this.scores = new double[size];
+
+        PackedScoredTags scoredTags = analysisDictionary.getPackedScoredTags();
+        for (int i = 0; i < size; i++) {
+            Pair<String, Integer> morphPosPair = tokens.get(i);
+            this.morphs[i] = morphPosPair.getFirst();
+            this.tagIds[i] = morphPosPair.getSecond();
+            this.scores[i] = Double.NaN;
+            int entry = analysisDictionary.getObservationEntry(morphPosPair.getFirst());
+            if (entry == -1) {
+                continue;
+            }
+            //관측 사전의 품사 목록에는 같은 품사가 한 번만 나타남
+            for (int index = scoredTags.getBegin(entry); index < scoredTags.getEnd(entry); index++) {
+                if (scoredTags.getTagId(index) == this.tagIds[i]) {
+                    this.tags[i] = scoredTags.getTag(index);
+                    this.scores[i] = scoredTags.getScore(index);
+                    break;
+                }
+            }
+        }
+        this.lastMorphState = size == 0 ? -1 : analysisDictionary.find(this.morphs[size - 1]);
+    }
+
+    public IrregularNode getIrregularNode() {
+        return this.irregularNode;
+    }
+
+    public int getFirstPosId() {
+        return this.irregularNode.getFirstPosId();
+    }
+
+    /**
+     * token의 수를 반환합니다.
+     */
+    public int size() {
+        return this.morphs.length;
+    }
+
+    public String getMorph(int i) {
+        return this.morphs[i];
+    }
+
+    public int getTagId(int i) {
+        return this.tagIds[i];
+    }
+
+    /**
+     * @return 품사, 관측 사전에 없는 token인 경우 null
+     */
+    public String getTag(int i) {
+        return this.tags[i];
+    }
+
+    /**
+     * token이 관측 사전에 있는지 확인합니다.
+     */
+    public boolean hasScore(int i) {
+        return !Double.isNaN(this.scores[i]);
+    }
+
+    public double getScore(int i) {
+        return this.scores[i];
+    }
+
+    /**
+     * 마지막 token의 형태소에 해당하는 사전 상태를 반환합니다.
+     *
+     * @return 상태, 사전의 어떤 key의 prefix도 아닌 경우 -1
+     * @see AnalysisDictionary#child(int, char)
+     */
+    public int getLastMorphState() {
+        return this.lastMorphState;
+    }
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import java.util.Arrays;
+
+/**
+ * 자소 단위 문자열을 글자당 6bit로 압축하여 저장하는 불변 문자열입니다. </p>
+ * 한글 호환 자모(ㄱ ~ ㅣ), 숫자, 공백은 6bit code 하나로 저장하며, 그 외의 글자는 escape code와 함께 원래 글자를 따로 저장합니다.
+ * code는 글자 순서와 같은 순서로 부여되어 있으므로 escape된 글자가 없는 경우 정렬 및 prefix 비교를 long 단위로 처리합니다. </p>
+ * 10글자 이하이면서 escape된 글자가 없는 경우(대부분의 형태소와 어절)에는 배열 없이 long 하나에 길이와 함께 저장되므로
+ * 같은 내용의 String보다 절반 이하의 메모리를 사용합니다. </p>
+ * {@link CharSequence}를 구현하므로 {@link kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie}의 조회에 그대로 사용할 수 있지만,
+ * equals와 hashCode는 JasoSequence끼리만 비교하므로 String과 같은 Map의 key로 섞어서 사용하면 안 됩니다.
+ */
+public final class JasoSequence implements CharSequence, Comparable<JasoSequence> {
+
+    private static final int BITS_PER_CODE = 6;
+    private static final int CODES_PER_WORD = 10;
+    private static final long CODE_MASK = (1L << BITS_PER_CODE) - 1;
+    //long 하나에서 code가 차지하는 하위 60bit
+    private static final long WORD_MASK = (1L << (BITS_PER_CODE * CODES_PER_WORD)) - 1;
+    private static final int LENGTH_SHIFT = BITS_PER_CODE * CODES_PER_WORD;
+
+    //0은 빈 자리를 나타내므로 모든 글자보다 앞에 정렬됨
+    private static final int FIRST_DIGIT_CODE = 2;
+    private static final int FIRST_JAMO_CODE = 12;
+    private static final char FIRST_JAMO = 'ㄱ';
+    private static final char LAST_JAMO = 'ㅣ';
+    private static final int ESCAPE = 63;
+
+    public static final JasoSequence EMPTY = new JasoSequence(0L, null);
+
+    //첫 10글자의 code (짧은 형태인 경우 상위 4bit에 길이를 저장)
+    private final long head;
+    //짧은 형태인 경우 null
+    //긴 형태인 경우 [0] = 길이 | escape 수 << 32, [1 ~] = 11번째 글자부터의 code, 이후 escape된 글자 (위치 << 16 | 글자)
+    private final long[] tail;
+
+    private JasoSequence(long head, long[] tail) {
+        this.head = head;
+        this.tail = tail;
+    }
+
+    /**
+     * 문자열을 압축합니다.
+     */
+    public static JasoSequence of(CharSequence chars) {
+        return of(chars, 0, chars.length());
+    }
+
+    /**
+     * 문자열의 [begin, end) 구간을 압축합니다. 조회할 때 substring을 만들지 않기 위해 사용합니다.
+     */
+    public static JasoSequence of(CharSequence chars, int begin, int end) {
+        if (chars instanceof JasoSequence && begin == 0 && end == chars.length()) {
+            return (JasoSequence) chars;
+        }
+        if (begin < 0 || end > chars.length() || begin > end) {
+            throw new IndexOutOfBoundsException("begin : " + begin + ", end : " + end + ", length : " + chars.length());
+        }
+        int length = end - begin;
+        int escapeCount = 0;
+        for (int i = begin; i < end; i++) {
+            if (encode(chars.charAt(i)) == ESCAPE) {
+                escapeCount++;
+            }
+        }
+
+        if (length <= CODES_PER_WORD && escapeCount == 0) {
+            long head = 0L;
+            for (int i = 0; i < length; i++) {
+                head |= (long) encode(chars.charAt(begin + i)) << shift(i);
+            }
+            return new JasoSequence(head | (long) length << LENGTH_SHIFT, null);
+        }
+
+        int wordCount = wordCount(length);
+        long[] tail = new long[wordCount + escapeCount];
+        tail[0] = length | (long) escapeCount << 32;
+        long head = 0L;
+        int escapeIndex = wordCount;
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(begin + i);
+            long code = encode(c);
+            if (i < CODES_PER_WORD) {
+                head |= code << shift(i);
+            } else {
+                tail[i / CODES_PER_WORD] |= code << shift(i % CODES_PER_WORD);
+            }
+            if (code == ESCAPE) {
+                tail[escapeIndex++] = (long) i << 16 | c;
+            }
+        }
+        return new JasoSequence(head, tail);
+    }
+
+    private static int encode(char c) {
+        if (c >= FIRST_JAMO && c <= LAST_JAMO) {
+            return FIRST_JAMO_CODE + (c - FIRST_JAMO);
+        }
+        if (c >= '0' && c <= '9') {
+            return FIRST_DIGIT_CODE + (c - '0');
+        }
+        if (c == ' ') {
+            return 1;
+        }
+        return ESCAPE;
+    }
+
+    private static char decode(int code) {
+        if (code >= FIRST_JAMO_CODE) {
+            return (char) (FIRST_JAMO + (code - FIRST_JAMO_CODE));
+        }
+        if (code >= FIRST_DIGIT_CODE) {
+            return (char) ('0' + (code - FIRST_DIGIT_CODE));
+        }
+        return ' ';
+    }
+
+    //첫 글자가 상위 bit에 오도록 저장해야 long의 대소 비교가 사전 순 비교와 같아짐
+    private static int shift(int indexInWord) {
+        return BITS_PER_CODE * (CODES_PER_WORD - 1 - indexInWord);
+    }
+
+    //head를 포함한 code 저장에 필요한 long의 수
+    private static int wordCount(int length) {
+        return Math.max(1, (length + CODES_PER_WORD - 1) / CODES_PER_WORD);
+    }
+
+    private int escapeCount() {
+        return this.tail == null ? 0 : (int) (this.tail[0] >>> 32);
+    }
+
+    //i번째 code 묶음 (0 = head)
+    private long word(int i) {
+        if (i == 0) {
+            return this.head & WORD_MASK;
+        }
+        return this.tail[i];
+    }
+
+    private int codeAt(int index) {
+        return (int) (this.word(index / CODES_PER_WORD) >>> shift(index % CODES_PER_WORD) & CODE_MASK);
+    }
+
+    @Override
+    public int length() {
+        if (this.tail == null) {
+            return (int) (this.head >>> LENGTH_SHIFT);
+        }
+        return (int) this.tail[0];
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length()) {
+            throw new IndexOutOfBoundsException("index : " + index + ", length : " + this.length());
+        }
+        int code = this.codeAt(index);
+        if (code != ESCAPE) {
+            return decode(code);
+        }
+        //escape된 글자는 위치 순으로 저장되어 있음
+        int begin = wordCount(this.length());
+        int low = begin;
+        int high = begin + this.escapeCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = (int) (this.tail[mid] >>> 16);
+            if (position < index) {
+                low = mid + 1;
+            } else if (position > index) {
+                high = mid - 1;
+            } else {
+                return (char) this.tail[mid];
+            }
+        }
+        throw new IllegalStateException("escaped char not found : " + index);
+    }
+
+    @Override
+    public JasoSequence subSequence(int begin, int end) {
+        return of(this, begin, end);
+    }
+
+    /**
+     * prefix로 시작하는지 확인합니다.
+     */
+    public boolean startsWith(JasoSequence prefix) {
+        int prefixLength = prefix.length();
+        if (prefixLength > this.length()) {
+            return false;
+        }
+        //prefix가 끝난 뒤의 빈 자리는 비교하지 않음
+        int fullWords = prefixLength / CODES_PER_WORD;
+        for (int i = 0; i < fullWords; i++) {
+            if (this.word(i) != prefix.word(i)) {
+                return false;
+            }
+        }
+        int rest = prefixLength % CODES_PER_WORD;
+        if (rest != 0) {
+            long mask = WORD_MASK & ~((1L << shift(rest - 1)) - 1);
+            if ((this.word(fullWords) & mask) != prefix.word(fullWords)) {
+                return false;
+            }
+        }
+        if (prefix.escapeCount() == 0) {
+            return true;
+        }
+        //escape code만 같으므로 escape된 글자는 따로 비교
+        for (int i = 0; i < prefixLength; i++) {
+            if (prefix.codeAt(i) == ESCAPE && this.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 글자 순서로 비교합니다. String의 compareTo와 같은 순서입니다.
+     */
+    @Override
+    public int compareTo(JasoSequence other) {
+        if (this.escapeCount() != 0 || other.escapeCount() != 0) {
+            return this.compareChars(other);
+        }
+        int words = Math.max(wordCount(this.length()), wordCount(other.length()));
+        for (int i = 0; i < words; i++) {
+            long word = i < wordCount(this.length()) ? this.word(i) : 0L;
+            long otherWord = i < wordCount(other.length()) ? other.word(i) : 0L;
+            if (word != otherWord) {
+                return word < otherWord ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private int compareChars(JasoSequence other) {
+        int length = Math.min(this.length(), other.length());
+        for (int i = 0; i < length; i++) {
+            char c = this.charAt(i);
+            char otherChar = other.charAt(i);
+            if (c != otherChar) {
+                return c - otherChar;
+            }
+        }
+        return this.length() - other.length();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof JasoSequence)) {
+            return false;
+        }
+        JasoSequence other = (JasoSequence) obj;
+        //같은 내용은 항상 같은 형태로 압축되므로 저장된 값만 비교
+        return this.head == other.head && Arrays.equals(this.tail, other.tail);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = (int) (this.head ^ (this.head >>> 32));
+        if (this.tail != null) {
+            hash = 31 * hash + Arrays.hashCode(this.tail);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[this.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = this.charAt(i);
+        }
+        return new String(chars);
+    }
+}
@@ -1,16 +1,18 @@
 package kr.co.shineware.nlp.komoran.core.model;
 
-import kr.co.shineware.ds.aho_corasick.FindContext;
 import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
 import kr.co.shineware.nlp.komoran.constant.SYMBOL;
+import kr.co.shineware.nlp.komoran.core.model.combinationrules.ClassifiableCombinationRuleChecker;
 import kr.co.shineware.nlp.komoran.core.model.combinationrules.CombinationRuleChecker;
+import kr.co.shineware.nlp.komoran.core.model.combinationrules.MergedCombinationRuleChecker;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie;
 import kr.co.shineware.nlp.komoran.model.MorphTag;
-import kr.co.shineware.nlp.komoran.model.ScoredTag;
 import kr.co.shineware.nlp.komoran.modeler.model.*;
 import kr.co.shineware.util.common.collection.MapUtil;
 import kr.co.shineware.util.common.model.Pair;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,87 +20,123 @@ import java.util.Map;
 public class Lattice {
 
     private static final int IRREGULAR_POS_ID = -1;
-    private Map<Integer, List<LatticeNode>> lattice;
+    //불규칙의 첫 형태소처럼 결합 규칙을 검사하지 않는 경우의 memo class
+    private static final int UNCHECKED_RULE_CLASS = ClassifiableCombinationRuleChecker.MAX_RULE_CLASS;
+    private Map<Integer, LatticeColumn> lattice;
     private PosTable posTable;
     private Transition transition;
     private int lastIdx = -1;
     private int irrIdx = 0;
-    private Observation observation;
-    private Observation userDicObservation;
-    private IrregularTrie irregularTrie;
+    private AnalysisDictionary analysisDictionary;
+    private List<UserDictionary.Matcher> userDicMatchers;
 
-    private FindContext<List<ScoredTag>> observationFindContext;
-    private FindContext<List<IrregularNode>> irregularFindContext;
-    private FindContext<List<ScoredTag>> userDicFindContext;
+    //관측 사전과 불규칙 사전을 합친 automaton의 현재 상태
+    private int analysisState;
 
     private final CombinationRuleChecker combinationRuleChecker;
+    //결합 규칙 class를 제공하는 검사기인 경우에만 이전 node memo를 사용
+    private final ClassifiableCombinationRuleChecker ruleClassifier;
+
+    //모델 별 품사 id
+    private final int boeTagId;
+    private final int eoeTagId;
+    private final int ecTagId;
+    private final int efTagId;
 
     private double prevMaxScore;
     private LatticeNode prevMaxNode;
     private int prevMaxIdx;
     private int nbest;
 
-    public Lattice(Resources resource, Observation userDic) {
+    public Lattice(Resources resource, UserDictionary userDic) {
         this(resource, userDic, 1, null);
     }
 
-    public Lattice(Resources resource, Observation userDic, int nbest, CombinationRuleChecker combinationRuleChecker) {
+    public Lattice(Resources resource, UserDictionary userDic, int nbest, CombinationRuleChecker combinationRuleChecker) {
+        this(resource, userDic == null ? Collections.<UserDictionary>emptyList() : Collections.singletonList(userDic),
+                nbest, combinationRuleChecker);
+    }
+
+    /**
+     * 여러 사용자 사전을 함께 적용하는 lattice를 생성합니다. 각 사용자 사전의 형태소는 모두 후보로 추가됩니다. </p>
+     * 결합 규칙 검사기가 null인 경우에는 모델의 pos.table로 기본 검사기({@link MergedCombinationRuleChecker})를 생성합니다.
+     */
+    public Lattice(Resources resource, List<UserDictionary> userDics, int nbest, CombinationRuleChecker combinationRuleChecker) {
         this.setPosTable(resource.getTable());
         this.setTransition(resource.getTransition());
-        this.setObservation(resource.getObservation());
-        this.setIrregularTrie(resource.getIrrTrie());
-        this.setUserDicObservation(userDic);
+        this.setAnalysisDictionary(resource.getAnalysisDictionary());
+        this.setUserDics(userDics);
+        SejongTagIdTable sejongTagIdTable = resource.getSejongTagIdTable();
+        this.boeTagId = sejongTagIdTable.getId(SEJONGTAGS.BOE);
+        this.eoeTagId = sejongTagIdTable.getId(SEJONGTAGS.EOE);
+        this.ecTagId = sejongTagIdTable.getId(SEJONGTAGS.EC);
+        this.efTagId = sejongTagIdTable.getId(SEJONGTAGS.EF);
         this.init();
-        this.makeNewContexts();
         this.nbest = nbest;
+        if (combinationRuleChecker == null) {
+            combinationRuleChecker = new MergedCombinationRuleChecker(new MorphUtil(), new TagUtil(resource.getTable()));
+        }
         this.combinationRuleChecker = combinationRuleChecker;
-    }
-
-    private void setUserDicObservation(Observation userDic) {
-        this.userDicObservation = userDic;
-    }
-
-    private void setIrregularTrie(IrregularTrie irrTrie) {
-        this.irregularTrie = irrTrie;
-    }
-
-    private void makeNewContexts() {
-        this.observationFindContext = this.observation.getTrieDictionary().newFindContext();
-        this.irregularFindContext = this.irregularTrie.getTrieDictionary().newFindContext();
-        if (this.userDicObservation != null) {
-            this.userDicFindContext = this.userDicObservation.getTrieDictionary().newFindContext();
+        if (combinationRuleChecker instanceof ClassifiableCombinationRuleChecker) {
+            this.ruleClassifier = (ClassifiableCombinationRuleChecker) combinationRuleChecker;
+        } else {
+            this.ruleClassifier = null;
         }
     }
 
-    public Map<String, List<ScoredTag>> retrievalObservation(char jaso) {
-        return this.observation.getTrieDictionary().get(this.observationFindContext, jaso);
-    }
-
-    public Map<String, List<IrregularNode>> retrievalIrregularNodes(char jaso) {
-        return this.irregularTrie.getTrieDictionary().get(this.irregularFindContext, jaso);
+    private void setUserDics(List<UserDictionary> userDics) {
+        this.userDicMatchers = new ArrayList<>(userDics.size());
+        for (UserDictionary userDic : userDics) {
+            this.userDicMatchers.add(userDic.newMatcher());
+        }
     }
 
-    public Map<String, List<ScoredTag>> retrievalUserDicObservation(char jaso) {
-        if (this.userDicObservation == null) {
-            return null;
+    /**
+     * 관측 사전과 불규칙 사전을 합친 automaton에 자소를 입력합니다. </p>
+     * 반환된 상태로부터 {@link AnalysisDictionary#firstMatch(int)}, {@link AnalysisDictionary#nextMatch(int)}를 통해
+     * 현재 위치에서 끝나는 형태소와 불규칙 후보를 모두 얻을 수 있습니다.
+     *
+     * @return 자소 입력 이후의 상태
+     */
+    public int retrievalAnalysisDictionary(char jaso) {
+        this.analysisState = this.analysisDictionary.transition(this.analysisState, jaso);
+        return this.analysisState;
+    }
+
+    /**
+     * 관측 사전과 불규칙 사전을 합친 automaton을 시작 상태로 되돌립니다. </p>
+     * 사전의 어떤 key에도 나타나지 않는 자소를 {@link #retrievalAnalysisDictionary(char)}에 입력한 것과 같습니다.
+     */
+    public void resetAnalysisDictionary() {
+        this.analysisState = CompiledTrie.ROOT;
+    }
+
+    /**
+     * 각 사용자 사전에 자소를 입력하고 현재 위치에서 끝나는 형태소를 찾는 Matcher들을 반환합니다.
+     *
+     * @return 사용자 사전 별 Matcher, 사용자 사전이 없는 경우 빈 목록
+     */
+    public List<UserDictionary.Matcher> retrievalUserDic(char jaso) {
+        for (UserDictionary.Matcher userDicMatcher : this.userDicMatchers) {
+            userDicMatcher.next(jaso);
         }
-
-        return this.userDicObservation.getTrieDictionary().get(this.userDicFindContext, jaso);
+        return this.userDicMatchers;
     }
 
     private void init() {
 
         this.lattice = new HashMap<>();
         irrIdx = 0;
+        this.analysisState = CompiledTrie.ROOT;
 
-        List<LatticeNode> latticeNodes = new ArrayList<>();
+        LatticeColumn latticeNodes = new LatticeColumn();
         latticeNodes.add(this.makeStartNode());
 
         this.lattice.put(0, latticeNodes);
     }
 
     private LatticeNode makeStartNode() {
-        return new LatticeNode(-1, 0, new MorphTag(SYMBOL.BOE, SYMBOL.BOE, SEJONGTAGS.BOE_ID), 0);
+        return new LatticeNode(-1, 0, new MorphTag(SYMBOL.BOE, SYMBOL.BOE, this.boeTagId), 0);
     }
 
     //기분석 사전을 위한 lattice put
@@ -107,7 +145,7 @@ public class Lattice {
 
         if (fwdResultList.size() == 1) {
             Pair<String, String> morphPosPair = fwdResultList.get(0);
-            this.put(beginIdx, endIdx, morphPosPair.getFirst(), morphPosPair.getSecond(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
+            this.put(beginIdx, endIdx, morphPosPair.getFirst(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
         }
 
         //TODO : find solution for better code to simplify calculation of FWD transition score
@@ -120,145 +158,138 @@ public class Lattice {
             for (int i = 0; i < fwdResultList.size(); i++) {
                 Pair<String, String> morphPosPair = fwdResultList.get(i);
                 if (i == 0) {
-                    this.put(beginIdx, irrIdx - 1, morphPosPair.getFirst(), morphPosPair.getSecond(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
+                    this.put(beginIdx, irrIdx - 1, morphPosPair.getFirst(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
                 } else if (i == fwdResultList.size() - 1) {
-                    this.put(irrIdx, endIdx, morphPosPair.getFirst(), morphPosPair.getSecond(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
+                    this.put(irrIdx, endIdx, morphPosPair.getFirst(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
                 } else {
-                    this.put(irrIdx, irrIdx - 1, morphPosPair.getFirst(), morphPosPair.getSecond(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
+                    this.put(irrIdx, irrIdx - 1, morphPosPair.getFirst(), this.posTable.getId(morphPosPair.getSecond()), 0.0);
                 }
                 irrIdx--;
             }
         }
     }
 
+    //기분석 사전을 위한 lattice put (품사 id가 미리 변환되어 있음)
+    public void put(int beginIdx, int endIdx, FwdDictionary fwd, int entry) {
+        int begin = fwd.getBegin(entry);
+        int end = fwd.getEnd(entry);
+        if (end - begin == 1) {
+            this.put(beginIdx, endIdx, fwd.getMorph(begin), fwd.getTagId(begin), 0.0);
+            return;
+        }
+
+        //여러 형태소로 이뤄진 경우에는 형태소 간의 전이확률을 구하기 위해 가상의 index(irrIdx)로 연결
+        for (int i = begin; i < end; i++) {
+            if (i == begin) {
+                this.put(beginIdx, irrIdx - 1, fwd.getMorph(i), fwd.getTagId(i), 0.0);
+            } else if (i == end - 1) {
+                this.put(irrIdx, endIdx, fwd.getMorph(i), fwd.getTagId(i), 0.0);
+            } else {
+                this.put(irrIdx, irrIdx - 1, fwd.getMorph(i), fwd.getTagId(i), 0.0);
+            }
+            irrIdx--;
+        }
+    }
+
     public void put(int beginIdx, int endIdx, IrregularNode irregularNode) {
+        this.put(beginIdx, endIdx, this.analysisDictionary.expand(irregularNode));
+    }
+
+    public void put(int beginIdx, int endIdx, IrregularExpansion irregularExpansion) {
         //현재 node를 연결 시킬 이전 node list들을 가져옴
-        List<LatticeNode> prevLatticeNodes = this.lattice.get(beginIdx);
+        LatticeColumn prevLatticeNodes = this.lattice.get(beginIdx);
 
         //아 이거 아래 코드는 심오한데....
         if (prevLatticeNodes != null) {
             this.prevMaxIdx = -1;
             this.prevMaxNode = null;
             this.prevMaxScore = Double.NEGATIVE_INFINITY;
-            this.getMaxTransitionIdxFromPrevNodes(prevLatticeNodes, irregularNode.getFirstPosId());
+            this.getMaxTransitionIdxFromPrevNodes(prevLatticeNodes, irregularExpansion.getFirstPosId());
 
             if (this.prevMaxNode != null) {
-                List<Pair<String, Integer>> irregularTokens = irregularNode.getTokens();
                 //불규칙확장을 위한 노드 추가
                 int prevMaxIdx = this.prevMaxIdx;
                 double prevMaxScore = this.prevMaxScore;
-                this.putIrregularExtendTokens(beginIdx, endIdx, irregularTokens, prevMaxScore, prevMaxIdx);
-
-                //일반 불규칙을 노드를 추가하기 위한 루틴
-//                this.putFirstIrregularNode(beginIdx, endIdx, irregularTokens, prevMaxScore, prevMaxIdx);
-//                this.putIrregularTokens(beginIdx, endIdx, irregularTokens);
+                this.putIrregularExtendTokens(beginIdx, endIdx, irregularExpansion, prevMaxScore, prevMaxIdx);
             }
         }
     }
 
+    //token의 관측 점수는 모델 로드 시 미리 찾아 두었으므로 배열만 따라감
     private void putIrregularExtendTokens(int beginIdx, int endIdx,
-                                          List<Pair<String, Integer>> irregularTokens, double prevMaxScore, int prevMaxIdx) {
-    	
-        if (irregularTokens == null || irregularTokens.size() == 0) {
+                                          IrregularExpansion irregularExpansion, double prevMaxScore, int prevMaxIdx) {
+
+        int size = irregularExpansion.size();
+        if (size == 0) {
             return;
         }
-        
-    	Pair<String, Integer> morphPosPair = null;
-    	List<ScoredTag> scoredTags = null;
-
-    	if (irregularTokens.size() == 1) {
-        	morphPosPair = irregularTokens.get(0);
-            scoredTags = this.observation.getTrieDictionary().getValue(morphPosPair.getFirst());
-            for (ScoredTag scoredTag : scoredTags) {
-                if (scoredTag.getTagId() == morphPosPair.getSecond()) {
-                    LatticeNode firstIrregularNode = this.makeNode(beginIdx, endIdx, morphPosPair.getFirst(), scoredTag.getTag(), scoredTag.getTagId(), prevMaxScore + scoredTag.getScore(), prevMaxIdx);
-                    this.appendNode(firstIrregularNode);
-                    //마지막 노드가 EC인 경우에는 EF를 변환하여 노드를 추가한다
-                    if (scoredTag.getTagId() == SEJONGTAGS.EC_ID) {
-                        LatticeNode extendIrregularNode = this.makeNode(beginIdx, endIdx, morphPosPair.getFirst(), SYMBOL.EF, this.posTable.getId(SYMBOL.EF), prevMaxScore + scoredTag.getScore(), prevMaxIdx);
-                        this.appendNode(extendIrregularNode);
-                    }
+
+        if (size == 1) {
+            if (irregularExpansion.hasScore(0)) {
+                String morph = irregularExpansion.getMorph(0);
+                double score = prevMaxScore + irregularExpansion.getScore(0);
+                LatticeNode firstIrregularNode = this.makeNode(beginIdx, endIdx, morph, irregularExpansion.getTagId(0), score, prevMaxIdx);
+                this.appendNode(firstIrregularNode);
+                //마지막 노드가 EC인 경우에는 EF를 변환하여 노드를 추가한다
+                if (irregularExpansion.getTagId(0) == this.ecTagId) {
+                    LatticeNode extendIrregularNode = this.makeNode(beginIdx, endIdx, morph, this.efTagId, score, prevMaxIdx);
+                    this.appendNode(extendIrregularNode);
                 }
             }
             return;
-        } 
-        
+        }
+
         //첫번쨰 토큰에 대한 처리
-       	morphPosPair = irregularTokens.get(0);
-        scoredTags = this.observation.getTrieDictionary().getValue(morphPosPair.getFirst());
-        for (ScoredTag scoredTag : scoredTags) {
-            if (scoredTag.getTagId() == morphPosPair.getSecond()) {
-                LatticeNode firstIrregularNode = this.makeNode(beginIdx, irrIdx - 1, morphPosPair.getFirst(), scoredTag.getTag(), scoredTag.getTagId(), prevMaxScore + scoredTag.getScore(), prevMaxIdx);
-                irrIdx--;
-                this.appendNode(firstIrregularNode);
-            }
+        if (irregularExpansion.hasScore(0)) {
+            LatticeNode firstIrregularNode = this.makeNode(beginIdx, irrIdx - 1, irregularExpansion.getMorph(0), irregularExpansion.getTagId(0), prevMaxScore + irregularExpansion.getScore(0), prevMaxIdx);
+            irrIdx--;
+            this.appendNode(firstIrregularNode);
         }
 
-        for (int i = 1; i < irregularTokens.size(); i++) {
-        	morphPosPair = irregularTokens.get(i);
-        	scoredTags = this.observation.getTrieDictionary().getValue(morphPosPair.getFirst());
+        for (int i = 1; i < size; i++) {
+            String morph = irregularExpansion.getMorph(i);
+            int tagId = irregularExpansion.getTagId(i);
             //마지막 토큰에 대해서는 IRR 태그를 넣어줌 이때 score는 0.0을 줌
-            if (i == irregularTokens.size() - 1) {
-                for (ScoredTag scoredTag : scoredTags) {
-                    if (scoredTag.getTagId() == morphPosPair.getSecond()) {
-                        this.put(irrIdx, endIdx, morphPosPair.getFirst(), this.posTable.getPos(morphPosPair.getSecond()), morphPosPair.getSecond(), scoredTag.getScore());
-                        if (morphPosPair.getSecond() == SEJONGTAGS.EC_ID) {
-                            this.put(irrIdx, endIdx, morphPosPair.getFirst(), SYMBOL.EF, SEJONGTAGS.EF_ID, scoredTag.getScore());
-                        }
+            if (i == size - 1) {
+                if (irregularExpansion.hasScore(i)) {
+                    this.put(irrIdx, endIdx, morph, tagId, irregularExpansion.getScore(i));
+                    if (tagId == this.ecTagId) {
+                        this.put(irrIdx, endIdx, morph, this.efTagId, irregularExpansion.getScore(i));
                     }
                 }
-                LatticeNode latticeNode = this.makeNode(irrIdx, endIdx, morphPosPair.getFirst(), SYMBOL.IRREGULAR, IRREGULAR_POS_ID, 0.0, 0);
+                LatticeNode latticeNode = this.makeNode(irrIdx, endIdx, morph, SYMBOL.IRREGULAR, IRREGULAR_POS_ID, 0.0, 0);
+                //이후 자소로 확장할 때 사전을 root부터 다시 탐색하지 않도록 상태를 함께 저장
+                latticeNode.setDictionaryState(irregularExpansion.getLastMorphState());
                 this.appendNode(latticeNode);
 
-            } else {
-                for (ScoredTag scoredTag : scoredTags) {
-                    if (scoredTag.getTagId() == morphPosPair.getSecond()) {
-                        this.put(irrIdx, irrIdx - 1, morphPosPair.getFirst(), this.posTable.getPos(morphPosPair.getSecond()), morphPosPair.getSecond(), scoredTag.getScore());
-                    }
-                }
+            } else if (irregularExpansion.hasScore(i)) {
+                this.put(irrIdx, irrIdx - 1, morph, tagId, irregularExpansion.getScore(i));
             }
             irrIdx--;
         }
     }
-/*
-    private void putFirstIrregularNode(int beginIdx, int endIdx,
-                                       List<Pair<String, Integer>> irregularTokens, double score,
-                                       int maxTransitionPrevIdx) {
-        if (irregularTokens.size() == 1) {
-            Pair<String, Integer> morphPosId = irregularTokens.get(0);
-            List<ScoredTag> scoredTags = this.observation.getTrieDictionary().getValue(morphPosId.getFirst());
-            for (ScoredTag scoredTag : scoredTags) {
-                if (scoredTag.getTagId() == morphPosId.getSecond()) {
-                    LatticeNode firstIrregularNode = this.makeNode(beginIdx, endIdx, morphPosId.getFirst(), scoredTag.getTag(), scoredTag.getTagId(), score + scoredTag.getScore(), maxTransitionPrevIdx);
-                    this.appendNode(firstIrregularNode);
-                    //마지막 노드가 EC인 경우에는 EF를 변환하여 노드를 추가한다
-                    if (scoredTag.getTagId() == SEJONGTAGS.EC_ID) {
-                        LatticeNode extendIrregularNode = this.makeNode(beginIdx, endIdx, morphPosId.getFirst(), SYMBOL.EF, this.posTable.getId(SYMBOL.EF), score + scoredTag.getScore(), maxTransitionPrevIdx);
-                        this.appendNode(extendIrregularNode);
-                    }
-                }
-            }
-        } else {
-            Pair<String, Integer> morphPosId = irregularTokens.get(0);
-            List<ScoredTag> scoredTags = this.observation.getTrieDictionary().getValue(morphPosId.getFirst());
-            for (ScoredTag scoredTag : scoredTags) {
-                if (scoredTag.getTagId() == morphPosId.getSecond()) {
-                    LatticeNode firstIrregularNode = this.makeNode(beginIdx, irrIdx - 1, morphPosId.getFirst(), scoredTag.getTag(), scoredTag.getTagId(), score + scoredTag.getScore(), maxTransitionPrevIdx);
-                    irrIdx--;
-                    this.appendNode(firstIrregularNode);
-                }
-            }
-
-        }
-    }
-*/
+    /**
+     * 형태소를 lattice에 추가합니다. 품사 문자열은 tagId로부터 정해지므로 사용하지 않습니다.
+     *
+     * @deprecated {@link #put(int, int, String, int, double)}를 사용합니다.
+     */
+    @Deprecated
     public boolean put(int beginIdx, int endIdx, String morph, String tag, int tagId, double score) {
+        return this.put(beginIdx, endIdx, morph, tagId, score);
+    }
+
+    /**
+     * 형태소를 lattice에 추가합니다. 분석 중에는 품사 id만 사용하며, 품사 문자열은 node를 만들 때 모델의 id 별 품사 배열에서 가져옵니다.
+     *
+     * @return 연결 가능한 이전 node가 있어 추가된 경우 true
+     */
+    public boolean put(int beginIdx, int endIdx, String morph, int tagId, double score) {
 
-        List<LatticeNode> prevLatticeNodes = this.getNodeList(beginIdx);
+        LatticeColumn prevLatticeNodes = this.lattice.get(beginIdx);
 
         if (prevLatticeNodes != null) {
             if (nbest != 1) {
-                List<LatticeNode> nbestLatticeNodeList = this.getNbestMaxTransitionNodeFromPrevNodes(prevLatticeNodes, beginIdx, endIdx, morph, tag, tagId, score, this.nbest);
+                List<LatticeNode> nbestLatticeNodeList = this.getNbestMaxTransitionNodeFromPrevNodes(prevLatticeNodes, beginIdx, endIdx, morph, tagId, score, this.nbest);
 
                 if (nbestLatticeNodeList != null) {
                     for (LatticeNode latticeNode : nbestLatticeNodeList) {
@@ -267,9 +298,9 @@ public class Lattice {
                     return true;
                 }
             } else {
-                LatticeNode maxLatticeNode = this.getMaxTransitionNodeFromPrevNodes(prevLatticeNodes, beginIdx, endIdx, morph, tag, tagId, score);
+                LatticeNode maxLatticeNode = this.getMaxTransitionNodeFromPrevNodes(prevLatticeNodes, beginIdx, endIdx, morph, tagId, score);
                 if (maxLatticeNode != null) {
-                    this.appendNode(maxLatticeNode);
+                    this.mergeNode(maxLatticeNode);
                     return true;
                 }
             }
@@ -280,7 +311,7 @@ public class Lattice {
 
     private List<LatticeNode> getNbestMaxTransitionNodeFromPrevNodes(
             List<LatticeNode> prevLatticeNodes, int beginIdx, int endIdx,
-            String morph, String tag, int tagId, double score, int nbest) {
+            String morph, int tagId, double score, int nbest) {
 
         List<LatticeNode> nbestPrevNodeList = new ArrayList<>();
         int latticeNodeIdx = -1;
@@ -292,16 +323,16 @@ public class Lattice {
             }
             int prevTagId;
             String prevMorph;
-            if (prevLatticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
-                prevTagId = SEJONGTAGS.BOE_ID;
+            if (prevLatticeNode.getMorphTag().getTagId() == this.eoeTagId) {
+                prevTagId = this.boeTagId;
                 prevMorph = SYMBOL.BOE;
             } else {
                 prevTagId = prevLatticeNode.getMorphTag().getTagId();
                 prevMorph = prevLatticeNode.getMorphTag().getMorph();
             }
             //전이 확률 값 가져옴
-            Double transitionScore = this.transition.get(prevTagId, tagId);
-            if (transitionScore == null) {
+            double transitionScore = this.transition.getScore(prevTagId, tagId);
+            if (transitionScore == Double.NEGATIVE_INFINITY) {
                 continue;
             }
 
@@ -315,7 +346,7 @@ public class Lattice {
 
             if (nbestPrevNodeList.size() < nbest) {
                 nbestPrevNodeList.add(
-                        this.makeNode(beginIdx, endIdx, morph, tag, tagId, transitionScore + prevObservationScore + score, latticeNodeIdx)
+                        this.makeNode(beginIdx, endIdx, morph, tagId, transitionScore + prevObservationScore + score, latticeNodeIdx)
                 );
                 continue;
             }
@@ -333,7 +364,7 @@ public class Lattice {
             if (nbestMinScore < transitionScore + prevObservationScore + score) {
                 nbestPrevNodeList.set(
                         nbestMinIndex,
-                        this.makeNode(beginIdx, endIdx, morph, tag, tagId, transitionScore + prevObservationScore + score, latticeNodeIdx)
+                        this.makeNode(beginIdx, endIdx, morph, tagId, transitionScore + prevObservationScore + score, latticeNodeIdx)
                 );
             }
         }
@@ -348,8 +379,17 @@ public class Lattice {
     }
 
     private LatticeNode getMaxTransitionNodeFromPrevNodes(
-            List<LatticeNode> prevLatticeNodes, int beginIdx, int endIdx,
-            String morph, String tag, int tagId, double score) {
+            LatticeColumn prevLatticeNodes, int beginIdx, int endIdx,
+            String morph, int tagId, double score) {
+
+        if (this.ruleClassifier != null) {
+            int ruleClass = this.ruleClassifier.getRuleClass(morph, tagId);
+            LatticeColumn.PredecessorMemo predecessorMemo = this.findBestPredecessor(prevLatticeNodes, morph, tagId, ruleClass);
+            if (predecessorMemo.bestIdx == -1) {
+                return null;
+            }
+            return this.makeNode(beginIdx, endIdx, morph, tagId, predecessorMemo.bestScore + score, predecessorMemo.bestIdx);
+        }
 
         double prevMaxScore = Double.NEGATIVE_INFINITY;
         LatticeNode prevMaxNode = null;
@@ -363,16 +403,16 @@ public class Lattice {
             }
             int prevTagId;
             String prevMorph;
-            if (prevLatticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
-                prevTagId = SEJONGTAGS.BOE_ID;
+            if (prevLatticeNode.getMorphTag().getTagId() == this.eoeTagId) {
+                prevTagId = this.boeTagId;
                 prevMorph = SYMBOL.BOE;
             } else {
                 prevTagId = prevLatticeNode.getMorphTag().getTagId();
                 prevMorph = prevLatticeNode.getMorphTag().getMorph();
             }
             //전이 확률 값 가져옴
-            Double transitionScore = this.transition.get(prevTagId, tagId);
-            if (transitionScore == null) {
+            double transitionScore = this.transition.getScore(prevTagId, tagId);
+            if (transitionScore == Double.NEGATIVE_INFINITY) {
                 continue;
             }
 
@@ -390,11 +430,18 @@ public class Lattice {
             }
         }
         if (prevMaxNode != null) {
-            return this.makeNode(beginIdx, endIdx, morph, tag, tagId, prevMaxScore + score, prevLatticeNodeIdx);
+            return this.makeNode(beginIdx, endIdx, morph, tagId, prevMaxScore + score, prevLatticeNodeIdx);
         }
         return null;
     }
 
+    /**
+     * 품사 문자열을 모델의 id 별 품사 배열에서 가져와 node를 만듭니다.
+     */
+    public LatticeNode makeNode(int beginIdx, int endIdx, String morph, int tagId, double score, int prevNodeIdx) {
+        return this.makeNode(beginIdx, endIdx, morph, this.posTable.getPos(tagId), tagId, score, prevNodeIdx);
+    }
+
     public LatticeNode makeNode(int beginIdx, int endIdx, String morph,
                                 String tag, int tagId, double score, int prevNodeHash) {
         LatticeNode latticeNode = new LatticeNode(beginIdx, endIdx, new MorphTag(morph, tag, tagId), score);
@@ -403,52 +450,194 @@ public class Lattice {
     }
 
     public int appendNode(LatticeNode latticeNode) {
-        List<LatticeNode> latticeNodeList = this.getNodeList(latticeNode.getEndIdx());
+        LatticeColumn latticeNodeList = this.lattice.get(latticeNode.getEndIdx());
         if (latticeNodeList == null) {
-            latticeNodeList = new ArrayList<>();
+            latticeNodeList = new LatticeColumn();
         }
         latticeNodeList.add(latticeNode);
         this.lattice.put(latticeNode.getEndIdx(), latticeNodeList);
         return latticeNodeList.size() - 1;
     }
 
+    /**
+     * 1-best 분석에서 node를 추가하면서 이후의 모든 결정에 대해 구별되지 않는 node를 병합합니다. </p>
+     * 이전 node로 보았을 때의 품사와 결합 규칙 class가 같은 node는 전이 점수와 결합 규칙 검사 결과가 항상 같으므로
+     * 점수가 더 높은 node(같으면 먼저 추가된 node)만 이전 node로 선택됩니다.
+     * 따라서 선택될 수 없는 node를 제거해도 분석 결과는 같으며, 남은 node의 순서는 유지됩니다.
+     * node index가 참조되었을 수 있는 열(이전 node로 이미 탐색된 열)과 n-best 분석에서는 병합하지 않습니다.
+     * 열의 첫 node는 미분석 처리에서 참조되므로 더 좋은 node가 추가되더라도 삭제하지 않습니다.
+     */
+    private void mergeNode(LatticeNode latticeNode) {
+        LatticeColumn latticeNodeList = this.lattice.get(latticeNode.getEndIdx());
+        if (latticeNodeList == null || latticeNodeList.isScanned() || this.ruleClassifier == null) {
+            this.appendNode(latticeNode);
+            return;
+        }
+
+        //불규칙 node는 품사 id가 달라 병합되지 않음 (이후 자소로 확장되어야 함)
+        int tagId = latticeNode.getMorphTag().getTagId();
+        int prevTagId = -1;
+        int prevRuleClass = -1;
+        for (int nodeIdx = 0; nodeIdx < latticeNodeList.size(); nodeIdx++) {
+            LatticeNode mergeCandidate = latticeNodeList.get(nodeIdx);
+            if (mergeCandidate.getMorphTag().getTagId() != tagId) {
+                continue;
+            }
+            if (prevRuleClass == -1) {
+                prevTagId = this.getPrevTagId(latticeNode);
+                prevRuleClass = this.ruleClassifier.getPrevRuleClass(this.getPrevMorph(latticeNode), prevTagId);
+            }
+            if (this.ruleClassifier.getPrevRuleClass(this.getPrevMorph(mergeCandidate), prevTagId) != prevRuleClass) {
+                continue;
+            }
+            if (mergeCandidate.getScore() >= latticeNode.getScore()) {
+                return;
+            }
+            //열의 첫 node는 미분석 처리에서 탐색 없이 참조되므로 삭제하지 않음
+            if (nodeIdx != 0) {
+                latticeNodeList.remove(nodeIdx);
+            }
+            break;
+        }
+        latticeNodeList.add(latticeNode);
+    }
+
+    /**
+     * idx 열에서 경로 점수가 가장 높은 node(불규칙 node 제외)의 index를 반환합니다. 점수가 같은 경우에는 index가 작은 node를 반환합니다. </p>
+     * 미분석 node처럼 이전 node와 점수를 정해 추가하는 node에 사용됩니다.
+     *
+     * @return node index, 열에 node가 없는 경우 -1
+     */
+    public int getBestNodeIdx(int idx) {
+        List<LatticeNode> latticeNodes = this.lattice.get(idx);
+        int bestIdx = -1;
+        if (latticeNodes == null) {
+            return bestIdx;
+        }
+        for (int i = 0; i < latticeNodes.size(); i++) {
+            //불규칙 node는 이전 node가 될 수 없음
+            if (latticeNodes.get(i).getMorphTag().getTagId() == IRREGULAR_POS_ID) {
+                continue;
+            }
+            if (bestIdx == -1 || latticeNodes.get(bestIdx).getScore() < latticeNodes.get(i).getScore()) {
+                bestIdx = i;
+            }
+        }
+        return bestIdx;
+    }
+
     public List<LatticeNode> getNodeList(int index) {
         return this.lattice.get(index);
     }
 
-    private void getMaxTransitionIdxFromPrevNodes(List<LatticeNode> prevLatticeNodes, int tagId) {
+    private void getMaxTransitionIdxFromPrevNodes(LatticeColumn prevLatticeNodes, int tagId) {
         this.getMaxTransitionInfoFromPrevNodes(prevLatticeNodes, tagId);
     }
 
-    private void getMaxTransitionInfoFromPrevNodes(List<LatticeNode> prevLatticeNodes, int tagId) {
+    //불규칙의 첫 형태소는 결합 규칙을 검사하지 않으므로 품사만으로 memo를 공유
+    private void getMaxTransitionInfoFromPrevNodes(LatticeColumn prevLatticeNodes, int tagId) {
+        LatticeColumn.PredecessorMemo predecessorMemo = this.findBestPredecessor(prevLatticeNodes, null, tagId, UNCHECKED_RULE_CLASS);
+        if (predecessorMemo.bestIdx != -1) {
+            this.prevMaxScore = predecessorMemo.bestScore;
+            this.prevMaxNode = prevLatticeNodes.get(predecessorMemo.bestIdx);
+            this.prevMaxIdx = predecessorMemo.bestIdx;
+        }
+    }
 
-        int prevMaxNodeIdx = -1;
-        for (LatticeNode prevLatticeNode : prevLatticeNodes) {
-            prevMaxNodeIdx++;
-            //불규칙인경우
-            if (prevLatticeNode.getMorphTag().getTagId() == -1) {
-                continue;
+    /**
+     * 열에서 전이 점수와 이전 node 점수의 합이 가장 큰 이전 node를 찾아 (현재 품사, 결합 규칙 class) 별 memo에 기록합니다. </p>
+     * 처음 찾을 때는 품사 묶음 별로 전이 점수를 한 번만 조회하고, 이후 열에 node가 추가된 경우에는 추가된 node만 탐색합니다.
+     * 점수가 같은 경우에는 모든 node를 순서대로 탐색했을 때와 같이 index가 가장 작은 node를 선택합니다.
+     *
+     * @param ruleClass 현재 형태소의 결합 규칙 class, {@link #UNCHECKED_RULE_CLASS}인 경우 결합 규칙을 검사하지 않음
+     * @return memo, 연결 가능한 이전 node가 없는 경우 bestIdx가 -1
+     */
+    private LatticeColumn.PredecessorMemo findBestPredecessor(LatticeColumn prevLatticeNodes, String morph, int tagId, int ruleClass) {
+        this.updateTagBuckets(prevLatticeNodes);
+        LatticeColumn.PredecessorMemo predecessorMemo = prevLatticeNodes.getPredecessorMemo(tagId << 8 | ruleClass);
+        int size = prevLatticeNodes.size();
+        if (predecessorMemo.scannedSize == size) {
+            return predecessorMemo;
+        }
+        boolean checkRule = ruleClass != UNCHECKED_RULE_CLASS;
+
+        if (predecessorMemo.scannedSize == 0) {
+            for (int bucket = 0; bucket < prevLatticeNodes.getTagBucketCount(); bucket++) {
+                LatticeColumn.TagBucket tagBucket = prevLatticeNodes.getTagBucket(bucket);
+                int prevTagId = tagBucket.getTagId();
+                //전이 확률 값 가져옴
+                double transitionScore = this.transition.getScore(prevTagId, tagId);
+                if (transitionScore == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                for (int i = 0; i < tagBucket.size(); i++) {
+                    int nodeIdx = tagBucket.getNodeIdx(i);
+                    LatticeNode prevLatticeNode = prevLatticeNodes.get(nodeIdx);
+                    //결합규칙 체크
+                    if (checkRule && !isValidCombination(this.getPrevMorph(prevLatticeNode), prevTagId, morph, tagId)) {
+                        continue;
+                    }
+                    double prevScore = transitionScore + prevLatticeNode.getScore();
+                    //품사 묶음 순서로 탐색하므로 점수가 같으면 index를 비교
+                    if (predecessorMemo.bestScore < prevScore
+                            || (predecessorMemo.bestScore == prevScore && nodeIdx < predecessorMemo.bestIdx)) {
+                        predecessorMemo.bestScore = prevScore;
+                        predecessorMemo.bestIdx = nodeIdx;
+                    }
+                }
             }
-            int prevTagId;
-            if (prevLatticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
-                prevTagId = SEJONGTAGS.BOE_ID;
-            } else {
-                prevTagId = prevLatticeNode.getMorphTag().getTagId();
+        } else {
+            //memo 이후에 추가된 node만 탐색
+            for (int nodeIdx = predecessorMemo.scannedSize; nodeIdx < size; nodeIdx++) {
+                LatticeNode prevLatticeNode = prevLatticeNodes.get(nodeIdx);
+                //불규칙인경우
+                if (prevLatticeNode.getMorphTag().getTagId() == IRREGULAR_POS_ID) {
+                    continue;
+                }
+                int prevTagId = this.getPrevTagId(prevLatticeNode);
+                double transitionScore = this.transition.getScore(prevTagId, tagId);
+                if (transitionScore == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                if (checkRule && !isValidCombination(this.getPrevMorph(prevLatticeNode), prevTagId, morph, tagId)) {
+                    continue;
+                }
+                double prevScore = transitionScore + prevLatticeNode.getScore();
+                if (predecessorMemo.bestScore < prevScore) {
+                    predecessorMemo.bestScore = prevScore;
+                    predecessorMemo.bestIdx = nodeIdx;
+                }
             }
-            //전이 확률 값 가져옴
-            Double transitionScore = this.transition.get(prevTagId, tagId);
-            if (transitionScore == null) {
+        }
+        predecessorMemo.scannedSize = size;
+        return predecessorMemo;
+    }
+
+    //열에 새로 추가된 node를 이전 node로 보았을 때의 품사 별로 묶음 (불규칙 node는 이전 node가 될 수 없음)
+    private void updateTagBuckets(LatticeColumn latticeColumn) {
+        for (int nodeIdx = latticeColumn.getBucketedSize(); nodeIdx < latticeColumn.size(); nodeIdx++) {
+            LatticeNode latticeNode = latticeColumn.get(nodeIdx);
+            if (latticeNode.getMorphTag().getTagId() == IRREGULAR_POS_ID) {
                 continue;
             }
+            latticeColumn.addToBucket(this.getPrevTagId(latticeNode), nodeIdx);
+        }
+        latticeColumn.setBucketedSize(latticeColumn.size());
+    }
 
-            double prevObservationScore = prevLatticeNode.getScore();
+    //문장 끝(EOE) node는 다음 문장의 시작(BOE)으로 취급
+    private int getPrevTagId(LatticeNode prevLatticeNode) {
+        if (prevLatticeNode.getMorphTag().getTagId() == this.eoeTagId) {
+            return this.boeTagId;
+        }
+        return prevLatticeNode.getMorphTag().getTagId();
+    }
 
-            if (this.prevMaxScore < transitionScore + prevObservationScore) {
-                this.prevMaxScore = transitionScore + prevObservationScore;
-                this.prevMaxNode = prevLatticeNode;
-                this.prevMaxIdx = prevMaxNodeIdx;
-            }
+    private String getPrevMorph(LatticeNode prevLatticeNode) {
+        if (prevLatticeNode.getMorphTag().getTagId() == this.eoeTagId) {
+            return SYMBOL.BOE;
         }
+        return prevLatticeNode.getMorphTag().getMorph();
     }
 
     public void setPosTable(PosTable posTable) {
@@ -487,7 +676,7 @@ public class Lattice {
     }
 
     public boolean appendEndNode() {
-        return this.put(this.lastIdx, this.lastIdx + 1, SYMBOL.EOE, SYMBOL.EOE, SEJONGTAGS.EOE_ID, 0);
+        return this.put(this.lastIdx, this.lastIdx + 1, SYMBOL.EOE, this.eoeTagId, 0);
     }
 
     public List<LatticeNode> findPath() {
@@ -516,34 +705,12 @@ public class Lattice {
         return shortestPathList;
     }
 
-/*
-    private void putIrregularTokens(int beginIdx, int endIdx, List<Pair<String, Integer>> morphPosIdList) {
-
-        for (int i = 1; i < morphPosIdList.size(); i++) {
-            Pair<String, Integer> morphPosId = morphPosIdList.get(i);
-            List<ScoredTag> scoredTags = this.observation.getTrieDictionary().getValue(morphPosId.getFirst());
-            if (i == morphPosIdList.size() - 1) {
-                for (ScoredTag scoredTag : scoredTags) {
-                    if (scoredTag.getTagId() == morphPosId.getSecond()) {
-                        this.put(irrIdx, endIdx, morphPosId.getFirst(), this.posTable.getPos(morphPosId.getSecond()), morphPosId.getSecond(), scoredTag.getScore());
-                        if (morphPosId.getSecond() == SEJONGTAGS.EC_ID) {
-                            this.put(irrIdx, endIdx, morphPosId.getFirst(), SYMBOL.EF, SEJONGTAGS.EF_ID, scoredTag.getScore());
-                        }
-                    }
-                }
-            } else {
-                for (ScoredTag scoredTag : scoredTags) {
-                    if (scoredTag.getTagId() == morphPosId.getSecond()) {
-                        this.put(irrIdx, irrIdx - 1, morphPosId.getFirst(), this.posTable.getPos(morphPosId.getSecond()), morphPosId.getSecond(), scoredTag.getScore());
-                    }
-                }
-            }
-            irrIdx--;
-        }
+    public void setAnalysisDictionary(AnalysisDictionary analysisDictionary) {
+        this.analysisDictionary = analysisDictionary;
     }
-*/
-    public void setObservation(Observation observation) {
-        this.observation = observation;
+
+    public AnalysisDictionary getAnalysisDictionary() {
+        return this.analysisDictionary;
     }
 
     public List<List<LatticeNode>> findNBestPath() {
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 같은 위치에서 끝나는 lattice node들의 목록입니다. </p>
+ * node를 이전 node로 보았을 때의 품사 id 별로 묶어 두고, (현재 품사, 결합 규칙 class) 별로 가장 좋은 이전 node를 기억합니다.
+ * 같은 열에서 시작하는 같은 품사의 형태소가 반복되면 이전 node를 다시 탐색하지 않으며,
+ * 열에 node가 추가된 경우에는 추가된 node만 탐색합니다. </p>
+ * 아직 이전 node로 탐색되지 않은 열은 node index가 참조되지 않았으므로 node를 병합(삭제)할 수 있습니다.
+ */
+class LatticeColumn extends ArrayList<LatticeNode> {
+
+    //품사 id 별로 묶은 node index, 품사가 처음 나타난 순서를 유지함
+    //열 하나에 나타나는 품사와 memo의 수는 적으므로 map 대신 배열을 선형 탐색함
+    private TagBucket[] tagBuckets = new TagBucket[4];
+    private int tagBucketCount;
+    //tagBuckets에 반영된 node 수
+    private int bucketedSize;
+
+    //(현재 품사, 결합 규칙 class) 별 가장 좋은 이전 node
+    private PredecessorMemo[] predecessorMemos;
+    private int predecessorMemoCount;
+
+    //이전 node로 탐색되었는지 여부, 탐색된 이후에는 node index가 참조될 수 있으므로 node를 삭제하지 않음
+    boolean isScanned() {
+        return this.bucketedSize != 0;
+    }
+
+    int getBucketedSize() {
+        return this.bucketedSize;
+    }
+
+    void setBucketedSize(int bucketedSize) {
+        this.bucketedSize = bucketedSize;
+    }
+
+    void addToBucket(int prevTagId, int nodeIdx) {
+        for (int i = 0; i < this.tagBucketCount; i++) {
+            if (this.tagBuckets[i].tagId == prevTagId) {
+                this.tagBuckets[i].add(nodeIdx);
+                return;
+            }
+        }
+        if (this.tagBucketCount == this.tagBuckets.length) {
+            this.tagBuckets = Arrays.copyOf(this.tagBuckets, this.tagBucketCount * 2);
+        }
+        TagBucket tagBucket = new TagBucket(prevTagId);
+        tagBucket.add(nodeIdx);
+        this.tagBuckets[this.tagBucketCount++] = tagBucket;
+    }
+
+    int getTagBucketCount() {
+        return this.tagBucketCount;
+    }
+
+    TagBucket getTagBucket(int i) {
+        return this.tagBuckets[i];
+    }
+
+    PredecessorMemo getPredecessorMemo(int key) {
+        if (this.predecessorMemos == null) {
+            this.predecessorMemos = new PredecessorMemo[4];
+        }
+        for (int i = 0; i < this.predecessorMemoCount; i++) {
+            if (this.predecessorMemos[i].key == key) {
+                return this.predecessorMemos[i];
+            }
+        }
+        if (this.predecessorMemoCount == this.predecessorMemos.length) {
+            this.predecessorMemos = Arrays.copyOf(this.predecessorMemos, this.predecessorMemoCount * 2);
+        }
+        PredecessorMemo predecessorMemo = new PredecessorMemo(key);
+        this.predecessorMemos[this.predecessorMemoCount++] = predecessorMemo;
+        return predecessorMemo;
+    }
+
+    static final class TagBucket {
+        private final int tagId;
+        private int[] nodeIdxs = new int[4];
+        private int size;
+
+        private TagBucket(int tagId) {
+            this.tagId = tagId;
+        }
+
+        private void add(int nodeIdx) {
+            if (this.size == this.nodeIdxs.length) {
+                this.nodeIdxs = Arrays.copyOf(this.nodeIdxs, this.size * 2);
+            }
+            this.nodeIdxs[this.size++] = nodeIdx;
+        }
+
+        int getTagId() {
+            return this.tagId;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        int getNodeIdx(int i) {
+            return this.nodeIdxs[i];
+        }
+    }
+
+    static final class PredecessorMemo {
+        private final int key;
+        //탐색한 node 수, 0인 경우 아직 탐색하지 않음
+        int scannedSize;
+        int bestIdx = -1;
+        //전이 점수 + 이전 node 점수
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        private PredecessorMemo(int key) {
+            this.key = key;
+        }
+    }
+}
@@ -35,6 +35,8 @@ public class LatticeNode {
     private double score;
     private int prevNodeIdx = -1;
     private String morph;
+    //불규칙(IRR) node인 경우 형태소에 해당하는 분석 사전의 상태 (없는 경우 -1)
+    private int dictionaryState = -1;
 
     public LatticeNode() {
     }
@@ -93,6 +95,14 @@ public class LatticeNode {
         this.prevNodeIdx = prevNodeIdx;
     }
 
+    public int getDictionaryState() {
+        return dictionaryState;
+    }
+
+    public void setDictionaryState(int dictionaryState) {
+        this.dictionaryState = dictionaryState;
+    }
+
     public String getTag() {
         return this.morphTag.getTag();
     }
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import kr.co.shineware.nlp.komoran.util.BinaryArrays;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 여러 형태소의 품사 및 점수 목록(List&lt;ScoredTag&gt;)을 primitive 배열 몇 개에 모아서 저장합니다. </p>
+ * 형태소마다 entry 번호가 부여되며, entry의 품사들은 [getBegin(entry), getEnd(entry)) 구간의 index로 접근합니다.
+ * 품사 id는 short로 저장합니다. 점수는 float으로 줄이면 동점 및 근소한 차이의 분석 결과가 바뀌므로 double로 저장하며,
+ * {@link #quantize(ScoreQuantizer)}로 short 또는 byte code로 양자화할 수 있습니다. </p>
+ * 기존 코드와의 호환을 위해 {@link #getScoredTags(int)}는 배열을 감싸는 List를 반환합니다.
+ */
+public final class PackedScoredTags {
+
+    //entry 별 시작 index (길이 = entry 수 + 1)
+    private final int[] offsets;
+    private final short[] tagIds;
+    //양자화하지 않은 경우에만 사용
+    private final double[] scores;
+    //양자화한 경우 방식에 따라 둘 중 하나만 사용
+    private final short[] fixedScores;
+    private final byte[] codebookScores;
+    private final ScoreQuantizer quantizer;
+    //품사 id 별 품사 문자열
+    private final String[] tags;
+
+    private PackedScoredTags(int[] offsets, short[] tagIds, double[] scores, String[] tags) {
+        this(offsets, tagIds, scores, null, null, null, tags);
+    }
+
+    private PackedScoredTags(int[] offsets, short[] tagIds, double[] scores, short[] fixedScores, byte[] codebookScores,
+                             ScoreQuantizer quantizer, String[] tags) {
+        this.offsets = offsets;
+        this.tagIds = tagIds;
+        this.scores = scores;
+        this.fixedScores = fixedScores;
+        this.codebookScores = codebookScores;
+        this.quantizer = quantizer;
+        this.tags = tags;
+    }
+
+    /**
+     * 모든 점수를 양자화한 복사본을 반환합니다. 품사 정보는 복사하지 않고 공유합니다.
+     */
+    public PackedScoredTags quantize(ScoreQuantizer quantizer) {
+        int scoreCount = this.getScoreCount();
+        if (quantizer.getCodebookSize() == 0) {
+            short[] quantizedScores = new short[scoreCount];
+            for (int i = 0; i < scoreCount; i++) {
+                quantizedScores[i] = (short) quantizer.encode(this.getScore(i));
+            }
+            return new PackedScoredTags(this.offsets, this.tagIds, null, quantizedScores, null, quantizer, this.tags);
+        }
+        byte[] quantizedScores = new byte[scoreCount];
+        for (int i = 0; i < scoreCount; i++) {
+            quantizedScores[i] = (byte) quantizer.encode(this.getScore(i));
+        }
+        return new PackedScoredTags(this.offsets, this.tagIds, null, null, quantizedScores, quantizer, this.tags);
+    }
+
+    /**
+     * fromTagId 품사 바로 뒤에 같은 점수의 toTagId 품사를 추가한 복사본을 반환합니다. entry 번호와 나머지 품사의 순서는 같습니다. </p>
+     * 연결 어미(EC)를 종결 어미(EF)로도 분석하는 것처럼 분석 중 매번 품사를 비교하여 추가하던 후보를 모델에서 미리 만들 때 사용합니다.
+     *
+     * @param toTag toTagId의 품사 문자열
+     */
+    public PackedScoredTags duplicateTag(int fromTagId, int toTagId, String toTag) {
+        if (toTagId < 0 || toTagId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("tag id out of range : " + toTagId);
+        }
+        int duplicateCount = 0;
+        for (short tagId : this.tagIds) {
+            if (tagId == fromTagId) {
+                duplicateCount++;
+            }
+        }
+        int[] duplicatedOffsets = new int[this.offsets.length];
+        short[] duplicatedTagIds = new short[this.tagIds.length + duplicateCount];
+        //새로운 index 별 원래 index
+        int[] sources = new int[duplicatedTagIds.length];
+        int index = 0;
+        for (int entry = 0; entry < this.size(); entry++) {
+            duplicatedOffsets[entry] = index;
+            for (int i = this.offsets[entry]; i < this.offsets[entry + 1]; i++) {
+                duplicatedTagIds[index] = this.tagIds[i];
+                sources[index++] = i;
+                if (this.tagIds[i] == fromTagId) {
+                    duplicatedTagIds[index] = (short) toTagId;
+                    sources[index++] = i;
+                }
+            }
+        }
+        duplicatedOffsets[this.size()] = index;
+
+        double[] duplicatedScores = null;
+        short[] duplicatedFixedScores = null;
+        byte[] duplicatedCodebookScores = null;
+        if (this.scores != null) {
+            duplicatedScores = new double[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                duplicatedScores[i] = this.scores[sources[i]];
+            }
+        } else if (this.fixedScores != null) {
+            duplicatedFixedScores = new short[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                duplicatedFixedScores[i] = this.fixedScores[sources[i]];
+            }
+        } else {
+            duplicatedCodebookScores = new byte[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                duplicatedCodebookScores[i] = this.codebookScores[sources[i]];
+            }
+        }
+
+        String[] duplicatedTags = this.tags;
+        if (toTagId >= duplicatedTags.length || duplicatedTags[toTagId] == null) {
+            duplicatedTags = Arrays.copyOf(duplicatedTags, Math.max(duplicatedTags.length, toTagId + 1));
+            duplicatedTags[toTagId] = toTag;
+        }
+        return new PackedScoredTags(duplicatedOffsets, duplicatedTagIds, duplicatedScores, duplicatedFixedScores,
+                duplicatedCodebookScores, this.quantizer, duplicatedTags);
+    }
+
+    /**
+     * 점수가 양자화된 경우 사용된 quantizer를 반환합니다.
+     *
+     * @return quantizer, 양자화되지 않은 경우 null
+     */
+    public ScoreQuantizer getQuantizer() {
+        return this.quantizer;
+    }
+
+    /**
+     * entry의 수를 반환합니다.
+     */
+    public int size() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * 모든 entry의 품사 수의 합을 반환합니다.
+     */
+    public int getScoreCount() {
+        return this.tagIds.length;
+    }
+
+    public int getBegin(int entry) {
+        return this.offsets[entry];
+    }
+
+    public int getEnd(int entry) {
+        return this.offsets[entry + 1];
+    }
+
+    public int getTagId(int index) {
+        return this.tagIds[index];
+    }
+
+    public String getTag(int index) {
+        return this.tags[this.tagIds[index]];
+    }
+
+    public double getScore(int index) {
+        if (this.scores != null) {
+            return this.scores[index];
+        }
+        if (this.fixedScores != null) {
+            return this.quantizer.decode(this.fixedScores[index]);
+        }
+        return this.quantizer.decode(this.codebookScores[index] & 0xFF);
+    }
+
+    /**
+     * entry의 품사 및 점수 목록을 List 형태로 반환합니다. 반환된 List는 수정할 수 없으며, 원소는 조회할 때마다 새로 생성됩니다.
+     */
+    public List<ScoredTag> getScoredTags(final int entry) {
+        return new AbstractList<ScoredTag>() {
+            @Override
+            public ScoredTag get(int i) {
+                if (i < 0 || i >= this.size()) {
+                    throw new IndexOutOfBoundsException("index : " + i + ", size : " + this.size());
+                }
+                int index = offsets[entry] + i;
+                return new ScoredTag(getTag(index), getTagId(index), getScore(index));
+            }
+
+            @Override
+            public int size() {
+                return offsets[entry + 1] - offsets[entry];
+            }
+        };
+    }
+
+    /**
+     * 배열들을 그대로 기록합니다. 양자화된 경우에는 기록할 수 없습니다.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        if (this.quantizer != null) {
+            throw new IllegalStateException("quantized scores cannot be written");
+        }
+        BinaryArrays.writeInts(out, this.offsets);
+        BinaryArrays.writeShorts(out, this.tagIds);
+        BinaryArrays.writeDoubles(out, this.scores);
+        BinaryArrays.writeStrings(out, this.tags);
+    }
+
+    /**
+     * {@link #write(DataOutputStream)}로 기록된 품사 및 점수 목록을 읽습니다.
+     */
+    public static PackedScoredTags read(ByteBuffer buffer) {
+        int[] offsets = BinaryArrays.readInts(buffer);
+        short[] tagIds = BinaryArrays.readShorts(buffer);
+        double[] scores = BinaryArrays.readDoubles(buffer);
+        String[] tags = BinaryArrays.readStrings(buffer);
+        if (offsets.length == 0 || offsets[offsets.length - 1] != tagIds.length || scores.length != tagIds.length) {
+            throw new IllegalArgumentException("corrupted scored tags");
+        }
+        return new PackedScoredTags(offsets, tagIds, scores, tags);
+    }
+
+    public static final class Builder {
+
+        private int[] offsets = new int[16];
+        private short[] tagIds = new short[16];
+        private double[] scores = new double[16];
+        private String[] tags = new String[0];
+        private int entryCount;
+        private int tagCount;
+
+        /**
+         * 품사 및 점수 목록을 새로운 entry로 추가합니다.
+         *
+         * @return 추가된 entry 번호
+         */
+        public int add(List<ScoredTag> scoredTags) {
+            int required = this.tagCount + scoredTags.size();
+            if (required > this.tagIds.length) {
+                int capacity = Math.max(required, this.tagIds.length * 2);
+                this.tagIds = Arrays.copyOf(this.tagIds, capacity);
+                this.scores = Arrays.copyOf(this.scores, capacity);
+            }
+            for (ScoredTag scoredTag : scoredTags) {
+                int tagId = scoredTag.getTagId();
+                if (tagId < 0 || tagId > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("tag id out of range : " + tagId);
+                }
+                if (tagId >= this.tags.length) {
+                    this.tags = Arrays.copyOf(this.tags, tagId + 1);
+                }
+                if (this.tags[tagId] == null) {
+                    this.tags[tagId] = scoredTag.getTag();
+                }
+                this.tagIds[this.tagCount] = (short) tagId;
+                this.scores[this.tagCount] = scoredTag.getScore();
+                this.tagCount++;
+            }
+            if (this.entryCount + 2 > this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+            }
+            this.entryCount++;
+            this.offsets[this.entryCount] = this.tagCount;
+            return this.entryCount - 1;
+        }
+
+        public PackedScoredTags build() {
+            return new PackedScoredTags(Arrays.copyOf(this.offsets, this.entryCount + 1),
+                    Arrays.copyOf(this.tagIds, this.tagCount), Arrays.copyOf(this.scores, this.tagCount), this.tags.clone());
+        }
+    }
+}
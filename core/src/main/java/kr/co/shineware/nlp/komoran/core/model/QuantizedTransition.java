@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.modeler.model.Transition;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.BitSet;
+
+/**
+ * 전이 점수를 {@link ScoreQuantizer}의 code로 저장하는 전이 행렬입니다. </p>
+ * 품사 쌍 마다 FIXED_16인 경우 short, CODEBOOK_8인 경우 byte 하나만 사용하므로 double 행렬보다 4 ~ 8배 작습니다.
+ * 점수는 조회할 때 복원되며, 양자화된 모델은 변경되지 않으므로 put과 load는 지원하지 않습니다.
+ */
+public final class QuantizedTransition extends Transition {
+
+    private final int size;
+    //전이가 가능한 품사 쌍 (prevId * size + curId)
+    private final BitSet hasScores;
+    //방식에 따라 둘 중 하나만 사용
+    private final short[] fixedScores;
+    private final byte[] codebookScores;
+    private final ScoreQuantizer quantizer;
+
+    public QuantizedTransition(Transition transition, ScoreQuantizer quantizer) {
+        this.size = transition.size();
+        this.hasScores = new BitSet(this.size * this.size);
+        this.quantizer = quantizer;
+        if (quantizer.getCodebookSize() == 0) {
+            this.fixedScores = new short[this.size * this.size];
+            this.codebookScores = null;
+        } else {
+            this.fixedScores = null;
+            this.codebookScores = new byte[this.size * this.size];
+        }
+
+        for (int prevId = 0; prevId < this.size; prevId++) {
+            for (int curId = 0; curId < this.size; curId++) {
+                double transitionScore = transition.getScore(prevId, curId);
+                if (transitionScore == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                int index = prevId * this.size + curId;
+                this.hasScores.set(index);
+                if (this.fixedScores != null) {
+                    this.fixedScores[index] = (short) quantizer.encode(transitionScore);
+                } else {
+                    this.codebookScores[index] = (byte) quantizer.encode(transitionScore);
+                }
+            }
+        }
+    }
+
+    public ScoreQuantizer getQuantizer() {
+        return this.quantizer;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Double get(int prevId, int curId) {
+        double transitionScore = this.getScore(prevId, curId);
+        return transitionScore == Double.NEGATIVE_INFINITY ? null : transitionScore;
+    }
+
+    @Override
+    public double getScore(int prevId, int curId) {
+        int index = prevId * this.size + curId;
+        if (!this.hasScores.get(index)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (this.fixedScores != null) {
+            return this.quantizer.decode(this.fixedScores[index]);
+        }
+        return this.quantizer.decode(this.codebookScores[index] & 0xFF);
+    }
+
+    @Override
+    public void put(int prevId, int curId, double transitionScore) {
+        throw new IllegalStateException("quantized transition cannot be modified");
+    }
+
+    /**
+     * 복원된 점수를 기존 transition.model 형식으로 저장합니다.
+     */
+    @Override
+    public void save(String filename) {
+        Transition transition = new Transition(this.size);
+        for (int prevId = 0; prevId < this.size; prevId++) {
+            for (int curId = 0; curId < this.size; curId++) {
+                transition.put(prevId, curId, this.getScore(prevId, curId));
+            }
+        }
+        transition.save(filename);
+    }
+
+    @Override
+    public void load(String filename) {
+        throw new IllegalStateException("quantized transition cannot be loaded");
+    }
+
+    @Override
+    public void load(File file) {
+        throw new IllegalStateException("quantized transition cannot be loaded");
+    }
+
+    @Override
+    public void load(InputStream inputStream) {
+        throw new IllegalStateException("quantized transition cannot be loaded");
+    }
+}
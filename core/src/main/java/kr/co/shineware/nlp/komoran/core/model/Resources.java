@@ -17,101 +17,355 @@
  *******************************************************************************/
 package kr.co.shineware.nlp.komoran.core.model;
 
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
 import kr.co.shineware.nlp.komoran.constant.FILENAME;
+import kr.co.shineware.nlp.komoran.constant.SCORE_QUANTIZATION;
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import kr.co.shineware.nlp.komoran.modeler.model.IrregularNode;
 import kr.co.shineware.nlp.komoran.modeler.model.IrregularTrie;
 import kr.co.shineware.nlp.komoran.modeler.model.Observation;
 import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.modeler.model.SejongTagIdTable;
 import kr.co.shineware.nlp.komoran.modeler.model.Transition;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * 분석에 사용되는 모델(pos.table, 전이 행렬, 관측 사전과 불규칙 사전)입니다. </p>
+ * {@link #load(String)}나 {@link #load(DEFAULT_MODEL)}로 로딩된 모델은 여러 Komoran 객체가 공유하므로 변경할 수 없으며,
+ * 사전을 바꾸려면 {@link #withObservation(Observation)}, {@link #withIrrTrie(IrregularTrie)}로 새로운 모델을 만들어 교체합니다.
+ * <pre>
+ *     Resources resources = komoran.getResources().withObservation(observation);
+ *     komoran.setSnapshot(komoran.getSnapshot().toBuilder().resources(resources).build());
+ * </pre>
+ */
 public class Resources {
 	private Transition transition;
-	private Observation observation;
 	private PosTable table;
+	//관측 사전과 불규칙 사전을 합친 분석용 automaton
+	private volatile AnalysisDictionary analysisDictionary;
+	//getObservation(), getIrrTrie() 호출 시에 analysisDictionary로부터 생성
+	private Observation observation;
 	private IrregularTrie irrTrie;
+	//로딩이 끝난 모델은 공유되므로 변경하지 않음
+	private volatile boolean loaded;
 
 	public Transition getTransition() {
 		return transition;
 	}
 	public void setTransition(Transition transition) {
+		this.checkModifiable();
 		this.transition = transition;
 	}
-	public Observation getObservation() {
+	/**
+	 * 분석에 사용되는 관측 사전과 불규칙 사전이 합쳐진 automaton을 반환합니다.
+	 */
+	public AnalysisDictionary getAnalysisDictionary() {
+		return analysisDictionary;
+	}
+	public synchronized void setAnalysisDictionary(AnalysisDictionary analysisDictionary) {
+		this.checkModifiable();
+		this.analysisDictionary = analysisDictionary;
+		this.observation = null;
+		this.irrTrie = null;
+	}
+	/**
+	 * 관측 사전을 AhoCorasickDictionary 형태로 반환합니다. </p>
+	 * 분석에는 {@link #getAnalysisDictionary()}가 사용되므로, 반환된 객체를 수정한 경우에는 {@link #setObservation(Observation)}으로 다시 설정해야 분석에 반영됩니다. 수정은 {@link Observation#put(String, String, int, double)} 등 Observation의 메소드로 해야 하며, getTrieDictionary()에 직접 추가한 key는 반영되지 않습니다.
+	 */
+	public synchronized Observation getObservation() {
+		if (observation == null) {
+			final Observation legacyObservation = new Observation();
+			analysisDictionary.forEachObservation(new AnalysisDictionary.EntryVisitor<List<ScoredTag>>() {
+				@Override
+				public void visit(String key, List<ScoredTag> value) {
+					legacyObservation.put(key, new ArrayList<>(value));
+				}
+			});
+			legacyObservation.getTrieDictionary().buildFailLink();
+			observation = legacyObservation;
+		}
 		return observation;
 	}
-	public void setObservation(Observation observation) {
+	public synchronized void setObservation(Observation observation) {
+		this.setAnalysisDictionary(this.buildWithObservation(observation));
 		this.observation = observation;
 	}
+	/**
+	 * 관측 사전을 바꾼 새로운 모델을 반환합니다. 이 객체는 변경되지 않으며, pos.table과 전이 행렬, 불규칙 사전은 공유됩니다.
+	 *
+	 * @param observation {@link #getObservation()}으로 얻어와 수정한 관측 사전
+	 * @return 관측 사전이 바뀐 모델
+	 */
+	public Resources withObservation(Observation observation) {
+		Resources resources = this.copyWith(this.buildWithObservation(observation));
+		resources.observation = observation;
+		return resources;
+	}
+	private AnalysisDictionary buildWithObservation(Observation observation) {
+		final AnalysisDictionary.Builder builder = new AnalysisDictionary.Builder();
+		analysisDictionary.forEachIrregular(new AnalysisDictionary.EntryVisitor<List<IrregularNode>>() {
+			@Override
+			public void visit(String key, List<IrregularNode> value) {
+				builder.putIrregular(key, value);
+			}
+		});
+		for (String key : observation.getKeySet()) {
+			List<ScoredTag> scoredTagList = observation.getTrieDictionary().getValue(key);
+			if (scoredTagList != null) {
+				builder.putObservation(key, scoredTagList);
+			}
+		}
+		return builder.build();
+	}
 	public PosTable getTable() {
 		return table;
 	}
 	public void setTable(PosTable table) {
+		this.checkModifiable();
 		this.table = table;
 	}
-	public IrregularTrie getIrrTrie() {
+	/**
+	 * 이 모델의 pos.table 기준 세종 품사 id 테이블을 반환합니다.
+	 */
+	public SejongTagIdTable getSejongTagIdTable() {
+		return table.getSejongTagIdTable();
+	}
+	/**
+	 * 불규칙 사전을 AhoCorasickDictionary 형태로 반환합니다. </p>
+	 * 분석에는 {@link #getAnalysisDictionary()}가 사용되므로, 반환된 객체를 수정한 경우에는 {@link #setIrrTrie(IrregularTrie)}로 다시 설정해야 분석에 반영됩니다. 수정은 {@link IrregularTrie#put(String, IrregularNode)} 등 IrregularTrie의 메소드로 해야 하며, getTrieDictionary()에 직접 추가한 key는 반영되지 않습니다.
+	 */
+	public synchronized IrregularTrie getIrrTrie() {
+		if (irrTrie == null) {
+			final IrregularTrie legacyIrrTrie = new IrregularTrie();
+			analysisDictionary.forEachIrregular(new AnalysisDictionary.EntryVisitor<List<IrregularNode>>() {
+				@Override
+				public void visit(String key, List<IrregularNode> value) {
+					legacyIrrTrie.put(key, value);
+				}
+			});
+			legacyIrrTrie.getTrieDictionary().buildFailLink();
+			irrTrie = legacyIrrTrie;
+		}
 		return irrTrie;
 	}
-	public void setIrrTrie(IrregularTrie irrTrie) {
+	public synchronized void setIrrTrie(IrregularTrie irrTrie) {
+		this.setAnalysisDictionary(this.buildWithIrrTrie(irrTrie));
 		this.irrTrie = irrTrie;
 	}
-	
+	/**
+	 * 불규칙 사전을 바꾼 새로운 모델을 반환합니다. 이 객체는 변경되지 않으며, pos.table과 전이 행렬, 관측 사전은 공유됩니다.
+	 *
+	 * @param irrTrie {@link #getIrrTrie()}로 얻어와 수정한 불규칙 사전
+	 * @return 불규칙 사전이 바뀐 모델
+	 */
+	public Resources withIrrTrie(IrregularTrie irrTrie) {
+		Resources resources = this.copyWith(this.buildWithIrrTrie(irrTrie));
+		resources.irrTrie = irrTrie;
+		return resources;
+	}
+	private AnalysisDictionary buildWithIrrTrie(IrregularTrie irrTrie) {
+		final AnalysisDictionary.Builder builder = new AnalysisDictionary.Builder();
+		analysisDictionary.forEachObservation(new AnalysisDictionary.EntryVisitor<List<ScoredTag>>() {
+			@Override
+			public void visit(String key, List<ScoredTag> value) {
+				builder.putObservation(key, value);
+			}
+		});
+		for (String key : irrTrie.getKeySet()) {
+			List<IrregularNode> irrNodeList = irrTrie.getTrieDictionary().getValue(key);
+			if (irrNodeList != null) {
+				builder.putIrregular(key, irrNodeList);
+			}
+		}
+		return builder.build();
+	}
+
+	//pos.table과 전이 행렬을 공유하고 automaton만 바꾼 로딩된 모델을 생성
+	private Resources copyWith(AnalysisDictionary analysisDictionary) {
+		Resources resources = new Resources();
+		resources.table = this.table;
+		resources.transition = this.transition;
+		resources.analysisDictionary = analysisDictionary;
+		resources.loaded = true;
+		return resources;
+	}
+
+	/**
+	 * 로딩이 끝나 변경할 수 없는 모델인지 확인합니다.
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	private void checkModifiable() {
+		if (this.loaded) {
+			throw new IllegalStateException("loaded resources are shared and cannot be modified; use withObservation() or withIrrTrie()");
+		}
+	}
+
+	/**
+	 * 관측 점수와 전이 점수를 양자화한 모델을 반환합니다. 이 객체는 변경되지 않으며, pos.table은 공유됩니다. </p>
+	 * 양자화된 점수는 고정 소수점 값이므로 decoder의 점수 비교는 정수 연산과 같은 결과를 냅니다.
+	 * <pre>
+	 *     Komoran komoran = new Komoran(resources.quantize(SCORE_QUANTIZATION.FIXED_16));
+	 * </pre>
+	 *
+	 * @param quantization 양자화 방식
+	 * @return 양자화된 모델
+	 */
+	public Resources quantize(SCORE_QUANTIZATION quantization) {
+		AnalysisDictionary dictionary = this.analysisDictionary;
+		PackedScoredTags scoredTags = dictionary.getPackedScoredTags();
+		int tagSize = transition.size();
+
+		double[] scores = new double[scoredTags.getScoreCount() + tagSize * tagSize];
+		int scoreCount = 0;
+		for (int i = 0; i < scoredTags.getScoreCount(); i++) {
+			scores[scoreCount++] = scoredTags.getScore(i);
+		}
+		for (int prevId = 0; prevId < tagSize; prevId++) {
+			for (int curId = 0; curId < tagSize; curId++) {
+				double transitionScore = transition.getScore(prevId, curId);
+				if (transitionScore != Double.NEGATIVE_INFINITY) {
+					scores[scoreCount++] = transitionScore;
+				}
+			}
+		}
+		ScoreQuantizer quantizer = ScoreQuantizer.create(quantization, Arrays.copyOf(scores, scoreCount));
+
+		Resources quantized = new Resources();
+		quantized.setTable(this.table);
+		quantized.setTransition(new QuantizedTransition(transition, quantizer));
+		quantized.setAnalysisDictionary(dictionary.quantize(quantizer));
+		quantized.loaded = true;
+		return quantized;
+	}
+
+	/**
+	 * 양자화된 모델인 경우 사용된 quantizer를 반환합니다.
+	 *
+	 * @return quantizer, 양자화되지 않은 모델인 경우 null
+	 */
+	public ScoreQuantizer getScoreQuantizer() {
+		return analysisDictionary.getPackedScoredTags().getQuantizer();
+	}
+
 	public void init(){
+		this.checkModifiable();
 		this.table = null;
-		this.observation = null;
 		this.transition = null;
-		this.irrTrie = null;
 
 		this.table = new PosTable();
-		this.observation = new Observation();
 		this.transition = new Transition();
-		this.irrTrie = new IrregularTrie();
+		this.setAnalysisDictionary(new AnalysisDictionary.Builder().build());
 	}
 	
 	public void load(String path) {
 		this.init();
 		this.table.load(path+File.separator+FILENAME.POS_TABLE);
-		this.observation.load(path+File.separator+FILENAME.OBSERVATION);
 		this.transition.load(path+File.separator+FILENAME.TRANSITION);
-		this.irrTrie.load(path+File.separator+FILENAME.IRREGULAR_MODEL);
-		
-		this.observation.getTrieDictionary().buildFailLink();
-		this.irrTrie.getTrieDictionary().buildFailLink();
+		try (InputStream observationStream = new FileInputStream(path+File.separator+FILENAME.OBSERVATION);
+			 InputStream irregularStream = new FileInputStream(path+File.separator+FILENAME.IRREGULAR_MODEL)) {
+			this.setAnalysisDictionary(new AnalysisDictionary.Builder()
+					.loadObservation(observationStream)
+					.loadIrregular(irregularStream)
+					.build());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		this.loaded = true;
+	}
+
+	/**
+	 * Komoran에서 기본으로 제공되는 모델을 classpath에서 로딩합니다.
+	 *
+	 * @param modelType 기본으로 제공되는 모델의 타입
+	 */
+	public void load(DEFAULT_MODEL modelType) {
+		this.init();
+		String modelPath;
+		if (modelType == DEFAULT_MODEL.EXPERIMENT) {
+			modelPath = FILENAME.EXPERIMENT_MODEL;
+		} else {
+			modelPath = FILENAME.STABLE_MODEL;
+		}
+
+		String delimiter = "/";
+		this.loadPosTable(this.getResourceStream(modelPath + delimiter + FILENAME.POS_TABLE));
+		this.loadTransition(this.getResourceStream(modelPath + delimiter + FILENAME.TRANSITION));
+		try {
+			//관측 사전과 불규칙 사전을 모두 읽은 뒤 한 번에 automaton으로 만듦
+			this.setAnalysisDictionary(new AnalysisDictionary.Builder()
+					.loadIrregular(this.getResourceStream(modelPath + delimiter + FILENAME.IRREGULAR_MODEL))
+					.loadObservation(this.getResourceStream(modelPath + delimiter + FILENAME.OBSERVATION))
+					.build());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		this.loaded = true;
+	}
+
+	private InputStream getResourceStream(String path) {
+		return getClass().getClassLoader().getResourceAsStream(path);
 	}
 
 	public void loadPosTable(File file){
+		this.checkModifiable();
 		this.table.load(file);
 	}
 	public void loadPosTable(InputStream file){
+		this.checkModifiable();
 		this.table.load(file);
 	}
 
 	public void loadObservation(File file){
-		this.observation.load(file);
-		this.observation.getTrieDictionary().buildFailLink();
+		try (InputStream inputStream = new FileInputStream(file)) {
+			this.loadObservation(inputStream);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
-	public void loadObservation(InputStream inputStream){
-		this.observation.load(inputStream);
-		this.observation.getTrieDictionary().buildFailLink();
+	public synchronized void loadObservation(InputStream inputStream){
+		this.checkModifiable();
+		try {
+			this.setAnalysisDictionary(analysisDictionary.toBuilder().loadObservation(inputStream).build());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
 	public void loadTransition(File file){
+		this.checkModifiable();
 		this.transition.load(file);
 	}
 
 	public void loadTransition(InputStream inputStream){
+		this.checkModifiable();
 		this.transition.load(inputStream);
 	}
 
 	public void loadIrregular(File file){
-		this.irrTrie.load(file);
-		this.irrTrie.getTrieDictionary().buildFailLink();
+		try (InputStream inputStream = new FileInputStream(file)) {
+			this.loadIrregular(inputStream);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
-	public void loadIrregular(InputStream inputStream){
-		this.irrTrie.load(inputStream);
-		this.irrTrie.getTrieDictionary().buildFailLink();
+	public synchronized void loadIrregular(InputStream inputStream){
+		this.checkModifiable();
+		try {
+			this.setAnalysisDictionary(analysisDictionary.toBuilder().loadIrregular(inputStream).build());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 }
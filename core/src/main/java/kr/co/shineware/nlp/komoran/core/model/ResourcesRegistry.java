@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 모델(Resources)을 여러 Komoran 객체가 공유할 수 있도록 관리하는 registry입니다. </p>
+ * 같은 모델은 한 번만 로딩되며, acquire/release 횟수로 참조를 세어 마지막 참조가 해제되면 registry에서 제거합니다.
+ * <pre>
+ *     Resources resources = ResourcesRegistry.getShared().acquire("models_full");
+ *     Komoran komoran = new Komoran(resources);
+ *     ...
+ *     ResourcesRegistry.getShared().release(resources);
+ * </pre>
+ */
+public class ResourcesRegistry {
+
+    private static final ResourcesRegistry SHARED = new ResourcesRegistry();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * JVM 전체에서 공유되는 registry를 반환합니다.
+     */
+    public static ResourcesRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * modelPath 디렉토리의 모델을 얻어오고 참조 횟수를 증가시킵니다. 로딩된 적이 없는 경우 로딩합니다.
+     *
+     * @param modelPath 모델 파일들이 포함되어 있는 디렉토리 경로
+     * @return 공유되는 모델
+     */
+    public Resources acquire(String modelPath) {
+        return this.acquire("path:" + new File(modelPath).getAbsolutePath(), modelPath, null);
+    }
+
+    /**
+     * Komoran에서 기본으로 제공되는 모델을 얻어오고 참조 횟수를 증가시킵니다.
+     *
+     * @param modelType 기본으로 제공되는 모델의 타입
+     * @return 공유되는 모델
+     */
+    public Resources acquire(DEFAULT_MODEL modelType) {
+        return this.acquire("default:" + modelType.name(), null, modelType);
+    }
+
+    private Resources acquire(String key, String modelPath, DEFAULT_MODEL modelType) {
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key);
+            if (entry == null) {
+                entry = new Entry(key);
+                this.entries.put(key, entry);
+            }
+            entry.referenceCount++;
+        }
+        //다른 모델의 acquire를 막지 않도록 로딩은 entry 단위로 동기화
+        synchronized (entry) {
+            if (entry.resources == null) {
+                try {
+                    entry.resources = this.load(modelPath, modelType);
+                } finally {
+                    //로딩에 실패하면 증가시킨 참조 횟수를 되돌려 빈 entry가 남지 않도록 함
+                    if (entry.resources == null) {
+                        this.discard(entry);
+                    }
+                }
+            }
+            return entry.resources;
+        }
+    }
+
+    //로딩 실패를 테스트할 수 있도록 분리
+    Resources load(String modelPath, DEFAULT_MODEL modelType) {
+        Resources resources = new Resources();
+        if (modelType != null) {
+            resources.load(modelType);
+        } else {
+            resources.load(modelPath);
+        }
+        return resources;
+    }
+
+    private synchronized void discard(Entry entry) {
+        entry.referenceCount--;
+        if (entry.referenceCount <= 0 && this.entries.get(entry.key) == entry) {
+            this.entries.remove(entry.key);
+        }
+    }
+
+    /**
+     * acquire로 얻어온 모델의 참조 횟수를 감소시킵니다. 참조 횟수가 0이 되면 registry에서 제거됩니다.
+     *
+     * @param resources acquire로 얻어온 모델
+     * @return 남은 참조 횟수, registry에 없는 모델인 경우 -1
+     */
+    public synchronized int release(Resources resources) {
+        for (Entry entry : this.entries.values()) {
+            if (entry.resources == resources) {
+                entry.referenceCount--;
+                if (entry.referenceCount <= 0) {
+                    this.entries.remove(entry.key);
+                    return 0;
+                }
+                return entry.referenceCount;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 모델의 현재 참조 횟수를 반환합니다.
+     *
+     * @param resources acquire로 얻어온 모델
+     * @return 참조 횟수, registry에 없는 모델인 경우 0
+     */
+    public synchronized int getReferenceCount(Resources resources) {
+        for (Entry entry : this.entries.values()) {
+            if (entry.resources == resources) {
+                return entry.referenceCount;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * registry에 등록되어 있는 모델의 수를 반환합니다.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static class Entry {
+        private final String key;
+        private int referenceCount;
+        private volatile Resources resources;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+}
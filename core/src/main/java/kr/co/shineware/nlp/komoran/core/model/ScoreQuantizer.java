@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.SCORE_QUANTIZATION;
+
+import java.util.Arrays;
+
+/**
+ * log10 확률 점수를 정수 code로 변환(encode)하고 다시 점수로 복원(decode)합니다. </p>
+ * 모든 점수는 2<sup>-fractionBits</sup> 간격의 고정 소수점 값으로 맞춰지므로,
+ * 복원된 점수들의 합은 double로 계산하더라도 오차 없이 정수 합과 같은 결과가 됩니다.
+ * 따라서 동점 처리를 포함한 decoder의 비교 결과는 정수 점수로 계산한 것과 같습니다.
+ */
+public final class ScoreQuantizer {
+
+    private static final int CODEBOOK_SIZE = 256;
+    private static final int MAX_FRACTION_BITS = 30;
+
+    private final SCORE_QUANTIZATION type;
+    private final int fractionBits;
+    private final double step;
+    //오름차순으로 정렬된 대표 값 (CODEBOOK_8인 경우에만 사용)
+    private final double[] codebook;
+
+    private ScoreQuantizer(SCORE_QUANTIZATION type, int fractionBits, double[] codebook) {
+        this.type = type;
+        this.fractionBits = fractionBits;
+        this.step = Math.scalb(1.0, -fractionBits);
+        this.codebook = codebook;
+    }
+
+    /**
+     * 점수 분포를 보고 양자화 방식에 맞는 quantizer를 생성합니다.
+     *
+     * @param type   양자화 방식
+     * @param scores 양자화할 점수들 (무한대 값은 포함하지 않음)
+     */
+    public static ScoreQuantizer create(SCORE_QUANTIZATION type, double[] scores) {
+        double maxAbsScore = 0.0;
+        for (double score : scores) {
+            if (Double.isInfinite(score) || Double.isNaN(score)) {
+                throw new IllegalArgumentException("score must be finite : " + score);
+            }
+            maxAbsScore = Math.max(maxAbsScore, Math.abs(score));
+        }
+        //가장 큰 점수가 short 범위에 들어가는 가장 촘촘한 간격을 선택
+        int fractionBits = MAX_FRACTION_BITS;
+        while (fractionBits > 0 && Math.round(Math.scalb(maxAbsScore, fractionBits)) > Short.MAX_VALUE) {
+            fractionBits--;
+        }
+
+        if (type == SCORE_QUANTIZATION.FIXED_16) {
+            return new ScoreQuantizer(type, fractionBits, null);
+        }
+        return new ScoreQuantizer(type, fractionBits, buildCodebook(scores, fractionBits));
+    }
+
+    //서로 다른 점수 값들을 같은 개수씩 256개 구간으로 나누고 구간의 평균을 대표 값으로 사용
+    //(같은 점수가 많이 반복되므로 중복을 포함해서 나누면 대표 값이 한쪽에 몰림)
+    private static double[] buildCodebook(double[] scores, int fractionBits) {
+        double[] sortedScores = scores.clone();
+        Arrays.sort(sortedScores);
+        int distinctCount = 0;
+        for (int i = 0; i < sortedScores.length; i++) {
+            if (distinctCount == 0 || sortedScores[distinctCount - 1] != sortedScores[i]) {
+                sortedScores[distinctCount++] = sortedScores[i];
+            }
+        }
+        sortedScores = Arrays.copyOf(sortedScores, distinctCount);
+
+        double[] codebook = new double[Math.max(1, Math.min(CODEBOOK_SIZE, sortedScores.length))];
+        int codebookSize = 0;
+        for (int bucket = 0; bucket < codebook.length && sortedScores.length != 0; bucket++) {
+            int begin = (int) ((long) sortedScores.length * bucket / codebook.length);
+            int end = (int) ((long) sortedScores.length * (bucket + 1) / codebook.length);
+            double sum = 0.0;
+            for (int i = begin; i < end; i++) {
+                sum += sortedScores[i];
+            }
+            double centroid = Math.round(Math.scalb(sum / (end - begin), fractionBits)) * Math.scalb(1.0, -fractionBits);
+            if (codebookSize == 0 || codebook[codebookSize - 1] != centroid) {
+                codebook[codebookSize++] = centroid;
+            }
+        }
+        return Arrays.copyOf(codebook, codebookSize);
+    }
+
+    /**
+     * 점수를 code로 변환합니다.
+     *
+     * @return FIXED_16인 경우 short 범위의 고정 소수점 값, CODEBOOK_8인 경우 0 ~ 255 사이의 index
+     */
+    public int encode(double score) {
+        if (this.codebook == null) {
+            long code = Math.round(Math.scalb(score, this.fractionBits));
+            return (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, code));
+        }
+        int index = Arrays.binarySearch(this.codebook, score);
+        if (index >= 0) {
+            return index;
+        }
+        int upper = -index - 1;
+        if (upper == 0) {
+            return 0;
+        }
+        if (upper == this.codebook.length) {
+            return this.codebook.length - 1;
+        }
+        return score - this.codebook[upper - 1] <= this.codebook[upper] - score ? upper - 1 : upper;
+    }
+
+    /**
+     * code를 점수로 복원합니다.
+     */
+    public double decode(int code) {
+        if (this.codebook == null) {
+            return code * this.step;
+        }
+        return this.codebook[code];
+    }
+
+    /**
+     * 점수를 양자화된 값으로 변환합니다.
+     */
+    public double quantize(double score) {
+        return this.decode(this.encode(score));
+    }
+
+    public SCORE_QUANTIZATION getType() {
+        return this.type;
+    }
+
+    /**
+     * 고정 소수점의 간격 (2<sup>-fractionBits</sup>)을 반환합니다.
+     */
+    public double getStep() {
+        return this.step;
+    }
+
+    public int getFractionBits() {
+        return this.fractionBits;
+    }
+
+    /**
+     * 대표 값의 수를 반환합니다. FIXED_16인 경우 0을 반환합니다.
+     */
+    public int getCodebookSize() {
+        return this.codebook == null ? 0 : this.codebook.length;
+    }
+}
@@ -1,5 +1,6 @@
 package kr.co.shineware.nlp.komoran.core.model;
 
+import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
 import kr.co.shineware.nlp.komoran.constant.SYMBOL;
 import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
 
@@ -44,6 +45,13 @@ public class TagUtil {
         return mask;
     }
 
+    /**
+     * 이 모델의 pos.table 기준 세종 품사 id를 반환합니다.
+     */
+    public int getId(SEJONGTAGS tag) {
+        return this.posTable.getSejongTagIdTable().getId(tag);
+    }
+
     public int getId(String tagName) {
         return this.posTable.getId(tagName);
     }
@@ -0,0 +1,493 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrieBuilder;
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 사용자 사전의 불변 snapshot입니다. </p>
+ * 파일에서 로드된 base trie와, 이후 추가/삭제된 형태소만 담는 작은 delta trie로 구성됩니다.
+ * delta에 있는 형태소는 base의 내용을 대체하며, 품사 목록이 비어 있는 경우 삭제된 형태소를 의미합니다. </p>
+ * {@link #add(String, String)}, {@link #remove(String, String)} 등은 delta만 다시 만든 새로운 snapshot을 반환하므로
+ * 분석 중인 문장은 분석을 시작할 때의 snapshot을 끝까지 사용합니다.
+ * delta가 커지면 {@link #compact()}로 base에 합칠 수 있습니다.
+ */
+public final class UserDictionary {
+
+    //사용자 사전에 품사가 없는 경우에는 고유 명사로 태깅
+    public static final String DEFAULT_POS = "NNP";
+    private static final double USER_DIC_SCORE = 0.0;
+
+    //컴파일된 사용자 사전 파일의 header ("KUDC")
+    private static final int COMPILED_MAGIC = 0x4B554443;
+    private static final int COMPILED_VERSION = 1;
+
+    private final PosTable posTable;
+
+    private final CompiledTrie baseTrie;
+    private final PackedScoredTags baseScoredTags;
+
+    //key = 자소 단위 형태소, value = 변경된 품사 목록 (비어 있는 경우 삭제)
+    private final Map<JasoSequence, List<ScoredTag>> deltaEntries;
+    private final CompiledTrie deltaTrie;
+    private final List<List<ScoredTag>> deltaScoredTags;
+    //띄어쓰기가 포함된 형태소의 최대 자소 길이, 처음 요청될 때 계산됨 (계산 전에는 -1)
+    private volatile int maxSpacedKeyLength = -1;
+
+    private UserDictionary(PosTable posTable, CompiledTrie baseTrie, PackedScoredTags baseScoredTags,
+                           Map<JasoSequence, List<ScoredTag>> deltaEntries) {
+        this.posTable = posTable;
+        this.baseTrie = baseTrie;
+        this.baseScoredTags = baseScoredTags;
+        this.deltaEntries = deltaEntries;
+
+        CompiledTrieBuilder deltaBuilder = new CompiledTrieBuilder();
+        this.deltaScoredTags = new ArrayList<>(deltaEntries.size());
+        for (Map.Entry<JasoSequence, List<ScoredTag>> deltaEntry : deltaEntries.entrySet()) {
+            deltaBuilder.put(deltaEntry.getKey(), this.deltaScoredTags.size());
+            this.deltaScoredTags.add(deltaEntry.getValue());
+        }
+        this.deltaTrie = deltaBuilder.build();
+    }
+
+    /**
+     * 비어 있는 사용자 사전을 생성합니다.
+     *
+     * @param posTable 사용자 사전을 적용할 모델의 pos.table
+     */
+    public static UserDictionary empty(PosTable posTable) {
+        return build(posTable, new LinkedHashMap<JasoSequence, List<ScoredTag>>());
+    }
+
+    /**
+     * 사용자 사전 파일을 로드합니다. </p>
+     * 각 라인은 "형태소[TAB]품사" 형태이며, 품사가 없는 경우에는 NNP로 간주합니다. '#'으로 시작하는 라인은 무시합니다.
+     *
+     * @param filename 사용자 사전 파일 경로
+     * @param posTable 사용자 사전을 적용할 모델의 pos.table
+     */
+    public static UserDictionary load(String filename, PosTable posTable) throws IOException {
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+        Map<JasoSequence, List<ScoredTag>> entries = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.charAt(0) == '#') continue;
+                int lastIdx = line.lastIndexOf("\t");
+
+                String morph;
+                String pos;
+                if (lastIdx == -1) {
+                    morph = line.trim();
+                    pos = DEFAULT_POS;
+                } else {
+                    morph = line.substring(0, lastIdx);
+                    pos = line.substring(lastIdx + 1);
+                }
+                //큰 사전을 로드하는 동안의 메모리를 줄이기 위해 압축된 key를 사용
+                JasoSequence key = JasoSequence.of(unitParser.parse(morph));
+                List<ScoredTag> scoredTags = entries.get(key);
+                if (scoredTags == null) {
+                    scoredTags = new ArrayList<>(1);
+                    entries.put(key, scoredTags);
+                }
+                addScoredTag(scoredTags, pos, getTagId(posTable, pos));
+            }
+        }
+        return build(posTable, entries);
+    }
+
+    /**
+     * 사용자 사전 텍스트 파일을 바로 로드할 수 있는 binary 파일로 컴파일합니다. 배포 전에 미리 한 번 실행합니다.
+     * <pre>
+     *     UserDictionary.compile("user_data/dic.user", "user_data/dic.user.bin", resources.getTable());
+     *     komoran.setCompiledUserDic("user_data/dic.user.bin");
+     * </pre>
+     *
+     * @param filename         사용자 사전 텍스트 파일 경로
+     * @param compiledFilename 저장할 binary 파일 경로
+     * @param posTable         사용자 사전을 적용할 모델의 pos.table
+     */
+    public static void compile(String filename, String compiledFilename, PosTable posTable) throws IOException {
+        load(filename, posTable).save(compiledFilename);
+    }
+
+    /**
+     * 사용자 사전을 binary 형태로 저장합니다. delta는 base에 합쳐서 저장합니다. </p>
+     * 파일에는 trie의 배열(fail link 포함)과 품사 목록의 배열이 그대로 기록되며, pos.table의 checksum이 함께 기록됩니다.
+     *
+     * @param filename 저장할 파일 경로
+     */
+    public void save(String filename) throws IOException {
+        UserDictionary compacted = this.compact();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(COMPILED_MAGIC);
+            out.writeInt(COMPILED_VERSION);
+            out.writeLong(this.posTable.getChecksum());
+            compacted.baseTrie.write(out);
+            compacted.baseScoredTags.write(out);
+        }
+    }
+
+    /**
+     * {@link #compile(String, String, PosTable)} 또는 {@link #save(String)}로 만든 binary 파일을 로드합니다. </p>
+     * 파일을 memory-map한 뒤 배열 단위로 읽으므로 텍스트 파싱, 자소 분리, trie 생성 및 fail link 계산을 하지 않습니다.
+     *
+     * @param filename binary 파일 경로
+     * @param posTable 사용자 사전을 적용할 모델의 pos.table
+     * @throws IOException 파일 형식이 다르거나 다른 pos.table로 컴파일된 경우
+     */
+    public static UserDictionary loadCompiled(String filename, PosTable posTable) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 16 || buffer.getInt() != COMPILED_MAGIC) {
+                throw new IOException("not a compiled user dictionary : " + filename);
+            }
+            int version = buffer.getInt();
+            if (version != COMPILED_VERSION) {
+                throw new IOException("unsupported compiled user dictionary version : " + version);
+            }
+            if (buffer.getLong() != posTable.getChecksum()) {
+                throw new IOException("compiled user dictionary was built for another pos.table : " + filename);
+            }
+            try {
+                CompiledTrie trie = CompiledTrie.read(buffer);
+                PackedScoredTags scoredTags = PackedScoredTags.read(buffer);
+                return new UserDictionary(posTable, trie, scoredTags, Collections.<JasoSequence, List<ScoredTag>>emptyMap());
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                throw new IOException("corrupted compiled user dictionary : " + filename, e);
+            }
+        }
+    }
+
+    private static UserDictionary build(PosTable posTable, Map<JasoSequence, List<ScoredTag>> entries) {
+        CompiledTrieBuilder builder = new CompiledTrieBuilder();
+        PackedScoredTags.Builder scoredTagsBuilder = new PackedScoredTags.Builder();
+        for (Map.Entry<JasoSequence, List<ScoredTag>> entry : entries.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            builder.put(entry.getKey(), scoredTagsBuilder.add(entry.getValue()));
+        }
+        return new UserDictionary(posTable, builder.build(), scoredTagsBuilder.build(),
+                Collections.<JasoSequence, List<ScoredTag>>emptyMap());
+    }
+
+    private static int getTagId(PosTable posTable, String pos) {
+        Integer tagId = posTable.findId(pos);
+        if (tagId == null) {
+            throw new IllegalArgumentException("unknown pos : " + pos);
+        }
+        return tagId;
+    }
+
+    private static boolean addScoredTag(List<ScoredTag> scoredTags, String pos, int tagId) {
+        for (ScoredTag scoredTag : scoredTags) {
+            if (scoredTag.getTagId() == tagId) {
+                return false;
+            }
+        }
+        scoredTags.add(new ScoredTag(pos, tagId, USER_DIC_SCORE));
+        return true;
+    }
+
+    /**
+     * 형태소를 추가한 snapshot을 반환합니다. 이미 있는 형태소와 품사인 경우 자기 자신을 반환합니다.
+     *
+     * @param morph 형태소
+     * @param pos   품사
+     */
+    public UserDictionary add(String morph, String pos) {
+        JasoSequence key = JasoSequence.of(new KoreanUnitParser().parse(morph));
+        List<ScoredTag> scoredTags = new ArrayList<>(this.getScoredTags(key));
+        if (!addScoredTag(scoredTags, pos, getTagId(this.posTable, pos))) {
+            return this;
+        }
+        return this.withDelta(key, scoredTags);
+    }
+
+    /**
+     * 형태소의 특정 품사를 삭제한 snapshot을 반환합니다. 없는 경우 자기 자신을 반환합니다.
+     *
+     * @param morph 형태소
+     * @param pos   품사
+     */
+    public UserDictionary remove(String morph, String pos) {
+        JasoSequence key = JasoSequence.of(new KoreanUnitParser().parse(morph));
+        Integer tagId = this.posTable.findId(pos);
+        //모델에 없는 품사는 사전에도 추가될 수 없음
+        if (tagId == null) {
+            return this;
+        }
+        List<ScoredTag> scoredTags = new ArrayList<>(this.getScoredTags(key));
+        boolean removed = false;
+        for (Iterator<ScoredTag> iterator = scoredTags.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().getTagId() == tagId) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        if (!removed) {
+            return this;
+        }
+        return this.withDelta(key, scoredTags);
+    }
+
+    /**
+     * 형태소를 모든 품사에 대해 삭제한 snapshot을 반환합니다. 없는 경우 자기 자신을 반환합니다.
+     *
+     * @param morph 형태소
+     */
+    public UserDictionary remove(String morph) {
+        JasoSequence key = JasoSequence.of(new KoreanUnitParser().parse(morph));
+        if (this.getScoredTags(key).isEmpty()) {
+            return this;
+        }
+        return this.withDelta(key, new ArrayList<ScoredTag>(0));
+    }
+
+    private UserDictionary withDelta(JasoSequence key, List<ScoredTag> scoredTags) {
+        Map<JasoSequence, List<ScoredTag>> newDeltaEntries = new LinkedHashMap<>(this.deltaEntries);
+        newDeltaEntries.put(key, Collections.unmodifiableList(scoredTags));
+        return new UserDictionary(this.posTable, this.baseTrie, this.baseScoredTags, newDeltaEntries);
+    }
+
+    /**
+     * 자소 단위 형태소의 품사 목록을 반환합니다.
+     *
+     * @param key 자소 단위 형태소
+     * @return 품사 목록, 없는 경우 빈 목록
+     */
+    public List<ScoredTag> getScoredTags(CharSequence key) {
+        List<ScoredTag> scoredTags = this.deltaEntries.isEmpty() ? null : this.deltaEntries.get(JasoSequence.of(key));
+        if (scoredTags != null) {
+            return scoredTags;
+        }
+        int value = this.baseTrie.getValue(key);
+        if (value == CompiledTrie.NO_VALUE) {
+            return Collections.emptyList();
+        }
+        return this.baseScoredTags.getScoredTags(value);
+    }
+
+    /**
+     * 띄어쓰기가 포함된 형태소 중 가장 긴 형태소의 자소 단위 길이를 반환합니다. </p>
+     * 이런 형태소는 어절 경계를 넘어 lattice에 추가되므로, 어절 단위로 나누어 분석할 때 경계를 넘는 형태소가 있는지 확인하는 데 사용합니다.
+     * 처음 호출될 때 사전 전체를 탐색하며, 이후에는 계산된 값을 반환합니다.
+     *
+     * @return 길이, 띄어쓰기가 포함된 형태소가 없는 경우 0
+     */
+    public int getMaxSpacedKeyLength() {
+        int maxLength = this.maxSpacedKeyLength;
+        if (maxLength == -1) {
+            final int[] baseMaxLength = {0};
+            this.baseTrie.forEach(new CompiledTrie.EntryVisitor() {
+                @Override
+                public void visit(String key, int value) {
+                    if (key.indexOf(' ') != -1) {
+                        baseMaxLength[0] = Math.max(baseMaxLength[0], key.length());
+                    }
+                }
+            });
+            maxLength = baseMaxLength[0];
+            //삭제된 형태소도 포함하므로 실제보다 클 수 있음
+            for (JasoSequence key : this.deltaEntries.keySet()) {
+                for (int i = 0; i < key.length(); i++) {
+                    if (key.charAt(i) == ' ') {
+                        maxLength = Math.max(maxLength, key.length());
+                        break;
+                    }
+                }
+            }
+            this.maxSpacedKeyLength = maxLength;
+        }
+        return maxLength;
+    }
+
+    /**
+     * delta를 base에 합친 snapshot을 반환합니다. 사전 크기에 비례하는 시간이 걸리므로 분석 thread가 아닌 곳에서 호출합니다.
+     */
+    public UserDictionary compact() {
+        if (this.deltaEntries.isEmpty()) {
+            return this;
+        }
+        final Map<JasoSequence, List<ScoredTag>> entries = new LinkedHashMap<>();
+        this.baseTrie.forEach(new CompiledTrie.EntryVisitor() {
+            @Override
+            public void visit(String key, int value) {
+                JasoSequence jasoKey = JasoSequence.of(key);
+                if (!deltaEntries.containsKey(jasoKey)) {
+                    entries.put(jasoKey, baseScoredTags.getScoredTags(value));
+                }
+            }
+        });
+        entries.putAll(this.deltaEntries);
+        return build(this.posTable, entries);
+    }
+
+    /**
+     * compactedFrom을 compact하여 compacted를 만드는 동안 이 snapshot에 반영된 변경 사항을 compacted 위에 다시 적용합니다.
+     *
+     * @param compactedFrom compact를 시작할 때의 snapshot (이 snapshot의 이전 버전)
+     * @param compacted     compactedFrom.compact()의 결과
+     */
+    public UserDictionary rebase(UserDictionary compactedFrom, UserDictionary compacted) {
+        //compact하는 동안 사전 전체가 교체된 경우에는 compact 결과를 버림
+        if (this.baseTrie != compactedFrom.baseTrie) {
+            return this;
+        }
+        Map<JasoSequence, List<ScoredTag>> newDeltaEntries = new LinkedHashMap<>();
+        for (Map.Entry<JasoSequence, List<ScoredTag>> deltaEntry : this.deltaEntries.entrySet()) {
+            //변경된 품사 목록은 매번 새로운 객체이므로 같은 객체라면 compacted에 이미 반영되어 있음
+            if (compactedFrom.deltaEntries.get(deltaEntry.getKey()) != deltaEntry.getValue()) {
+                newDeltaEntries.put(deltaEntry.getKey(), deltaEntry.getValue());
+            }
+        }
+        if (newDeltaEntries.isEmpty()) {
+            return compacted;
+        }
+        return new UserDictionary(this.posTable, compacted.baseTrie, compacted.baseScoredTags, newDeltaEntries);
+    }
+
+    /**
+     * base에 합쳐지지 않은 변경 사항의 수를 반환합니다.
+     */
+    public int getDeltaSize() {
+        return this.deltaEntries.size();
+    }
+
+    public PosTable getPosTable() {
+        return this.posTable;
+    }
+
+    /**
+     * 문장을 한 자소씩 입력 받으며 사용자 사전의 형태소를 찾는 객체를 생성합니다.
+     */
+    public Matcher newMatcher() {
+        return new Matcher();
+    }
+
+    /**
+     * base trie와 delta trie를 동시에 탐색하며 현재 위치에서 끝나는 형태소를 찾습니다.
+     * 같은 위치에서 끝나면서 길이가 같은 형태소는 같은 형태소이므로, delta에 있는 경우 base의 결과는 건너뜁니다.
+     */
+    public final class Matcher {
+
+        private int baseState = CompiledTrie.ROOT;
+        private int deltaState = CompiledTrie.ROOT;
+
+        private int nextBaseMatch;
+        private int nextDeltaMatch;
+        private int[] deltaLengths = new int[4];
+        private int deltaLengthCount;
+
+        private int length;
+        private List<ScoredTag> scoredTags;
+
+        private Matcher() {
+        }
+
+        /**
+         * 다음 자소를 입력합니다.
+         */
+        public void next(char jaso) {
+            this.baseState = baseTrie.transition(this.baseState, jaso);
+            this.nextBaseMatch = baseTrie.firstMatch(this.baseState);
+            this.deltaLengthCount = 0;
+            if (deltaEntries.isEmpty()) {
+                this.nextDeltaMatch = CompiledTrie.NONE;
+            } else {
+                this.deltaState = deltaTrie.transition(this.deltaState, jaso);
+                this.nextDeltaMatch = deltaTrie.firstMatch(this.deltaState);
+            }
+        }
+
+        /**
+         * 현재 위치에서 끝나는 다음 형태소로 이동합니다.
+         *
+         * @return 형태소가 있는 경우 true
+         */
+        public boolean find() {
+            while (this.nextDeltaMatch != CompiledTrie.NONE) {
+                int match = this.nextDeltaMatch;
+                this.nextDeltaMatch = deltaTrie.nextMatch(match);
+                int matchLength = deltaTrie.getDepth(match);
+                if (this.deltaLengthCount == this.deltaLengths.length) {
+                    this.deltaLengths = Arrays.copyOf(this.deltaLengths, this.deltaLengthCount * 2);
+                }
+                this.deltaLengths[this.deltaLengthCount++] = matchLength;
+                List<ScoredTag> matchScoredTags = deltaScoredTags.get(deltaTrie.getValue(match));
+                if (!matchScoredTags.isEmpty()) {
+                    this.length = matchLength;
+                    this.scoredTags = matchScoredTags;
+                    return true;
+                }
+            }
+            while (this.nextBaseMatch != CompiledTrie.NONE) {
+                int match = this.nextBaseMatch;
+                this.nextBaseMatch = baseTrie.nextMatch(match);
+                int matchLength = baseTrie.getDepth(match);
+                if (this.isReplacedByDelta(matchLength)) {
+                    continue;
+                }
+                this.length = matchLength;
+                this.scoredTags = baseScoredTags.getScoredTags(baseTrie.getValue(match));
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isReplacedByDelta(int matchLength) {
+            for (int i = 0; i < this.deltaLengthCount; i++) {
+                if (this.deltaLengths[i] == matchLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 찾은 형태소의 자소 단위 길이를 반환합니다.
+         */
+        public int getLength() {
+            return this.length;
+        }
+
+        /**
+         * 찾은 형태소의 품사 목록을 반환합니다.
+         */
+        public List<ScoredTag> getScoredTags() {
+            return this.scoredTags;
+        }
+    }
+}
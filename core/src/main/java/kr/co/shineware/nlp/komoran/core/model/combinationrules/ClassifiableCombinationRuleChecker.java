@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model.combinationrules;
+
+/**
+ * 현재 형태소와 이전 형태소를 결합 규칙에 대해 같은 결과를 내는 class로 나눌 수 있는 결합 규칙 검사기입니다. </p>
+ * 품사와 class가 같은 두 형태소는 상대 형태소가 무엇이든 {@link #isValidRule(String, int, String, int)}의 결과가 같아야 합니다.
+ * lattice는 이를 이용해 (열, 품사, class) 별로 가장 좋은 이전 node를 한 번만 찾고,
+ * 이후의 결정에 대해 구별되지 않는 node들을 하나로 병합합니다.
+ */
+public interface ClassifiableCombinationRuleChecker extends CombinationRuleChecker {
+
+    /**
+     * 형태소의 결합 규칙 class를 반환합니다.
+     *
+     * @return 0 이상 {@link #MAX_RULE_CLASS} 미만의 class
+     */
+    int getRuleClass(String morph, int tagId);
+
+    /**
+     * 이전 형태소의 결합 규칙 class를 반환합니다.
+     *
+     * @return 이전 형태소의 품사가 같을 때 class가 같으면 어떤 현재 형태소에 대해서도 결합 규칙 검사 결과가 같음
+     */
+    int getPrevRuleClass(String prevMorph, int prevTagId);
+
+    int MAX_RULE_CLASS = 0xFF;
+}
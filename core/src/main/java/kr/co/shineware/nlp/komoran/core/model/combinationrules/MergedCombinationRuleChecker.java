@@ -4,14 +4,41 @@ import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
 import kr.co.shineware.nlp.komoran.core.model.MorphUtil;
 import kr.co.shineware.nlp.komoran.core.model.TagUtil;
 
-public class MergedCombinationRuleChecker implements CombinationRuleChecker {
+public class MergedCombinationRuleChecker implements ClassifiableCombinationRuleChecker {
+
+    //현재 형태소가 이전 형태소의 종성에 요구하는 조건 (결합 규칙 class)
+    private static final int NO_CONDITION = 0;
+    private static final int REQUIRE_JONGSUNG = 1;
+    private static final int REQUIRE_NO_JONGSUNG = 2;
 
     private final MorphUtil morphUtil;
     private final TagUtil tagUtil;
 
+    //모델 별 품사 id
+    private final int vvTagId;
+    private final int etmTagId;
+    private final int etnTagId;
+    private final int jksTagId;
+    private final int jkcTagId;
+    private final int jkoTagId;
+    private final int jkvTagId;
+    private final int jcTagId;
+    private final int jkbTagId;
+    private final int jxTagId;
+
     public MergedCombinationRuleChecker(MorphUtil morphUtil, TagUtil tagUtil) {
         this.morphUtil = morphUtil;
         this.tagUtil = tagUtil;
+        this.vvTagId = tagUtil.getId(SEJONGTAGS.VV);
+        this.etmTagId = tagUtil.getId(SEJONGTAGS.ETM);
+        this.etnTagId = tagUtil.getId(SEJONGTAGS.ETN);
+        this.jksTagId = tagUtil.getId(SEJONGTAGS.JKS);
+        this.jkcTagId = tagUtil.getId(SEJONGTAGS.JKC);
+        this.jkoTagId = tagUtil.getId(SEJONGTAGS.JKO);
+        this.jkvTagId = tagUtil.getId(SEJONGTAGS.JKV);
+        this.jcTagId = tagUtil.getId(SEJONGTAGS.JC);
+        this.jkbTagId = tagUtil.getId(SEJONGTAGS.JKB);
+        this.jxTagId = tagUtil.getId(SEJONGTAGS.JX);
     }
 
     @Override
@@ -25,107 +52,139 @@ public class MergedCombinationRuleChecker implements CombinationRuleChecker {
             }
             //현재가 조사인경우
             else if (this.tagUtil.isJosa(tagId)) {
-                return chekcNounWithJongsungAndJosaRule(prevMorph, morph, tagId);
+                return this.satisfies(prevMorph, this.getJosaCondition(morph, tagId));
             }
         }
 
         //이전이 동사인 경우
-        else if (SEJONGTAGS.VV_ID == prevTagId) {
+        else if (this.vvTagId == prevTagId) {
             //관형형 전성어미 VV+ETN, VV+ETM
-            return checktNounWithJongsungAndEomiRul(prevMorph, morph, tagId);
+            return this.satisfies(prevMorph, this.getEomiCondition(morph, tagId));
+        }
+
+        return true;
+    }
+
+    /**
+     * 현재 형태소가 이전 형태소의 종성에 요구하는 조건을 class로 반환합니다.
+     * 조사와 전성어미의 품사는 겹치지 않으므로 두 조건 중 하나만 조건이 있습니다.
+     */
+    @Override
+    public int getRuleClass(String morph, int tagId) {
+        int condition = this.getJosaCondition(morph, tagId);
+        if (condition != NO_CONDITION) {
+            return condition;
         }
+        return this.getEomiCondition(morph, tagId);
+    }
+
+    /**
+     * 명사류와 동사는 종성 유무에 따라, 나머지 품사는 형태소와 관계없이 같은 class로 나눕니다.
+     */
+    @Override
+    public int getPrevRuleClass(String prevMorph, int prevTagId) {
+        if (this.tagUtil.isNoun(prevTagId) || this.vvTagId == prevTagId) {
+            return this.morphUtil.hasJongsung(prevMorph) ? REQUIRE_JONGSUNG : REQUIRE_NO_JONGSUNG;
+        }
+        return NO_CONDITION;
+    }
 
+    private boolean satisfies(String prevMorph, int condition) {
+        if (condition == REQUIRE_JONGSUNG) {
+            return this.morphUtil.hasJongsung(prevMorph);
+        } else if (condition == REQUIRE_NO_JONGSUNG) {
+            return !this.morphUtil.hasJongsung(prevMorph);
+        }
         return true;
     }
 
-    private boolean checktNounWithJongsungAndEomiRul(String prevMorph, String morph, int tagId) {
-        if (SEJONGTAGS.ETM_ID == tagId) {
+    private int getEomiCondition(String morph, int tagId) {
+        if (this.etmTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅡㄹ")
                     || this.morphUtil.isSameJaso(morph, "ㅇㅡㄴ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㄹ")
                     || this.morphUtil.isSameJaso(morph, "ㄴ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //명사형 전성어미
-        else if (SEJONGTAGS.ETN_ID == tagId) {
-            boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
+        else if (this.etnTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅡㅁ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
-            } else if(this.morphUtil.isSameJaso(morph, "ㅁ")){
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
+            } else if (this.morphUtil.isSameJaso(morph, "ㅁ")) {
+                return REQUIRE_NO_JONGSUNG;
             }
         }
-        return true;
+        return NO_CONDITION;
     }
 
-    private boolean chekcNounWithJongsungAndJosaRule(String prevMorph, String morph, int tagId) {
+    private int getJosaCondition(String morph, int tagId) {
         //주격조사
-        if (SEJONGTAGS.JKS_ID == tagId) {
+        if (this.jksTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅣ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㄱㅣ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //보격조사
-        else if (SEJONGTAGS.JKC_ID == tagId) {
+        else if (this.jkcTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅣ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㄱㅏ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //목적격조사
-        else if (SEJONGTAGS.JKO_ID == tagId) {
+        else if (this.jkoTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅡㄹ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㄹ")
                     || this.morphUtil.isSameJaso(morph, "ㄹㅡㄹ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //호격조사
-        else if (SEJONGTAGS.JKV_ID == tagId) {
+        else if (this.jkvTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅏ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㅇㅑ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //접속조사
-        else if (SEJONGTAGS.JC_ID == tagId) {
+        else if (this.jcTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㄱㅘ")
                     || this.morphUtil.isSameJaso(morph, "ㅇㅣㄴㅏ")
                     || this.morphUtil.isSameJaso(morph, "ㅇㅣㄹㅏㅇ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㅇㅘ")
                     || this.morphUtil.isSameJaso(morph, "ㄴㅏ")
                     || this.morphUtil.isSameJaso(morph, "ㄹㅏㅇ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //부사격조사
-        else if (SEJONGTAGS.JKB_ID == tagId) {
+        else if (this.jkbTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㄱㅘ")
                     || this.morphUtil.isSameJaso(morph, "ㅇㅡㄹㅗ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㅇㅘ")
                     || this.morphUtil.isSameJaso(morph, "ㄹㅗ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
         //보조사
-        else if (SEJONGTAGS.JX_ID == tagId) {
+        else if (this.jxTagId == tagId) {
             if (this.morphUtil.isSameJaso(morph, "ㅇㅡㄴ")
                     || this.morphUtil.isSameJaso(morph, "ㅇㅣㄹㅏㄴ")) {
-                return this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_JONGSUNG;
             } else if (this.morphUtil.isSameJaso(morph, "ㄴㅡㄴ")
                     || this.morphUtil.isSameJaso(morph, "ㄹㅏㄴ")) {
-                return !this.morphUtil.hasJongsung(prevMorph);
+                return REQUIRE_NO_JONGSUNG;
             }
         }
-        return true;
+        return NO_CONDITION;
     }
 }
@@ -9,9 +9,25 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
     private final MorphUtil morphUtil;
     private final TagUtil tagUtil;
 
+    //모델 별 품사 id
+    private final int jksTagId;
+    private final int jkcTagId;
+    private final int jkoTagId;
+    private final int jkvTagId;
+    private final int jcTagId;
+    private final int jkbTagId;
+    private final int jxTagId;
+
     public NounJosaCombinationRuleChecker(MorphUtil morphUtil, TagUtil tagUtil) {
         this.morphUtil = morphUtil;
         this.tagUtil = tagUtil;
+        this.jksTagId = tagUtil.getId(SEJONGTAGS.JKS);
+        this.jkcTagId = tagUtil.getId(SEJONGTAGS.JKC);
+        this.jkoTagId = tagUtil.getId(SEJONGTAGS.JKO);
+        this.jkvTagId = tagUtil.getId(SEJONGTAGS.JKV);
+        this.jcTagId = tagUtil.getId(SEJONGTAGS.JC);
+        this.jkbTagId = tagUtil.getId(SEJONGTAGS.JKB);
+        this.jxTagId = tagUtil.getId(SEJONGTAGS.JX);
     }
 
     @Override
@@ -20,7 +36,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
         if (this.tagUtil.isNoun(prevTagId) && this.tagUtil.isJosa(tagId)) {
 
             //주격조사
-            if (SEJONGTAGS.JKS_ID == tagId) {
+            if (this.jksTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅣ");
@@ -29,7 +45,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //보격조사
-            else if (SEJONGTAGS.JKC_ID == tagId) {
+            else if (this.jkcTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅣ");
@@ -38,7 +54,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //목적격조사
-            else if (SEJONGTAGS.JKO_ID == tagId) {
+            else if (this.jkoTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅡㄹ");
@@ -48,7 +64,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //호격조사
-            else if (SEJONGTAGS.JKV_ID == tagId) {
+            else if (this.jkvTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅏ");
@@ -57,7 +73,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //접속조사
-            else if (SEJONGTAGS.JC_ID == tagId) {
+            else if (this.jcTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㄱㅘ")
@@ -70,7 +86,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //부사격조사
-            else if (SEJONGTAGS.JKB_ID == tagId) {
+            else if (this.jkbTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㄱㅘ")
@@ -81,7 +97,7 @@ public class NounJosaCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //보조사
-            else if (SEJONGTAGS.JX_ID == tagId) {
+            else if (this.jxTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅡㄴ")
@@ -2,22 +2,31 @@ package kr.co.shineware.nlp.komoran.core.model.combinationrules;
 
 import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
 import kr.co.shineware.nlp.komoran.core.model.MorphUtil;
+import kr.co.shineware.nlp.komoran.core.model.TagUtil;
 
 public class VerbEomiCombinationRuleChecker implements CombinationRuleChecker {
 
     private final MorphUtil morphUtil;
 
-    public VerbEomiCombinationRuleChecker(MorphUtil morphUtil) {
+    //모델 별 품사 id
+    private final int vvTagId;
+    private final int etmTagId;
+    private final int etnTagId;
+
+    public VerbEomiCombinationRuleChecker(MorphUtil morphUtil, TagUtil tagUtil) {
         this.morphUtil = morphUtil;
+        this.vvTagId = tagUtil.getId(SEJONGTAGS.VV);
+        this.etmTagId = tagUtil.getId(SEJONGTAGS.ETM);
+        this.etnTagId = tagUtil.getId(SEJONGTAGS.ETN);
     }
 
     @Override
     public boolean isValidRule(String prevMorph, int prevTagId, String morph, int tagId) {
         //이전이 동사인 경우
-        if (SEJONGTAGS.VV_ID == prevTagId) {
+        if (this.vvTagId == prevTagId) {
 
             //관형형 전성어미
-            if (SEJONGTAGS.ETM_ID == tagId) {
+            if (this.etmTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅡㄹ")
@@ -28,7 +37,7 @@ public class VerbEomiCombinationRuleChecker implements CombinationRuleChecker {
                 }
             }
             //명사형 전성어미
-            else if (SEJONGTAGS.ETN_ID == tagId) {
+            else if (this.etnTagId == tagId) {
                 boolean hasJongsung = this.morphUtil.hasJongsung(prevMorph);
                 if (hasJongsung) {
                     return this.morphUtil.isSameJaso(morph, "ㅇㅡㅁ");
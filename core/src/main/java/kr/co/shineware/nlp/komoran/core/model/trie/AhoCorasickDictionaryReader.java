@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model.trie;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * AhoCorasickDictionary.save()로 저장된 모델 파일(observation.model, irregular.model)을 읽어
+ * 저장된 key와 값을 순서대로 전달합니다. </p>
+ * AhoCorasickDictionary 객체를 만들지 않고 바로 {@link CompiledTrieBuilder} 등으로 옮길 때 사용합니다. </p>
+ * 파일은 gzip으로 압축된 object stream이며, 각 node는 자식 수(int)와 자식 별 (문자(char), 값(object 또는 null), 자식 node)로 저장되어 있습니다.
+ */
+public final class AhoCorasickDictionaryReader {
+
+    private AhoCorasickDictionaryReader() {
+    }
+
+    /**
+     * 모델 파일을 읽어 값이 있는 key마다 handler를 호출합니다. 입력 stream은 다 읽은 뒤 닫힙니다.
+     *
+     * @param inputStream 모델 파일의 stream
+     * @param handler     key와 값을 전달 받을 handler
+     */
+    public static <V> void read(InputStream inputStream, EntryHandler<V> handler) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new GZIPInputStream(inputStream)))) {
+            readNode(ois, new StringBuilder(), handler);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("unknown value type in model file", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void readNode(ObjectInputStream ois, StringBuilder key, EntryHandler<V> handler)
+            throws IOException, ClassNotFoundException {
+        int childCount = ois.readInt();
+        for (int i = 0; i < childCount; i++) {
+            key.append(ois.readChar());
+            V value = (V) ois.readObject();
+            if (value != null) {
+                handler.handle(key.toString(), value);
+            }
+            readNode(ois, key, handler);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    public interface EntryHandler<V> {
+        void handle(String key, V value);
+    }
+}
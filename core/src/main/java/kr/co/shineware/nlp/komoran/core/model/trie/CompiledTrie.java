@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model.trie;
+
+import kr.co.shineware.nlp.komoran.util.BinaryArrays;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 배열 기반의 불변 Aho-Corasick automaton입니다. </p>
+ * 상태(state)는 int로 표현되며 root는 0입니다. 상태 번호는 BFS 순서로 부여되어 있어
+ * 한 상태의 자식들은 [firstChild[s], firstChild[s + 1]) 구간에 문자 순으로 연속해서 위치합니다. </p>
+ * 각 key에는 int 값(보통 payload 배열의 index)이 연결되며, 생성은 {@link CompiledTrieBuilder}를 통해서 합니다.
+ * <pre>
+ *     int state = trie.getRoot();
+ *     for (char c : text) {
+ *         state = trie.transition(state, c);
+ *         for (int match = trie.firstMatch(state); match != CompiledTrie.NONE; match = trie.nextMatch(match)) {
+ *             //trie.getValue(match), trie.getDepth(match)
+ *         }
+ *     }
+ * </pre>
+ */
+public final class CompiledTrie {
+
+    public static final int ROOT = 0;
+    //root는 match가 될 수 없으므로 '없음'을 나타내는 값으로 사용
+    public static final int NONE = 0;
+    public static final int NO_VALUE = -1;
+
+    //자식 상태 구간의 시작 (길이 = 상태 수 + 1)
+    private final int[] firstChild;
+    //상태로 들어오는 문자
+    private final char[] label;
+    private final int[] fail;
+    //fail link를 따라가며 처음 만나는 값이 있는 상태
+    private final int[] output;
+    private final int[] value;
+    private final int[] depth;
+    private final int size;
+
+    CompiledTrie(int[] firstChild, char[] label, int[] fail, int[] output, int[] value, int[] depth, int size) {
+        this.firstChild = firstChild;
+        this.label = label;
+        this.fail = fail;
+        this.output = output;
+        this.value = value;
+        this.depth = depth;
+        this.size = size;
+    }
+
+    public int getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * 현재 상태에서 문자 c로 바로 이어지는 자식 상태를 반환합니다. fail link는 따라가지 않습니다.
+     *
+     * @return 자식 상태, 없는 경우 -1
+     */
+    public int child(int state, char c) {
+        int low = this.firstChild[state];
+        int high = this.firstChild[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = this.label[mid];
+            if (midLabel < c) {
+                low = mid + 1;
+            } else if (midLabel > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Aho-Corasick 방식으로 문자 c를 입력한 이후의 상태를 반환합니다.
+     */
+    public int transition(int state, char c) {
+        while (true) {
+            int next = this.child(state, c);
+            if (next != -1) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = this.fail[state];
+        }
+    }
+
+    public boolean hasChildren(int state) {
+        return this.firstChild[state] != this.firstChild[state + 1];
+    }
+
+    /**
+     * 현재 상태에서 끝나는 key 중 가장 긴 key의 상태를 반환합니다.
+     *
+     * @return key의 상태, 없는 경우 {@link #NONE}
+     */
+    public int firstMatch(int state) {
+        return this.value[state] != NO_VALUE ? state : this.output[state];
+    }
+
+    /**
+     * match 상태보다 짧으면서 같은 위치에서 끝나는 다음 key의 상태를 반환합니다.
+     *
+     * @return key의 상태, 없는 경우 {@link #NONE}
+     */
+    public int nextMatch(int matchState) {
+        return this.output[matchState];
+    }
+
+    /**
+     * 상태에 연결된 값을 반환합니다.
+     *
+     * @return 값, key의 끝이 아닌 상태인 경우 {@link #NO_VALUE}
+     */
+    public int getValue(int state) {
+        return this.value[state];
+    }
+
+    /**
+     * root로부터의 거리, 즉 상태까지의 key 길이를 반환합니다.
+     */
+    public int getDepth(int state) {
+        return this.depth[state];
+    }
+
+    /**
+     * key에 정확히 일치하는 상태를 찾습니다.
+     *
+     * @return 상태, 없는 경우 -1
+     */
+    public int find(CharSequence key) {
+        int state = ROOT;
+        for (int i = 0; i < key.length() && state != -1; i++) {
+            state = this.child(state, key.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * key에 연결된 값을 반환합니다.
+     *
+     * @return 값, 없는 경우 {@link #NO_VALUE}
+     */
+    public int getValue(CharSequence key) {
+        int state = this.find(key);
+        return state == -1 ? NO_VALUE : this.value[state];
+    }
+
+    /**
+     * 저장된 key의 수를 반환합니다.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public int getStateCount() {
+        return this.label.length;
+    }
+
+    /**
+     * 저장된 모든 key와 값을 사전 순으로 방문합니다.
+     */
+    public void forEach(EntryVisitor visitor) {
+        this.forEach(ROOT, new StringBuilder(), visitor);
+    }
+
+    private void forEach(int state, StringBuilder key, EntryVisitor visitor) {
+        if (this.value[state] != NO_VALUE) {
+            visitor.visit(key.toString(), this.value[state]);
+        }
+        for (int child = this.firstChild[state]; child < this.firstChild[state + 1]; child++) {
+            key.append(this.label[child]);
+            this.forEach(child, key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * 배열들을 그대로 기록합니다. fail link까지 기록하므로 읽을 때 다시 계산하지 않습니다.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(this.size);
+        BinaryArrays.writeInts(out, this.firstChild);
+        BinaryArrays.writeChars(out, this.label);
+        BinaryArrays.writeInts(out, this.fail);
+        BinaryArrays.writeInts(out, this.output);
+        BinaryArrays.writeInts(out, this.value);
+        BinaryArrays.writeInts(out, this.depth);
+    }
+
+    /**
+     * {@link #write(DataOutputStream)}로 기록된 trie를 읽습니다.
+     */
+    public static CompiledTrie read(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        int[] firstChild = BinaryArrays.readInts(buffer);
+        char[] label = BinaryArrays.readChars(buffer);
+        int[] fail = BinaryArrays.readInts(buffer);
+        int[] output = BinaryArrays.readInts(buffer);
+        int[] value = BinaryArrays.readInts(buffer);
+        int[] depth = BinaryArrays.readInts(buffer);
+        int stateCount = label.length;
+        if (firstChild.length != stateCount + 1 || fail.length != stateCount || output.length != stateCount
+                || value.length != stateCount || depth.length != stateCount) {
+            throw new IllegalArgumentException("corrupted trie");
+        }
+        return new CompiledTrie(firstChild, label, fail, output, value, depth, size);
+    }
+
+    public interface EntryVisitor {
+        void visit(String key, int value);
+    }
+}
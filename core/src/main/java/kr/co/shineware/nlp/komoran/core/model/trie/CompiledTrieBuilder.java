@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.core.model.trie;
+
+import kr.co.shineware.nlp.komoran.core.model.JasoSequence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link CompiledTrie}를 생성합니다. </p>
+ * key를 정렬한 뒤 BFS 순서로 상태를 만들기 때문에 중간 단계의 node 객체를 만들지 않습니다.
+ * 큰 사전을 만드는 동안의 메모리를 줄이기 위해 key는 {@link JasoSequence}로 압축하여 보관합니다.
+ */
+public class CompiledTrieBuilder {
+
+    private final Map<JasoSequence, Integer> entries;
+
+    public CompiledTrieBuilder() {
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * key와 값을 추가합니다. 이미 있는 key인 경우 값을 덮어씁니다.
+     *
+     * @param key   빈 문자열이 아닌 key
+     * @param value 0 이상의 값
+     */
+    public void put(CharSequence key, int value) {
+        if (key.length() == 0) {
+            throw new IllegalArgumentException("empty key");
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("negative value : " + value);
+        }
+        this.entries.put(JasoSequence.of(key), value);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public CompiledTrie build() {
+        int size = this.entries.size();
+        JasoSequence[] keys = this.entries.keySet().toArray(new JasoSequence[size]);
+        Arrays.sort(keys);
+
+        int capacity = 1;
+        for (JasoSequence key : keys) {
+            capacity += key.length();
+        }
+
+        //상태 별로 담당하는 key 구간 [rangeBegin, rangeEnd)
+        int[] rangeBegin = new int[capacity];
+        int[] rangeEnd = new int[capacity];
+        int[] parent = new int[capacity];
+        int[] firstChild = new int[capacity + 1];
+        char[] label = new char[capacity];
+        int[] value = new int[capacity];
+        int[] depth = new int[capacity];
+
+        int stateCount = 1;
+        rangeBegin[0] = 0;
+        rangeEnd[0] = size;
+        for (int state = 0; state < stateCount; state++) {
+            int begin = rangeBegin[state];
+            int end = rangeEnd[state];
+            int d = depth[state];
+
+            value[state] = CompiledTrie.NO_VALUE;
+            //정렬되어 있으므로 현재 상태에서 끝나는 key는 구간의 첫 번째에만 올 수 있음
+            if (begin < end && keys[begin].length() == d) {
+                value[state] = this.entries.get(keys[begin]);
+                begin++;
+            }
+
+            firstChild[state] = stateCount;
+            while (begin < end) {
+                char c = keys[begin].charAt(d);
+                int childEnd = begin + 1;
+                while (childEnd < end && keys[childEnd].charAt(d) == c) {
+                    childEnd++;
+                }
+                label[stateCount] = c;
+                parent[stateCount] = state;
+                depth[stateCount] = d + 1;
+                rangeBegin[stateCount] = begin;
+                rangeEnd[stateCount] = childEnd;
+                stateCount++;
+                begin = childEnd;
+            }
+        }
+        firstChild[stateCount] = stateCount;
+
+        firstChild = Arrays.copyOf(firstChild, stateCount + 1);
+        label = Arrays.copyOf(label, stateCount);
+        value = Arrays.copyOf(value, stateCount);
+        depth = Arrays.copyOf(depth, stateCount);
+        int[] fail = new int[stateCount];
+        int[] output = new int[stateCount];
+
+        CompiledTrie trie = new CompiledTrie(firstChild, label, fail, output, value, depth, size);
+
+        //BFS 순서이므로 부모의 fail link는 항상 먼저 계산되어 있음
+        for (int state = 1; state < stateCount; state++) {
+            int parentState = parent[state];
+            int failState;
+            if (parentState == CompiledTrie.ROOT) {
+                failState = CompiledTrie.ROOT;
+            } else {
+                failState = trie.transition(fail[parentState], label[state]);
+            }
+            fail[state] = failState;
+            output[state] = value[failState] != CompiledTrie.NO_VALUE ? failState : output[failState];
+        }
+        return trie;
+    }
+}
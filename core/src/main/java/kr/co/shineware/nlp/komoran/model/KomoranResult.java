@@ -5,35 +5,75 @@ import kr.co.shineware.nlp.komoran.core.model.LatticeNode;
 import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
 import kr.co.shineware.util.common.model.Pair;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
- * Komoran을 통해 분석된 결과를 저장하고 있는 객체입니다.
+ * Komoran을 통해 분석된 결과를 저장하고 있는 객체입니다. </p>
+ * 분석 결과는 생성 시점에 형태소, 품사, jaso 단위 구간의 배열로 복사되며 이후에는 변경되지 않습니다.
+ * 형태소의 음절 조합, 입력 문장 내 위치, plainText와 같이 계산이 필요한 값은 처음 요청될 때 한 번만 계산하여 보관하므로
+ * 여러 결과 형식을 차례로 요청해도 같은 계산을 반복하지 않으며, 여러 thread나 cache에서 공유해도 안전합니다. </p>
+ * {@link Token}, {@link Pair}, {@link LatticeNode}는 변경 가능한 객체이므로 List를 반환하는 메소드는 호출할 때마다 새 객체를 만들어 반환합니다.
  */
 public class KomoranResult {
 
-    private List<LatticeNode> resultNodeList;
-    private String jasoUnits;
-    private KoreanUnitParser parser = new KoreanUnitParser();
+    private static final KoreanUnitParser PARSER = new KoreanUnitParser();
+
+    private final String jasoUnits;
+    //결과 node 별 형태소(jaso 단위), 품사, 품사 id, 점수
+    private final String[] morphs;
+    private final String[] tags;
+    private final int[] tagIds;
+    private final double[] scores;
+    //결과 node 별 jaso 단위 구간, 불규칙이거나 multi token 기분석 사전인 경우 시작 위치는 음수
+    private final int[] beginIdxs;
+    private final int[] endIdxs;
+
+    //처음 요청될 때 계산되는 값
+    private volatile String[] combinedMorphs;
+    private volatile int[][] syllableSpans;
+    private volatile String plainText;
 
     /**
      * KomoranResult 생성자 입니다. </p>
      * Komoran 내부에서 사용되며 대부분의 경우에 외부에서 사용되지 않습니다.
+     * 전달된 node는 복사되므로 이후에 node가 변경되어도 결과에는 영향이 없습니다.
      *
      * @param latticeNode
      * @param jasoUnits
      */
     public KomoranResult(List<LatticeNode> latticeNode, String jasoUnits) {
-        this.resultNodeList = latticeNode;
         this.jasoUnits = jasoUnits;
+        int size = latticeNode.size();
+        this.morphs = new String[size];
+        this.tags = new String[size];
+        this.tagIds = new int[size];
+        this.scores = new double[size];
+        this.beginIdxs = new int[size];
+        this.endIdxs = new int[size];
+        for (int i = 0; i < size; i++) {
+            LatticeNode node = latticeNode.get(i);
+            this.morphs[i] = node.getMorphTag().getMorph();
+            this.tags[i] = node.getMorphTag().getTag();
+            this.tagIds[i] = node.getMorphTag().getTagId();
+            this.scores[i] = node.getScore();
+            this.beginIdxs[i] = node.getBeginIdx();
+            this.endIdxs[i] = node.getEndIdx();
+        }
     }
 
     /**
-     * 분석 결과를 LatticeNode 리스트로 반환합니다.
+     * 분석 결과를 LatticeNode 리스트로 반환합니다. </p>
+     * 호출할 때마다 결과로부터 새로 만든 node를 반환하며, 이전 node의 index는 포함되지 않습니다.
      * @return 각 형태소의 LatticeNode List
      */
     public List<LatticeNode> getResultNodeList() {
-        return this.resultNodeList;
+        List<LatticeNode> resultNodeList = new ArrayList<>(this.morphs.length);
+        for (int i = 0; i < this.morphs.length; i++) {
+            resultNodeList.add(new LatticeNode(this.beginIdxs[i], this.endIdxs[i],
+                    new MorphTag(this.morphs[i], this.tags[i], this.tagIds[i]), this.scores[i]));
+        }
+        return resultNodeList;
     }
 
     /**
@@ -69,11 +109,12 @@ public class KomoranResult {
     public List<String> getMorphesByTags(Collection<String> targetPosCollection) {
 
         Set<String> targetPosSet = new HashSet<>(targetPosCollection);
+        String[] combinedMorphs = this.getCombinedMorphs();
 
         List<String> morphList = new ArrayList<>();
-        for (LatticeNode latticeNode : resultNodeList) {
-            if (targetPosSet.contains(latticeNode.getTag())) {
-                morphList.add(parser.combine(latticeNode.getMorphTag().getMorph()));
+        for (int i = 0; i < this.tags.length; i++) {
+            if (targetPosSet.contains(this.tags[i])) {
+                morphList.add(combinedMorphs[i]);
             }
         }
         return morphList;
@@ -88,18 +129,19 @@ public class KomoranResult {
      * @return 형태소 분석 결과의 plainText String
      */
     public String getPlainText() {
-        StringBuilder result = new StringBuilder();
-        for (LatticeNode latticeNode : resultNodeList) {
-            if (latticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
-                continue;
-            }
-            if (latticeNode.getTag().equals(SYMBOL.NA)) {
-                result.append(latticeNode.getMorphTag().getMorph()).append("/").append(latticeNode.getMorphTag().getTag()).append(" ");
-            } else {
-                result.append(parser.combine(latticeNode.getMorphTag().getMorph())).append("/").append(latticeNode.getTag()).append(" ");
+        String plainText = this.plainText;
+        if (plainText == null) {
+            StringBuilder result = new StringBuilder();
+            try {
+                KomoranResultWriter.writePlainText(this, result);
+            } catch (IOException e) {
+                //StringBuilder에 쓰는 경우에는 발생하지 않음
+                throw new IllegalStateException(e);
             }
+            plainText = result.toString();
+            this.plainText = plainText;
         }
-        return result.toString().trim();
+        return plainText;
     }
 
     /**
@@ -114,54 +156,123 @@ public class KomoranResult {
      * @return 형태소 분석 결과의 Token List
      */
     public List<Token> getTokenList() {
-        List<Pair<Integer, Integer>> syllableAreaList = parser.getSyllableAreaList(this.jasoUnits);
+        String[] combinedMorphs = this.getCombinedMorphs();
+        int[][] syllableSpans = this.getSyllableSpans();
         List<Token> tokenList = new ArrayList<>();
-        int prevBeginIdx = 0;
-        for (LatticeNode latticeNode : resultNodeList) {
-            if (latticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
+        for (int i = 0; i < this.tags.length; i++) {
+            if (this.isEndOfEojeol(i)) {
                 continue;
             }
-            //불규칙이거나 multi token 기분석 사전인 경우
-            if (latticeNode.getBeginIdx() < 0) {
-                latticeNode.setBeginIdx(prevBeginIdx);
-            }
-            Pair<Integer, Integer> syllableArea = this.getSyllableArea(latticeNode.getBeginIdx(), latticeNode.getEndIdx(), syllableAreaList);
-
-            tokenList.add(new Token(parser.combine(latticeNode.getMorphTag().getMorph()),
-                    parser.combine(latticeNode.getTag()), syllableArea.getFirst(), syllableArea.getSecond()));
-
-            prevBeginIdx = latticeNode.getBeginIdx();
+            tokenList.add(new Token(combinedMorphs[i], this.tags[i], syllableSpans[0][i], syllableSpans[1][i]));
         }
         return tokenList;
     }
 
-    private Pair<Integer, Integer> getSyllableArea(int jasoBeginIdx, int jasoEndIdx,
-                                                   List<Pair<Integer, Integer>> syllableAreaList) {
-        Pair<Integer, Integer> syllableAreaPair = new Pair<>();
-        for (int i = 0; i < syllableAreaList.size(); i++) {
-
-            if (syllableAreaList.get(i).getFirst() <= jasoBeginIdx && jasoBeginIdx <= syllableAreaList.get(i).getSecond()) {
-                syllableAreaPair.setFirst(i);
-            }
-            if (syllableAreaList.get(i).getFirst() < jasoEndIdx && jasoEndIdx <= syllableAreaList.get(i).getSecond()) {
-                syllableAreaPair.setSecond(i + 1);
-            }
-        }
-        return syllableAreaPair;
-    }
-
     /**
      * 분석 결과를 형태소, 품사 Pair의 List 형태로 반환합니다.
      * @return 형태소, 품사 정보가 담긴 Pair의 List
      */
     public List<Pair<String, String>> getList() {
+        String[] combinedMorphs = this.getCombinedMorphs();
         List<Pair<String, String>> resultList = new ArrayList<>();
-        for (LatticeNode latticeNode : resultNodeList) {
-            if (latticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
+        for (int i = 0; i < this.tags.length; i++) {
+            if (this.isEndOfEojeol(i)) {
                 continue;
             }
-            resultList.add(new Pair<>(parser.combine(latticeNode.getMorphTag().getMorph()), latticeNode.getTag()));
+            resultList.add(new Pair<>(combinedMorphs[i], this.tags[i]));
         }
         return resultList;
     }
+
+    //결과 writer와 columns에서 사용하는 node 별 접근자
+
+    int getNodeCount() {
+        return this.tags.length;
+    }
+
+    boolean isEndOfEojeol(int i) {
+        return this.tags[i].equals(SYMBOL.EOE);
+    }
+
+    //plainText에 쓰이는 형태소, 미분석 형태소는 입력 문장의 문자를 그대로 사용
+    String getPlainMorph(int i) {
+        return this.tags[i].equals(SYMBOL.NA) ? this.morphs[i] : this.getCombinedMorphs()[i];
+    }
+
+    String getMorph(int i) {
+        return this.getCombinedMorphs()[i];
+    }
+
+    String getTag(int i) {
+        return this.tags[i];
+    }
+
+    int getTagId(int i) {
+        return this.tagIds[i];
+    }
+
+    int getBeginIndex(int i) {
+        return this.getSyllableSpans()[0][i];
+    }
+
+    int getEndIndex(int i) {
+        return this.getSyllableSpans()[1][i];
+    }
+
+    //jaso 단위 형태소를 음절로 조합한 형태소
+    private String[] getCombinedMorphs() {
+        String[] combinedMorphs = this.combinedMorphs;
+        if (combinedMorphs == null) {
+            combinedMorphs = new String[this.morphs.length];
+            for (int i = 0; i < this.morphs.length; i++) {
+                combinedMorphs[i] = PARSER.combine(this.morphs[i]);
+            }
+            this.combinedMorphs = combinedMorphs;
+        }
+        return combinedMorphs;
+    }
+
+    //결과 node 별 입력 문장 내 음절 단위 시작 위치([0])와 끝 위치([1])
+    private int[][] getSyllableSpans() {
+        int[][] syllableSpans = this.syllableSpans;
+        if (syllableSpans == null) {
+            int[][] syllableIndexes = getSyllableIndexes(this.jasoUnits);
+            int[] beginSyllables = syllableIndexes[0];
+            int[] endSyllables = syllableIndexes[1];
+
+            syllableSpans = new int[2][this.morphs.length];
+            int prevBeginIdx = 0;
+            for (int i = 0; i < this.morphs.length; i++) {
+                if (this.isEndOfEojeol(i)) {
+                    continue;
+                }
+                //불규칙이거나 multi token 기분석 사전인 경우 이전 형태소의 시작 위치를 사용
+                int beginIdx = this.beginIdxs[i] < 0 ? prevBeginIdx : this.beginIdxs[i];
+                syllableSpans[0][i] = beginSyllables[beginIdx];
+                syllableSpans[1][i] = endSyllables[this.endIdxs[i]];
+                prevBeginIdx = beginIdx;
+            }
+            this.syllableSpans = syllableSpans;
+        }
+        return syllableSpans;
+    }
+
+    //jaso 위치에서 음절 위치로의 변환표, 시작 위치([0])는 jaso가 속한 음절, 끝 위치([1])는 마지막 jaso가 속한 음절의 다음 음절
+    static int[][] getSyllableIndexes(String jasoUnits) {
+        int[] beginSyllables = new int[jasoUnits.length() + 1];
+        int[] endSyllables = new int[jasoUnits.length() + 1];
+        List<Pair<Integer, Integer>> syllableAreaList = PARSER.getSyllableAreaList(jasoUnits);
+        for (int i = 0; i < syllableAreaList.size(); i++) {
+            int first = syllableAreaList.get(i).getFirst();
+            int second = syllableAreaList.get(i).getSecond();
+            //음절의 끝 jaso 바로 다음 위치는 다음 음절이 없는 경우에만 이 음절에 해당함
+            for (int jasoIdx = first; jasoIdx <= second; jasoIdx++) {
+                beginSyllables[jasoIdx] = i;
+            }
+            for (int jasoIdx = first + 1; jasoIdx <= second; jasoIdx++) {
+                endSyllables[jasoIdx] = i + 1;
+            }
+        }
+        return new int[][]{beginSyllables, endSyllables};
+    }
 }
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.model;
+
+import kr.co.shineware.nlp.komoran.constant.RESULT_FORMAT;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 형태소 분석 결과를 {@link Appendable}, {@link ByteBuffer}, {@link OutputStream}에 바로 씁니다. </p>
+ * 결과의 형태소와 품사 문자열을 그대로 이어 쓰므로 문장 별 결과 문자열을 만들지 않으며,
+ * ByteBuffer와 OutputStream에는 문자를 UTF-8로 직접 encoding하여 씁니다. </p>
+ * 형식은 {@link RESULT_FORMAT}을 참고하세요. 여러 결과를 쓰는 경우 PLAIN과 JSON은 결과 하나가 한 줄이 되며, CONLL은 결과 사이에 빈 줄이 들어갑니다.
+ * <pre>
+ *     KomoranResultWriter writer = new KomoranResultWriter(RESULT_FORMAT.CONLL);
+ *     writer.writeAll(komoran.analyze(sentences, 4), outputStream);
+ * </pre>
+ */
+public final class KomoranResultWriter {
+
+    //OutputStream에 쓸 때 사용하는 buffer 크기
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final RESULT_FORMAT format;
+
+    public KomoranResultWriter(RESULT_FORMAT format) {
+        if (format == null) {
+            throw new IllegalArgumentException("format is null");
+        }
+        this.format = format;
+    }
+
+    public RESULT_FORMAT getFormat() {
+        return this.format;
+    }
+
+    /**
+     * 결과 하나를 씁니다. 마지막에 줄바꿈은 쓰지 않습니다(CONLL의 경우 마지막 형태소의 줄바꿈까지 씁니다).
+     */
+    public void write(KomoranResult result, Appendable out) throws IOException {
+        switch (this.format) {
+            case PLAIN:
+                writePlainText(result, out);
+                break;
+            case CONLL:
+                writeConll(result, out);
+                break;
+            case JSON:
+                writeJson(result, out);
+                break;
+        }
+    }
+
+    /**
+     * 여러 결과를 차례로 쓰며, 각 결과 뒤에 줄바꿈을 씁니다.
+     */
+    public void writeAll(Iterable<KomoranResult> results, Appendable out) throws IOException {
+        for (KomoranResult result : results) {
+            this.write(result, out);
+            out.append('\n');
+        }
+    }
+
+    /**
+     * 결과 하나를 UTF-8로 buffer의 현재 위치부터 씁니다.
+     *
+     * @throws BufferOverflowException buffer의 남은 공간이 부족한 경우, 이미 쓴 byte는 buffer에 남아 있음
+     */
+    public void write(KomoranResult result, ByteBuffer out) {
+        try {
+            Utf8Output utf8Output = new Utf8Output(out);
+            this.write(result, utf8Output);
+            utf8Output.flush();
+        } catch (IOException e) {
+            //ByteBuffer에 쓰는 경우에는 발생하지 않음
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 여러 결과를 UTF-8로 buffer의 현재 위치부터 씁니다.
+     *
+     * @throws BufferOverflowException buffer의 남은 공간이 부족한 경우, 이미 쓴 byte는 buffer에 남아 있음
+     */
+    public void writeAll(Iterable<KomoranResult> results, ByteBuffer out) {
+        try {
+            Utf8Output utf8Output = new Utf8Output(out);
+            this.writeAll(results, utf8Output);
+            utf8Output.flush();
+        } catch (IOException e) {
+            //ByteBuffer에 쓰는 경우에는 발생하지 않음
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 결과 하나를 UTF-8로 stream에 씁니다. stream은 닫지 않습니다.
+     */
+    public void write(KomoranResult result, OutputStream out) throws IOException {
+        Utf8Output utf8Output = new Utf8Output(out);
+        this.write(result, utf8Output);
+        utf8Output.flush();
+    }
+
+    /**
+     * 여러 결과를 UTF-8로 stream에 씁니다. stream은 닫지 않습니다.
+     */
+    public void writeAll(Iterable<KomoranResult> results, OutputStream out) throws IOException {
+        Utf8Output utf8Output = new Utf8Output(out);
+        this.writeAll(results, utf8Output);
+        utf8Output.flush();
+    }
+
+    static void writePlainText(KomoranResult result, Appendable out) throws IOException {
+        boolean first = true;
+        for (int i = 0; i < result.getNodeCount(); i++) {
+            if (result.isEndOfEojeol(i)) {
+                continue;
+            }
+            if (!first) {
+                out.append(' ');
+            }
+            out.append(result.getPlainMorph(i)).append('/').append(result.getTag(i));
+            first = false;
+        }
+    }
+
+    private static void writeConll(KomoranResult result, Appendable out) throws IOException {
+        int tokenIdx = 0;
+        for (int i = 0; i < result.getNodeCount(); i++) {
+            if (result.isEndOfEojeol(i)) {
+                continue;
+            }
+            appendInt(out, ++tokenIdx);
+            out.append('\t').append(result.getMorph(i)).append('\t').append(result.getTag(i)).append('\t');
+            appendInt(out, result.getBeginIndex(i));
+            out.append('\t');
+            appendInt(out, result.getEndIndex(i));
+            out.append('\n');
+        }
+    }
+
+    private static void writeJson(KomoranResult result, Appendable out) throws IOException {
+        out.append("{\"tokens\":[");
+        boolean first = true;
+        for (int i = 0; i < result.getNodeCount(); i++) {
+            if (result.isEndOfEojeol(i)) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            out.append("{\"morph\":");
+            appendJsonString(out, result.getMorph(i));
+            out.append(",\"pos\":");
+            appendJsonString(out, result.getTag(i));
+            out.append(",\"beginIndex\":");
+            appendInt(out, result.getBeginIndex(i));
+            out.append(",\"endIndex\":");
+            appendInt(out, result.getEndIndex(i));
+            out.append('}');
+            first = false;
+        }
+        out.append("]}");
+    }
+
+    private static void appendJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        int plainBegin = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch >= 0x20 && ch != '"' && ch != '\\') {
+                continue;
+            }
+            //escape가 필요 없는 구간은 복사하지 않고 그대로 씀
+            out.append(value, plainBegin, i);
+            switch (ch) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00");
+                    out.append(Character.forDigit(ch >> 4, 16)).append(Character.forDigit(ch & 0xF, 16));
+                    break;
+            }
+            plainBegin = i + 1;
+        }
+        out.append(value, plainBegin, value.length());
+        out.append('"');
+    }
+
+    //Integer.toString으로 문자열을 만들지 않고 숫자를 씀
+    private static void appendInt(Appendable out, int value) throws IOException {
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * 문자를 UTF-8로 encoding하여 ByteBuffer나 OutputStream에 쓰는 Appendable입니다.
+     * surrogate pair는 두 문자가 모두 들어온 뒤 4 byte로 쓰며, 짝이 없는 surrogate는 '?'로 씁니다.
+     */
+    private static final class Utf8Output implements Appendable {
+        private final ByteBuffer buffer;
+        private final OutputStream outputStream;
+        //짝을 기다리는 high surrogate, 없는 경우 0
+        private char highSurrogate;
+
+        private Utf8Output(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.outputStream = null;
+        }
+
+        private Utf8Output(OutputStream outputStream) {
+            this.buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return this.append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                this.append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char ch) throws IOException {
+            if (this.highSurrogate != 0) {
+                char high = this.highSurrogate;
+                this.highSurrogate = 0;
+                if (Character.isLowSurrogate(ch)) {
+                    int codePoint = Character.toCodePoint(high, ch);
+                    this.reserve(4);
+                    this.buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    this.buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    this.buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    this.buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    return this;
+                }
+                this.reserve(1);
+                this.buffer.put((byte) '?');
+            }
+            if (ch < 0x80) {
+                this.reserve(1);
+                this.buffer.put((byte) ch);
+            } else if (ch < 0x800) {
+                this.reserve(2);
+                this.buffer.put((byte) (0xC0 | (ch >> 6)));
+                this.buffer.put((byte) (0x80 | (ch & 0x3F)));
+            } else if (Character.isHighSurrogate(ch)) {
+                this.highSurrogate = ch;
+            } else if (Character.isLowSurrogate(ch)) {
+                this.reserve(1);
+                this.buffer.put((byte) '?');
+            } else {
+                this.reserve(3);
+                this.buffer.put((byte) (0xE0 | (ch >> 12)));
+                this.buffer.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                this.buffer.put((byte) (0x80 | (ch & 0x3F)));
+            }
+            return this;
+        }
+
+        //문자 하나의 byte가 나뉘어 쓰이지 않도록 남은 공간을 확인
+        private void reserve(int size) throws IOException {
+            if (this.buffer.remaining() >= size) {
+                return;
+            }
+            if (this.outputStream == null) {
+                throw new BufferOverflowException();
+            }
+            this.flushBuffer();
+        }
+
+        private void flushBuffer() throws IOException {
+            this.outputStream.write(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.clear();
+        }
+
+        //짝이 없는 high surrogate를 쓰고 stream인 경우 buffer를 비움
+        private void flush() throws IOException {
+            if (this.highSurrogate != 0) {
+                this.highSurrogate = 0;
+                this.reserve(1);
+                this.buffer.put((byte) '?');
+            }
+            if (this.outputStream != null) {
+                this.flushBuffer();
+                this.outputStream.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.model;
+
+import kr.co.shineware.nlp.komoran.constant.SYMBOL;
+import kr.co.shineware.nlp.komoran.core.model.Lattice;
+import kr.co.shineware.nlp.komoran.core.model.LatticeNode;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 여러 문장의 분석 결과를 형태소 별 primitive 배열(column)로 모아 두는 객체입니다. </p>
+ * 형태소마다 {@link Token}을 만드는 대신 형태소 id, 품사 id, 입력 문장 내 시작 위치와 끝 위치를 배열에 이어 쓰며,
+ * 문장 i의 형태소는 {@link #getSentenceOffsets()}의 [i, i + 1) 구간에 있습니다. </p>
+ * 배열은 부족할 때 늘어나며 {@link #clear()} 후에도 유지되므로 같은 객체를 여러 batch에 다시 사용할 수 있습니다.
+ * 형태소 id는 처음 나타난 순서로 부여되며 clear 후에도 유지되므로 batch가 달라도 같은 형태소는 같은 id를 가집니다.
+ * 새로운 형태소가 나타날 때마다 형태소 id가 늘어나므로 오래 사용하는 경우에는 {@link #reset()}으로 형태소 id를 비우세요.
+ * 품사 id는 모델의 품사 id입니다. </p>
+ * thread-safe하지 않으므로 thread 별로 사용하세요.
+ * <pre>
+ *     TokenColumns columns = new TokenColumns();
+ *     komoran.analyze(sentences, columns);
+ *     int[] morphIds = columns.getMorphIds();
+ *     for (int i = 0; i &lt; columns.getTokenCount(); i++) {
+ *         String morph = columns.getMorph(morphIds[i]);
+ *     }
+ * </pre>
+ */
+public class TokenColumns {
+
+    private static final int INITIAL_TOKEN_CAPACITY = 1024;
+    private static final int INITIAL_SENTENCE_CAPACITY = 64;
+    private static final int INITIAL_MORPH_CAPACITY = 1024;
+    private static final int INITIAL_TAG_CAPACITY = 64;
+    private static final int INITIAL_PATH_CAPACITY = 64;
+    private static final KoreanUnitParser PARSER = new KoreanUnitParser();
+
+    //형태소 별 형태소 id, clear 후에도 유지됨
+    private Map<String, Integer> morphIdMap = new HashMap<>();
+    //lattice node의 jaso 단위 형태소 별 형태소 id, 음절로 조합하는 것은 처음 나타난 경우뿐임
+    private Map<String, Integer> jasoMorphIdMap = new HashMap<>();
+    //형태소 id 별 형태소
+    private String[] morphs = new String[INITIAL_MORPH_CAPACITY];
+    //품사 id 별 품사
+    private String[] tags = new String[INITIAL_TAG_CAPACITY];
+
+    private int[] morphIds;
+    private short[] tagIds;
+    private int[] beginIndexes;
+    private int[] endIndexes;
+    private int tokenCount;
+
+    private int[] sentenceOffsets;
+    private int sentenceCount;
+
+    //lattice의 최적 경로를 따라갈 때 다시 사용하는 버퍼
+    private LatticeNode[] pathNodes = new LatticeNode[INITIAL_PATH_CAPACITY];
+    private int[] pathEndIdxs = new int[INITIAL_PATH_CAPACITY];
+
+    public TokenColumns() {
+        this(INITIAL_TOKEN_CAPACITY, INITIAL_SENTENCE_CAPACITY);
+    }
+
+    /**
+     * @param tokenCapacity    처음 할당할 형태소 수
+     * @param sentenceCapacity 처음 할당할 문장 수
+     */
+    public TokenColumns(int tokenCapacity, int sentenceCapacity) {
+        if (tokenCapacity < 1 || sentenceCapacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.morphIds = new int[tokenCapacity];
+        this.tagIds = new short[tokenCapacity];
+        this.beginIndexes = new int[tokenCapacity];
+        this.endIndexes = new int[tokenCapacity];
+        this.sentenceOffsets = new int[sentenceCapacity + 1];
+    }
+
+    /**
+     * 분석 결과 하나를 문장 하나로 추가합니다.
+     */
+    public void add(KomoranResult result) {
+        int nodeCount = result.getNodeCount();
+        this.ensureTokenCapacity(this.tokenCount + nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            if (result.isEndOfEojeol(i)) {
+                continue;
+            }
+            int tagId = result.getTagId(i);
+            this.putTag(tagId, result.getTag(i));
+            this.morphIds[this.tokenCount] = this.getMorphId(result.getMorph(i));
+            this.tagIds[this.tokenCount] = (short) tagId;
+            this.beginIndexes[this.tokenCount] = result.getBeginIndex(i);
+            this.endIndexes[this.tokenCount] = result.getEndIndex(i);
+            this.tokenCount++;
+        }
+        this.endSentence();
+    }
+
+    /**
+     * lattice의 최적 경로를 문장 하나로 추가합니다. </p>
+     * Komoran 내부에서 사용되며, {@link KomoranResult}나 node List를 만들지 않고 끝 node에서 이전 node를 따라간 경로를 배열에 바로 씁니다.
+     *
+     * @param lattice   끝 node까지 연결된 1-best lattice
+     * @param jasoUnits lattice를 만든 문장의 jaso 단위 문자열
+     * @return 끝 node가 없어 추가하지 못한 경우 false
+     */
+    public boolean add(Lattice lattice, String jasoUnits) {
+        List<LatticeNode> endNodes = lattice.getNodeList(lattice.getLastIdx() + 1);
+        //마지막 연결 노드가 없는 경우
+        if (endNodes == null) {
+            return false;
+        }
+        LatticeNode endNode = endNodes.get(0);
+
+        //끝 node에서 이전 node를 따라가며 경로를 역순으로 모음
+        int pathLength = 0;
+        int nodeCount = 0;
+        int nextEndIdx = endNode.getEndIdx();
+        LatticeNode latticeNode = endNode;
+        do {
+            latticeNode = lattice.getNodeList(latticeNode.getBeginIdx()).get(latticeNode.getPrevNodeIdx());
+            if (pathLength == this.pathNodes.length) {
+                this.pathNodes = Arrays.copyOf(this.pathNodes, this.pathNodes.length * 2);
+                this.pathEndIdxs = Arrays.copyOf(this.pathEndIdxs, this.pathEndIdxs.length * 2);
+            }
+            //불규칙이거나 multi token 기분석 사전인 경우 다음 형태소의 끝 위치를 사용
+            nextEndIdx = latticeNode.getEndIdx() < 0 ? nextEndIdx : latticeNode.getEndIdx();
+            this.pathNodes[pathLength] = latticeNode;
+            this.pathEndIdxs[pathLength] = nextEndIdx;
+            pathLength++;
+            if (!latticeNode.getMorphTag().getTag().equals(SYMBOL.EOE)) {
+                nodeCount++;
+            }
+        } while (latticeNode.getBeginIdx() != 0);
+
+        //jaso 단위 구간은 입력 문장 내 음절 위치로 변환
+        int[][] syllableIndexes = KomoranResult.getSyllableIndexes(jasoUnits);
+        this.ensureTokenCapacity(this.tokenCount + nodeCount);
+        int prevBeginIdx = 0;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            latticeNode = this.pathNodes[i];
+            this.pathNodes[i] = null;
+            MorphTag morphTag = latticeNode.getMorphTag();
+            if (morphTag.getTag().equals(SYMBOL.EOE)) {
+                continue;
+            }
+            //불규칙이거나 multi token 기분석 사전인 경우 이전 형태소의 시작 위치를 사용
+            int beginIdx = latticeNode.getBeginIdx() < 0 ? prevBeginIdx : latticeNode.getBeginIdx();
+            this.putTag(morphTag.getTagId(), morphTag.getTag());
+            this.morphIds[this.tokenCount] = this.getMorphIdByJasoUnits(morphTag.getMorph());
+            this.tagIds[this.tokenCount] = (short) morphTag.getTagId();
+            this.beginIndexes[this.tokenCount] = syllableIndexes[0][beginIdx];
+            this.endIndexes[this.tokenCount] = syllableIndexes[1][this.pathEndIdxs[i]];
+            this.tokenCount++;
+            prevBeginIdx = beginIdx;
+        }
+        this.endSentence();
+        return true;
+    }
+
+    /**
+     * 추가된 형태소와 문장을 모두 지웁니다. 배열과 형태소 id는 유지됩니다.
+     */
+    public void clear() {
+        this.tokenCount = 0;
+        this.sentenceCount = 0;
+    }
+
+    /**
+     * 추가된 형태소와 문장을 모두 지우고 형태소 id도 비웁니다. </p>
+     * 이후에 추가되는 형태소는 0부터 다시 id를 부여받으므로 이전 batch의 형태소 id와 비교할 수 없습니다.
+     */
+    public void reset() {
+        this.clear();
+        this.morphIdMap = new HashMap<>();
+        this.jasoMorphIdMap = new HashMap<>();
+        this.morphs = new String[INITIAL_MORPH_CAPACITY];
+    }
+
+    public int getTokenCount() {
+        return this.tokenCount;
+    }
+
+    public int getSentenceCount() {
+        return this.sentenceCount;
+    }
+
+    /**
+     * 형태소 id 배열을 반환합니다. 복사하지 않은 내부 배열이므로 [0, {@link #getTokenCount()}) 구간만 유효하며,
+     * 이후에 형태소가 추가되면 다른 배열로 교체될 수 있습니다. 아래의 다른 배열도 같습니다.
+     */
+    public int[] getMorphIds() {
+        return this.morphIds;
+    }
+
+    public short[] getTagIds() {
+        return this.tagIds;
+    }
+
+    /**
+     * 형태소의 입력 문장 내 시작 위치 배열을 반환합니다. 위치는 {@link Token#getBeginIndex()}와 같습니다.
+     */
+    public int[] getBeginIndexes() {
+        return this.beginIndexes;
+    }
+
+    /**
+     * 형태소의 입력 문장 내 끝 위치 배열을 반환합니다. 위치는 {@link Token#getEndIndex()}와 같습니다.
+     */
+    public int[] getEndIndexes() {
+        return this.endIndexes;
+    }
+
+    /**
+     * 문장 별 첫 형태소의 index 배열을 반환합니다. [0, {@link #getSentenceCount()}] 구간이 유효하며,
+     * 마지막 원소는 {@link #getTokenCount()}와 같습니다.
+     */
+    public int[] getSentenceOffsets() {
+        return this.sentenceOffsets;
+    }
+
+    /**
+     * 지금까지 부여된 형태소 id의 수를 반환합니다.
+     */
+    public int getMorphCount() {
+        return this.morphIdMap.size();
+    }
+
+    public String getMorph(int morphId) {
+        return this.morphs[morphId];
+    }
+
+    /**
+     * @return 품사, 추가된 결과에 나타나지 않은 품사 id인 경우 null
+     */
+    public String getTag(int tagId) {
+        if (tagId < 0 || tagId >= this.tags.length) {
+            return null;
+        }
+        return this.tags[tagId];
+    }
+
+    private int getMorphId(String morph) {
+        Integer morphId = this.morphIdMap.get(morph);
+        if (morphId == null) {
+            morphId = this.morphIdMap.size();
+            if (morphId == this.morphs.length) {
+                this.morphs = Arrays.copyOf(this.morphs, this.morphs.length * 2);
+            }
+            this.morphs[morphId] = morph;
+            this.morphIdMap.put(morph, morphId);
+        }
+        return morphId;
+    }
+
+    private int getMorphIdByJasoUnits(String jasoMorph) {
+        Integer morphId = this.jasoMorphIdMap.get(jasoMorph);
+        if (morphId == null) {
+            morphId = this.getMorphId(PARSER.combine(jasoMorph));
+            this.jasoMorphIdMap.put(jasoMorph, morphId);
+        }
+        return morphId;
+    }
+
+    private void putTag(int tagId, String tag) {
+        if (tagId < 0 || tagId > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("tag id out of range : " + tagId);
+        }
+        if (tagId >= this.tags.length) {
+            this.tags = Arrays.copyOf(this.tags, Math.max(this.tags.length * 2, tagId + 1));
+        }
+        this.tags[tagId] = tag;
+    }
+
+    private void endSentence() {
+        if (this.sentenceCount + 2 > this.sentenceOffsets.length) {
+            this.sentenceOffsets = Arrays.copyOf(this.sentenceOffsets, this.sentenceOffsets.length * 2);
+        }
+        this.sentenceOffsets[++this.sentenceCount] = this.tokenCount;
+    }
+
+    private void ensureTokenCapacity(int capacity) {
+        if (capacity <= this.morphIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(this.morphIds.length * 2, capacity);
+        this.morphIds = Arrays.copyOf(this.morphIds, newCapacity);
+        this.tagIds = Arrays.copyOf(this.tagIds, newCapacity);
+        this.beginIndexes = Arrays.copyOf(this.beginIndexes, newCapacity);
+        this.endIndexes = Arrays.copyOf(this.endIndexes, newCapacity);
+    }
+}
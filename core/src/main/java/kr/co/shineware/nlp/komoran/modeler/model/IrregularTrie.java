@@ -18,15 +18,23 @@
 package kr.co.shineware.nlp.komoran.modeler.model;
 
 import kr.co.shineware.ds.aho_corasick.AhoCorasickDictionary;
+import kr.co.shineware.nlp.komoran.core.model.trie.AhoCorasickDictionaryReader;
 import kr.co.shineware.nlp.komoran.interfaces.FileAccessible;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class IrregularTrie implements FileAccessible{
 	private AhoCorasickDictionary<List<IrregularNode>> dic;
+	//AhoCorasickDictionary는 저장된 내용을 순회할 수 없으므로 추가된 key를 따로 보관
+	private Set<String> keySet;
 	
 	public IrregularTrie(){
 		this.init();
@@ -35,6 +43,7 @@ public class IrregularTrie implements FileAccessible{
 	public void init(){
 		this.dic = null;
 		this.dic = new AhoCorasickDictionary<>();
+		this.keySet = new LinkedHashSet<>();
 	}
 
 	public void put(String irr,IrregularNode irrNode){
@@ -54,9 +63,19 @@ public class IrregularTrie implements FileAccessible{
 				irrNodeList.add(irrNode);
 			}
 		}
+		this.put(irr, irrNodeList);
+	}
+
+	public void put(String irr, List<IrregularNode> irrNodeList){
 		this.dic.put(irr, irrNodeList);
+		this.keySet.add(irr);
 	}
-	
+
+	//getTrieDictionary()에 직접 추가한 key는 포함되지 않음
+	public Set<String> getKeySet(){
+		return Collections.unmodifiableSet(keySet);
+	}
+
 	public AhoCorasickDictionary<List<IrregularNode>> getTrieDictionary(){
 		return dic;
 	}
@@ -68,14 +87,30 @@ public class IrregularTrie implements FileAccessible{
 
 	@Override
 	public void load(String filename) {
-		this.dic.load(filename);		
+		this.load(new File(filename));
 	}
 
 	public void load(File file) {
-		this.dic.load(file);
+		try {
+			this.load(new FileInputStream(file));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
+	//key 목록을 함께 보관하기 위해 저장된 내용을 하나씩 다시 추가함
 	public void load(InputStream inputStream) {
-		this.dic.load(inputStream);
+		this.init();
+		try {
+			AhoCorasickDictionaryReader.read(inputStream, new AhoCorasickDictionaryReader.EntryHandler<List<IrregularNode>>() {
+				@Override
+				public void handle(String key, List<IrregularNode> value) {
+					put(key, value);
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		this.dic.buildFailLink();
 	}
 }
@@ -18,20 +18,28 @@
 package kr.co.shineware.nlp.komoran.modeler.model;
 
 import kr.co.shineware.ds.aho_corasick.AhoCorasickDictionary;
+import kr.co.shineware.nlp.komoran.core.model.trie.AhoCorasickDictionaryReader;
 import kr.co.shineware.nlp.komoran.interfaces.FileAccessible;
 import kr.co.shineware.nlp.komoran.interfaces.UnitParser;
 import kr.co.shineware.nlp.komoran.model.ScoredTag;
 import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Observation implements FileAccessible {
 
 	private AhoCorasickDictionary<List<ScoredTag>> observation;
 	private UnitParser parser;
+	//AhoCorasickDictionary는 저장된 내용을 순회할 수 없으므로 추가된 key(자소 단위)를 따로 보관
+	private Set<String> keySet;
 
 	public Observation() {
 		this.init();
@@ -40,6 +48,7 @@ public class Observation implements FileAccessible {
 	private void init() {
 		this.observation = new AhoCorasickDictionary<>();
 		this.parser = new KoreanUnitParser();
+		this.keySet = new LinkedHashSet<>();
 	}
 
 	public void put(String word, String tag, int tagId, double observationScore) {
@@ -59,9 +68,19 @@ public class Observation implements FileAccessible {
 				scoredTagList.add(new ScoredTag(tag, tagId, observationScore));
 			}
 		}
+		this.put(koreanUnits, scoredTagList);
+	}
+
+	public void put(String koreanUnits, List<ScoredTag> scoredTagList) {
 		this.observation.put(koreanUnits, scoredTagList);
+		this.keySet.add(koreanUnits);
 	}
-	
+
+	//getTrieDictionary()에 직접 추가한 key는 포함되지 않음
+	public Set<String> getKeySet() {
+		return Collections.unmodifiableSet(keySet);
+	}
+
 	public AhoCorasickDictionary<List<ScoredTag>> getTrieDictionary(){
 		return observation;
 	}
@@ -73,14 +92,31 @@ public class Observation implements FileAccessible {
 
 	@Override
 	public void load(String filename) {
-		observation.load(filename);	
+		this.load(new File(filename));
 	}
 
 	public void load(File file) {
-		observation.load(file);
+		try {
+			this.load(new FileInputStream(file));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 	}
 
+	//key 목록을 함께 보관하기 위해 저장된 내용을 하나씩 다시 추가함
 	public void load(InputStream is) {
-		observation.load(is);
+		this.observation = new AhoCorasickDictionary<>();
+		this.keySet.clear();
+		try {
+			AhoCorasickDictionaryReader.read(is, new AhoCorasickDictionaryReader.EntryHandler<List<ScoredTag>>() {
+				@Override
+				public void handle(String key, List<ScoredTag> value) {
+					put(key, value);
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		this.observation.buildFailLink();
 	}
 }
@@ -26,6 +26,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
 
 public class PosTable implements FileAccessible {
 
@@ -37,6 +39,11 @@ public class PosTable implements FileAccessible {
     //value = pos
     private Map<Integer, String> idPosTable;
 
+    //모델 별 세종 품사 id (pos.table이 변경되면 다시 생성)
+    private volatile SejongTagIdTable sejongTagIdTable;
+    //id 별 품사, 분석 중 품사 문자열을 HashMap 대신 배열에서 찾음 (pos.table이 변경되면 다시 생성)
+    private volatile String[] posArray;
+
     public Map<Integer, String> getIdPosTable() {
         return this.idPosTable;
     }
@@ -50,6 +57,8 @@ public class PosTable implements FileAccessible {
         this.idPosTable = null;
         this.posIdTable = new HashMap<String, Integer>();
         this.idPosTable = new HashMap<Integer, String>();
+        this.sejongTagIdTable = null;
+        this.posArray = null;
     }
 
     public void put(String pos) {
@@ -57,6 +66,8 @@ public class PosTable implements FileAccessible {
         if (id == null) {
             posIdTable.put(pos, posIdTable.size());
             idPosTable.put(idPosTable.size(), pos);
+            this.sejongTagIdTable = null;
+            this.posArray = null;
         }
     }
 
@@ -65,8 +76,61 @@ public class PosTable implements FileAccessible {
         return posIdTable.get(pos);
     }
 
+    /**
+     * 품사의 id를 반환합니다. 테이블에 없는 품사인 경우 null을 반환합니다.
+     */
+    public Integer findId(String pos) {
+        return posIdTable.get(pos);
+    }
+
+    /**
+     * 품사와 id의 대응 관계에 대한 CRC32 checksum을 반환합니다. 컴파일된 사전이 같은 pos.table로 만들어졌는지 확인할 때 사용합니다.
+     */
+    public long getChecksum() {
+        CRC32 crc = new CRC32();
+        //HashMap의 순서에 영향을 받지 않도록 id 순으로 계산
+        for (Entry<Integer, String> entry : new TreeMap<>(this.idPosTable).entrySet()) {
+            crc.update((entry.getValue() + "\t" + entry.getKey() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 이 pos.table 기준의 세종 품사 id 테이블을 반환합니다.
+     */
+    public SejongTagIdTable getSejongTagIdTable() {
+        SejongTagIdTable table = this.sejongTagIdTable;
+        if (table == null) {
+            table = new SejongTagIdTable(this);
+            this.sejongTagIdTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * id의 품사를 반환합니다. 테이블에 없는 id인 경우 null을 반환합니다.
+     */
     public String getPos(int id) {
-        return idPosTable.get(id);
+        String[] poses = this.posArray;
+        if (poses == null) {
+            poses = this.buildPosArray();
+            this.posArray = poses;
+        }
+        return id >= 0 && id < poses.length ? poses[id] : null;
+    }
+
+    private String[] buildPosArray() {
+        int maxId = -1;
+        for (Integer id : this.idPosTable.keySet()) {
+            maxId = Math.max(maxId, id);
+        }
+        String[] poses = new String[maxId + 1];
+        for (Entry<Integer, String> entry : this.idPosTable.entrySet()) {
+            if (entry.getKey() >= 0) {
+                poses[entry.getKey()] = entry.getValue();
+            }
+        }
+        return poses;
     }
 
     public int size() {
@@ -146,8 +210,11 @@ public class PosTable implements FileAccessible {
     }
 
     private void buildSejongTagId() {
+        this.sejongTagIdTable = new SejongTagIdTable(this);
+        this.posArray = this.buildPosArray();
+        //하위 호환을 위해 static id도 갱신 (분석 코드에서는 사용하지 않음)
         for (SEJONGTAGS value : SEJONGTAGS.values()) {
-            SEJONGTAGS.SET_ID(value, this.getId(value.name()));
+            SEJONGTAGS.SET_ID(value, this.sejongTagIdTable.getId(value));
         }
     }
 
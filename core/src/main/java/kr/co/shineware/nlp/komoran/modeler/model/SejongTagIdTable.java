@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.modeler.model;
+
+import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
+
+import java.util.Arrays;
+
+/**
+ * 모델(pos.table) 별 세종 품사 id 테이블입니다. </p>
+ * SEJONGTAGS의 static id 필드는 마지막으로 로드된 모델 기준으로 덮어써지므로,
+ * 분석 시에는 모델과 함께 로드된 이 테이블을 사용해야 여러 모델이 한 JVM에 공존할 수 있습니다. </p>
+ * 생성 이후에는 변경되지 않습니다.
+ */
+public final class SejongTagIdTable {
+
+    public static final int UNKNOWN_ID = -1;
+
+    private final int[] ids;
+
+    public SejongTagIdTable(PosTable posTable) {
+        SEJONGTAGS[] tags = SEJONGTAGS.values();
+        this.ids = new int[tags.length];
+        Arrays.fill(this.ids, UNKNOWN_ID);
+        for (SEJONGTAGS tag : tags) {
+            Integer id = posTable.findId(tag.name());
+            if (id != null) {
+                this.ids[tag.ordinal()] = id;
+            }
+        }
+    }
+
+    /**
+     * 세종 품사의 모델 내 id를 반환합니다.
+     *
+     * @param tag 세종 품사
+     * @return 품사 id, pos.table에 없는 품사인 경우 {@link #UNKNOWN_ID}
+     */
+    public int getId(SEJONGTAGS tag) {
+        return this.ids[tag.ordinal()];
+    }
+}
@@ -42,6 +42,12 @@ public class Transition implements FileAccessible{
 	public void put(int prevId, int curId, double transitionScore) {
 		scoreMatrix[prevId][curId] = transitionScore;
 	}
+	/**
+	 * 품사 수, 즉 전이 행렬의 크기를 반환합니다.
+	 */
+	public int size() {
+		return scoreMatrix.length;
+	}
 	public Double get(int prevId, int curId){
 		if(scoreMatrix[prevId][curId] == Double.NEGATIVE_INFINITY){
 			return null;
@@ -49,6 +55,13 @@ public class Transition implements FileAccessible{
 			return scoreMatrix[prevId][curId];
 		}
 	}
+	/**
+	 * 전이 점수를 boxing 없이 반환합니다. 분석 시 lattice에서 사용됩니다.
+	 * @return 전이 점수, 전이가 불가능한 경우 Double.NEGATIVE_INFINITY
+	 */
+	public double getScore(int prevId, int curId){
+		return scoreMatrix[prevId][curId];
+	}
 
 	@Override
 	public void save(String filename) {
@@ -20,7 +20,6 @@ package kr.co.shineware.nlp.komoran.parser;
 import kr.co.shineware.nlp.komoran.interfaces.UnitParser;
 import kr.co.shineware.util.common.model.Pair;
 
-import java.lang.Character.UnicodeBlock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -44,13 +43,19 @@ public class KoreanUnitParser implements UnitParser {
 
 
     public List<Pair<Character, UnitType>> parseWithType(String str) {
+        return this.parseWithType(str, 0, str.length());
+    }
+
+    /**
+     * str의 [beginIndex, endIndex) 구간을 자소 단위로 분할하고 각 자소의 종류를 함께 반환합니다.
+     * 구간을 String으로 복사하지 않고 원본에서 바로 분할합니다.
+     */
+    public List<Pair<Character, UnitType>> parseWithType(CharSequence str, int beginIndex, int endIndex) {
         List<Pair<Character, UnitType>> result = new ArrayList<>();
 
-        int length = str.length();
-        for (int i = 0; i < length; i++) {
+        for (int i = beginIndex; i < endIndex; i++) {
             char ch = str.charAt(i);
-            UnicodeBlock block = UnicodeBlock.of(ch);
-            if (block == UnicodeBlock.HANGUL_SYLLABLES) {
+            if (isHangulSyllable(ch)) {
                 int cho, jung, jong, tmp;
                 tmp = ch - 0xAC00;
                 cho = tmp / (21 * 28);
@@ -113,15 +118,20 @@ public class KoreanUnitParser implements UnitParser {
 
     @Override
     public String parse(String str) {
+        return this.parse(str, 0, str.length());
+    }
 
-        StringBuffer result = new StringBuffer();
+    /**
+     * str의 [beginIndex, endIndex) 구간을 자소 단위로 분할합니다. 구간을 String으로 복사하지 않고 원본에서 바로 분할합니다.
+     */
+    public String parse(CharSequence str, int beginIndex, int endIndex) {
 
-        int i = 0;
-        int length = str.length();
-        for (i = 0; i < length; i++) {
+        //한글 음절은 최대 3개의 자소로 분할됨
+        StringBuilder result = new StringBuilder((endIndex - beginIndex) * 3);
+
+        for (int i = beginIndex; i < endIndex; i++) {
             char ch = str.charAt(i);
-            UnicodeBlock block = UnicodeBlock.of(ch);
-            if (block == UnicodeBlock.HANGUL_SYLLABLES) {
+            if (isHangulSyllable(ch)) {
                 int cho, jung, jong, tmp;
                 tmp = ch - 0xAC00;
                 cho = tmp / (21 * 28);
@@ -203,6 +213,11 @@ public class KoreanUnitParser implements UnitParser {
     }
 
 
+    //UnicodeBlock.of 조회 대신 완성형 한글 음절의 범위를 비교
+    private static boolean isHangulSyllable(char ch) {
+        return ch >= 0xAC00 && ch <= 0xD7A3;
+    }
+
     private void appendSplitedSyllableList(int prevIdx,
                                            int endIdx, List<Pair<Integer, Integer>> targetList) {
         for (int i = prevIdx; i < endIdx; i++) {
@@ -1,6 +1,8 @@
 package kr.co.shineware.nlp.komoran.run;
 
+import kr.co.shineware.nlp.komoran.constant.RESULT_FORMAT;
 import kr.co.shineware.nlp.komoran.core.Komoran;
+import kr.co.shineware.nlp.komoran.model.KomoranResultWriter;
 import kr.co.shineware.nlp.komoran.modeler.builder.ModelBuilder;
 
 import java.io.BufferedReader;
@@ -71,6 +73,7 @@ public class KomoranConsoleRunner {
 		BufferedReader br = new BufferedReader(new FileReader(argMap.get("-in")));
 		BufferedWriter bw = new BufferedWriter(new FileWriter(argMap.get("-out")));
 		
+		KomoranResultWriter resultWriter = new KomoranResultWriter(RESULT_FORMAT.PLAIN);
 		String line = null;
 		
 		while((line = br.readLine()) != null){
@@ -78,7 +81,7 @@ public class KomoranConsoleRunner {
 			if(line.length() == 0){
 				continue;
 			}
-			bw.write(komoran.analyze(line).getPlainText());
+			resultWriter.write(komoran.analyze(line), bw);
 			bw.newLine();
 		}
 		
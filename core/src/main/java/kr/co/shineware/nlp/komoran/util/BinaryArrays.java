@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * KOMORAN 3.0 - Korean Morphology Analyzer
+ *
+ * Copyright 2015 Shineware http://www.shineware.co.kr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package kr.co.shineware.nlp.komoran.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * primitive 배열을 길이와 함께 big-endian으로 쓰고, ByteBuffer(memory-mapped file 등)에서 한 번에 읽습니다. </p>
+ * 읽을 때는 원소 단위로 읽지 않고 view buffer의 bulk get을 사용하므로 큰 배열도 memory copy 한 번으로 읽힙니다.
+ */
+public final class BinaryArrays {
+
+    private BinaryArrays() {
+    }
+
+    public static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    public static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+        out.writeInt(values.length);
+        for (short value : values) {
+            out.writeShort(value);
+        }
+    }
+
+    public static void writeChars(DataOutputStream out, char[] values) throws IOException {
+        out.writeInt(values.length);
+        for (char value : values) {
+            out.writeChar(value);
+        }
+    }
+
+    public static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * 문자열 배열을 씁니다. null 원소는 길이 -1로 기록합니다.
+     */
+    public static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(value.length());
+                out.writeChars(value);
+            }
+        }
+    }
+
+    public static int[] readInts(ByteBuffer buffer) {
+        int[] values = new int[readLength(buffer, 4)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    public static short[] readShorts(ByteBuffer buffer) {
+        short[] values = new short[readLength(buffer, 2)];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 2);
+        return values;
+    }
+
+    public static char[] readChars(ByteBuffer buffer) {
+        char[] values = new char[readLength(buffer, 2)];
+        buffer.asCharBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 2);
+        return values;
+    }
+
+    public static double[] readDoubles(ByteBuffer buffer) {
+        double[] values = new double[readLength(buffer, 8)];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 8);
+        return values;
+    }
+
+    public static String[] readStrings(ByteBuffer buffer) {
+        String[] values = new String[readLength(buffer, 4)];
+        for (int i = 0; i < values.length; i++) {
+            int length = buffer.getInt();
+            if (length == -1) {
+                continue;
+            }
+            char[] chars = new char[length];
+            buffer.asCharBuffer().get(chars);
+            buffer.position(buffer.position() + length * 2);
+            values[i] = new String(chars);
+        }
+        return values;
+    }
+
+    //잘못된 파일로 인해 큰 배열을 할당하지 않도록 남은 크기와 비교
+    private static int readLength(ByteBuffer buffer, int elementSize) {
+        int length = buffer.getInt();
+        if (length < 0 || (long) length * elementSize > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid array length : " + length);
+        }
+        return length;
+    }
+}
@@ -1,6 +1,8 @@
 package kr.co.shineware.nlp.komoran.benchmark;
 
+import kr.co.shineware.nlp.komoran.constant.SCORE_QUANTIZATION;
 import kr.co.shineware.nlp.komoran.core.Komoran;
+import kr.co.shineware.nlp.komoran.core.model.Resources;
 import kr.co.shineware.nlp.komoran.corpus.builder.CorpusBuilder;
 import kr.co.shineware.nlp.komoran.corpus.builder.FWDBuilder;
 import kr.co.shineware.nlp.komoran.model.Token;
@@ -16,12 +18,21 @@ public class CrossValidationTester {
     private List<String> trainingDataList;
     private int n;
     private boolean loggingIncorrectResults;
+    private SCORE_QUANTIZATION quantization;
     private BufferedWriter bw = null;
 
     public CrossValidationTester(List<String> trainingDataList, int n, boolean loggingIncorrectResults) {
+        this(trainingDataList, n, loggingIncorrectResults, null);
+    }
+
+    /**
+     * @param quantization 모델 점수의 양자화 방식, 양자화하지 않는 경우 null
+     */
+    public CrossValidationTester(List<String> trainingDataList, int n, boolean loggingIncorrectResults, SCORE_QUANTIZATION quantization) {
         this.trainingDataList = trainingDataList;
         this.n = n;
         this.loggingIncorrectResults = loggingIncorrectResults;
+        this.quantization = quantization;
         if (this.loggingIncorrectResults) {
             try {
                 bw = new BufferedWriter(new FileWriter("incorrect_log.txt"));
@@ -56,7 +67,7 @@ public class CrossValidationTester {
                 e.printStackTrace();
             }
         }
-        System.out.println("Average accuracy : " + (averageAccuracy / n));
+        System.out.println("Average accuracy" + (quantization == null ? "" : " (" + quantization + ")") + " : " + (averageAccuracy / n));
     }
 
     private double validation(List<String> trainingDataSet, List<String> testDataSet) {
@@ -67,7 +78,12 @@ public class CrossValidationTester {
         fwdBuilder.buildFromLine(trainingDataSet);
         fwdBuilder.save("fwd_validation.dic", 5);
 
-        Komoran komoran = new Komoran("models_validation");
+        Resources resources = new Resources();
+        resources.load("models_validation");
+        if (quantization != null) {
+            resources = resources.quantize(quantization);
+        }
+        Komoran komoran = new Komoran(resources);
         komoran.setFWDic("fwd_validation.dic");
 
         int correctCount = 0;
@@ -1,6 +1,7 @@
 package kr.co.shineware.nlp.komoran.benchmark;
 
 import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.constant.SCORE_QUANTIZATION;
 import kr.co.shineware.nlp.komoran.core.Komoran;
 import kr.co.shineware.nlp.komoran.corpus.model.Dictionary;
 import kr.co.shineware.util.common.file.FileUtil;
@@ -9,6 +10,7 @@ import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -54,6 +56,19 @@ public class PerformanceValidation {
 
     }
 
+    @Test
+    public void quantizedCrossValidation() {
+        List<String> lines = getTotalTrainingData("/Users/shinjunsoo/shineware/data/komoran_training_data", "refine.txt");
+        //양자화하지 않은 모델과 같은 데이터로 비교
+        List<SCORE_QUANTIZATION> quantizations = new ArrayList<>();
+        quantizations.add(null);
+        quantizations.addAll(Arrays.asList(SCORE_QUANTIZATION.values()));
+        for (SCORE_QUANTIZATION quantization : quantizations) {
+            CrossValidationTester crossValidationTester = new CrossValidationTester(lines, 10, false, quantization);
+            crossValidationTester.doTest();
+        }
+    }
+
     private List<String> getTotalTrainingData(String filePath, String filePostfix) {
         List<String> trainingDataSentences = new ArrayList<>();
         List<String> filenameList = FileUtil.getFileNames(filePath, filePostfix);
@@ -0,0 +1,79 @@
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.model.Token;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DocumentAnalyzerTest {
+
+    private static final String TEXT = "감기는 자주 걸리는 병이다.  밀리언 달러 베이비랑 바람과 함께 사라지다랑 뭐가 더 재밌었어? ㅋㅋ 123개";
+    private static final String[] INSERTIONS = {"", " ", "가", "는", "함께 ", "바람과", "사라지다", "  ", "abc", "."};
+
+    @Test
+    public void sameTokensAsWholeText() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        assertSameTokensAfterEdits(komoran);
+
+        //띄어쓰기가 포함된 사용자 사전 형태소는 어절 경계를 넘음
+        komoran.setUserDic("user_data/dic.user");
+        assertSameTokensAfterEdits(komoran);
+    }
+
+    @Test
+    public void editAtBoundaries() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        DocumentAnalyzer document = new DocumentAnalyzer(komoran);
+        assertSameTokens(komoran, document, document.edit(0, 0, "감기는"));
+        //문서 끝에 이어 쓰면 마지막 어절이 바뀜
+        assertSameTokens(komoran, document, document.edit(3, 0, " 자주"));
+        assertSameTokens(komoran, document, document.edit(6, 0, "자주"));
+        //어절 사이의 띄어쓰기를 지우면 두 어절이 합쳐짐
+        assertSameTokens(komoran, document, document.edit(3, 1, ""));
+        assertSameTokens(komoran, document, document.edit(0, document.getLength(), ""));
+        Assert.assertTrue(document.getTokenList().isEmpty());
+
+        try {
+            document.edit(1, 0, "가");
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    private static void assertSameTokensAfterEdits(Komoran komoran) {
+        DocumentAnalyzer document = new DocumentAnalyzer(komoran);
+        assertSameTokens(komoran, document, document.setText(TEXT));
+
+        Random random = new Random(2019);
+        for (int i = 0; i < 200; i++) {
+            int offset = random.nextInt(document.getLength() + 1);
+            int deletedLength = random.nextInt(Math.min(4, document.getLength() - offset) + 1);
+            String insertedText = INSERTIONS[random.nextInt(INSERTIONS.length)];
+            List<Token> tokenList = document.edit(offset, deletedLength, insertedText);
+            assertSameTokens(komoran, document, tokenList);
+        }
+    }
+
+    private static void assertSameTokens(Komoran komoran, DocumentAnalyzer document, List<Token> actual) {
+        String text = document.getText();
+        List<Token> expected = new ArrayList<>();
+        if (!text.isEmpty()) {
+            for (Token token : komoran.analyze(text).getTokenList()) {
+                //연속된 띄어쓰기 사이의 빈 미분석 형태소는 포함되지 않음
+                if (!token.getMorph().isEmpty()) {
+                    expected.add(token);
+                }
+            }
+        }
+        Assert.assertEquals(text, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(text, expected.get(i), actual.get(i));
+            Assert.assertEquals(text, expected.get(i).getBeginIndex(), actual.get(i).getBeginIndex());
+            Assert.assertEquals(text, expected.get(i).getEndIndex(), actual.get(i).getEndIndex());
+        }
+    }
+}
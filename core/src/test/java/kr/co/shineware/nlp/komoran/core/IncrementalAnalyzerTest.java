@@ -0,0 +1,58 @@
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.model.Token;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IncrementalAnalyzerTest {
+
+    private static final String TEXT = "감기는 자주 걸리는 병이다.  밀리언 달러 베이비랑 바람과 함께 사라지다랑 뭐가 더 재밌었어? ㅋㅋ 123개";
+
+    @Test
+    public void sameTokensAsWholeText() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        assertSameTokens(komoran);
+
+        //띄어쓰기가 포함된 사용자 사전 형태소는 어절 경계를 넘음
+        komoran.setUserDic("user_data/dic.user");
+        assertSameTokens(komoran);
+    }
+
+    private static void assertSameTokens(Komoran komoran) {
+        List<Token> expected = new ArrayList<>();
+        for (Token token : komoran.analyze(TEXT).getTokenList()) {
+            //연속된 띄어쓰기 사이의 빈 미분석 형태소는 전달되지 않음
+            if (!token.getMorph().isEmpty()) {
+                expected.add(token);
+            }
+        }
+        for (int chunkSize = 1; chunkSize <= 7; chunkSize += 3) {
+            final List<Token> actual = new ArrayList<>();
+            IncrementalAnalyzer analyzer = new IncrementalAnalyzer(komoran, new IncrementalAnalyzer.TokenListener() {
+                @Override
+                public void onToken(Token token) {
+                    actual.add(token);
+                }
+            });
+            int emittedBeforeFlush = 0;
+            for (int i = 0; i < TEXT.length(); i += chunkSize) {
+                analyzer.feed(TEXT.substring(i, Math.min(TEXT.length(), i + chunkSize)));
+                emittedBeforeFlush = actual.size();
+            }
+            analyzer.flush();
+            //마지막 어절 이전의 형태소는 flush 전에 전달됨
+            Assert.assertTrue(emittedBeforeFlush > 0);
+
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i), actual.get(i));
+                Assert.assertEquals(expected.get(i).getBeginIndex(), actual.get(i).getBeginIndex());
+                Assert.assertEquals(expected.get(i).getEndIndex(), actual.get(i).getEndIndex());
+            }
+        }
+    }
+}
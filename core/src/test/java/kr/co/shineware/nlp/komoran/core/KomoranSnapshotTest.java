@@ -0,0 +1,102 @@
+package kr.co.shineware.nlp.komoran.core;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.model.KomoranResult;
+import kr.co.shineware.nlp.komoran.model.Token;
+import kr.co.shineware.util.common.model.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class KomoranSnapshotTest {
+
+    private Komoran komoran;
+
+    @Before
+    public void initKomoran() {
+        this.komoran = new Komoran(DEFAULT_MODEL.STABLE);
+    }
+
+    @Test
+    public void swapSnapshot() throws Exception {
+        KomoranSnapshot initial = this.komoran.getSnapshot();
+        Assert.assertNull(initial.getUserDic());
+        Assert.assertNull(initial.getFwd());
+
+        KomoranSnapshot next = initial.toBuilder()
+                .userDic("user_data/dic.user")
+                .fwd("user_data/fwd.user")
+                .build();
+        Assert.assertTrue(this.komoran.compareAndSetSnapshot(initial, next));
+        Assert.assertFalse(this.komoran.compareAndSetSnapshot(initial, next));
+
+        //이전 snapshot은 변경되지 않음
+        Assert.assertNull(initial.getUserDic());
+        Assert.assertNotNull(this.komoran.getSnapshot().getFwd());
+        Assert.assertSame(initial.getResources(), this.komoran.getResources());
+        Assert.assertTrue(this.komoran.analyze("바람과 함께 사라지다를 봤어").getPlainText().contains("바람과 함께 사라지다/NNG"));
+    }
+
+    @Test
+    public void setFWDicPublishesLoadedDictionary() {
+        KomoranSnapshot initial = this.komoran.getSnapshot();
+        this.komoran.setFWDic("user_data/fwd.user");
+        Assert.assertNotSame(initial, this.komoran.getSnapshot());
+        Assert.assertFalse(this.komoran.getSnapshot().getFwd().isEmpty());
+        Assert.assertNull(initial.getFwd());
+    }
+
+    @Test
+    public void maxEojeolLengthSegmentsUnknownRun() {
+        String sentence = "감기는자주걸리는병이다ぁ밥을먹었다";
+        Assert.assertEquals(1, this.komoran.analyze(sentence).getList().size());
+
+        this.komoran.setMaxEojeolLength(8);
+        Assert.assertEquals(8, this.komoran.getSnapshot().getMaxEojeolLength());
+        //분석할 수 없는 문자만 미분석으로 처리됨
+        List<Pair<String, String>> morphPosPairs = this.komoran.analyze(sentence).getList();
+        int naCount = 0;
+        for (Pair<String, String> morphPosPair : morphPosPairs) {
+            if (morphPosPair.getSecond().equals("NA")) {
+                Assert.assertEquals("ぁ", morphPosPair.getFirst());
+                naCount++;
+            }
+        }
+        Assert.assertEquals(1, naCount);
+        Assert.assertTrue(morphPosPairs.size() > 1);
+    }
+
+    @Test
+    public void maxEojeolLengthAfterIrregularOnlyColumn() {
+        this.komoran.setMaxEojeolLength(1);
+        //불규칙 node만 있는 열에서 나눈 뒤 미분석 처리가 필요한 문장
+        String[] sentences = {"배송감사ㅋ1뷁", "매ㅋ!뷁", "해여ㅋa뷁", "빠른배송감사ㅋ1", "구매ㅋ!뷁 아여ㅋ1"};
+        for (String sentence : sentences) {
+            KomoranResult result = this.komoran.analyze(sentence);
+            Assert.assertFalse(sentence, result.getTokenList().isEmpty());
+        }
+        Assert.assertTrue(this.komoran.analyze("배송감사ㅋ1뷁").getPlainText().contains("감사/NNG"));
+    }
+
+    @Test
+    public void analyzeCharSequenceRange() {
+        String sentence = "감기는 자주 걸리는 ㅋㅋ 병이다";
+        KomoranResult expected = this.komoran.analyze(sentence);
+
+        Assert.assertEquals(expected.getPlainText(), this.komoran.analyze(new StringBuilder(sentence)).getPlainText());
+
+        //결과의 위치는 구간의 시작을 0으로 함
+        char[] buffer = ("앞 문장입니다\n" + sentence + "\n뒤").toCharArray();
+        KomoranResult actual = this.komoran.analyze(buffer, 8, sentence.length());
+        Assert.assertEquals(expected.getPlainText(), actual.getPlainText());
+        List<Token> expectedTokens = expected.getTokenList();
+        List<Token> actualTokens = actual.getTokenList();
+        Assert.assertEquals(expectedTokens.size(), actualTokens.size());
+        for (int i = 0; i < expectedTokens.size(); i++) {
+            Assert.assertEquals(expectedTokens.get(i).getBeginIndex(), actualTokens.get(i).getBeginIndex());
+            Assert.assertEquals(expectedTokens.get(i).getEndIndex(), actualTokens.get(i).getEndIndex());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.core.model.trie.CompiledTrie;
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import kr.co.shineware.nlp.komoran.modeler.model.IrregularNode;
+import kr.co.shineware.nlp.komoran.modeler.model.Observation;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import kr.co.shineware.util.common.model.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AnalysisDictionaryTest {
+
+    @Test
+    public void singleWalkReturnsAllKinds() {
+        AnalysisDictionary dictionary = new AnalysisDictionary.Builder()
+                .putObservation("ab", Collections.singletonList(new ScoredTag("NNG", 7, -1.0)))
+                .putObservation("b", Collections.singletonList(new ScoredTag("NNP", 9, -2.0)))
+                .putIrregular("ab", Collections.singletonList(new IrregularNode()))
+                .putIrregular("xb", Collections.singletonList(new IrregularNode()))
+                .build();
+
+        int state = CompiledTrie.ROOT;
+        state = dictionary.transition(state, 'a');
+        state = dictionary.transition(state, 'b');
+
+        List<Integer> observationLengths = new ArrayList<>();
+        List<Integer> irregularLengths = new ArrayList<>();
+        for (int match = dictionary.firstMatch(state); match != CompiledTrie.NONE; match = dictionary.nextMatch(match)) {
+            if (dictionary.getScoredTags(match) != null) {
+                observationLengths.add(dictionary.getLength(match));
+            }
+            if (dictionary.getIrregularNodes(match) != null) {
+                irregularLengths.add(dictionary.getLength(match));
+            }
+        }
+        Assert.assertEquals(Arrays.asList(2, 1), observationLengths);
+        Assert.assertEquals(Collections.singletonList(2), irregularLengths);
+
+        Assert.assertEquals(2, dictionary.getObservationSize());
+        Assert.assertEquals(2, dictionary.getIrregularSize());
+        Assert.assertTrue(dictionary.hasChild("a", AnalysisDictionary.OBSERVATION));
+        Assert.assertFalse(dictionary.hasChild("x", AnalysisDictionary.OBSERVATION));
+        Assert.assertTrue(dictionary.hasChild("x", AnalysisDictionary.IRREGULAR));
+        Assert.assertNull(dictionary.getScoredTags("xb"));
+    }
+
+    @Test
+    public void irregularTokensAreResolvedAtBuild() {
+        IrregularNode irregularNode = new IrregularNode();
+        irregularNode.setTokens(Arrays.asList(new Pair<>("a", 7), new Pair<>("b", 3)));
+        AnalysisDictionary dictionary = new AnalysisDictionary.Builder()
+                .putObservation("a", Arrays.asList(new ScoredTag("NNP", 9, -2.0), new ScoredTag("NNG", 7, -1.0)))
+                .putObservation("b", Collections.singletonList(new ScoredTag("NNP", 9, -3.0)))
+                .putIrregular("ab", Collections.singletonList(irregularNode))
+                .build();
+
+        int state = dictionary.transition(dictionary.transition(CompiledTrie.ROOT, 'a'), 'b');
+        IrregularExpansion[] expansions = dictionary.getIrregularExpansions(dictionary.firstMatch(state));
+        Assert.assertEquals(1, expansions.length);
+        Assert.assertSame(irregularNode, expansions[0].getIrregularNode());
+        Assert.assertEquals("NNG", expansions[0].getTag(0));
+        Assert.assertEquals(-1.0, expansions[0].getScore(0), 0.0);
+        //관측 사전에 같은 품사가 없는 token은 점수가 없음
+        Assert.assertFalse(expansions[0].hasScore(1));
+    }
+
+    @Test
+    public void legacyObservationRoundTrip() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        AnalysisDictionary dictionary = resources.getAnalysisDictionary();
+
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+        String key = unitParser.parse("감기");
+        Observation observation = resources.getObservation();
+        Assert.assertEquals(dictionary.getScoredTags(key).size(),
+                observation.getTrieDictionary().getValue(key).size());
+
+        //수정한 관측 사전으로 만든 모델의 분석용 automaton에 반영되어야 함
+        observation.put("꿹꿹", "NNG", resources.getTable().getId("NNG"), -1.0);
+        Resources modified = resources.withObservation(observation);
+        Assert.assertNotNull(modified.getAnalysisDictionary().getScoredTags(unitParser.parse("꿹꿹")));
+        Assert.assertEquals(dictionary.getIrregularSize(), modified.getAnalysisDictionary().getIrregularSize());
+        //공유되는 원래 모델은 바뀌지 않아야 함
+        Assert.assertSame(dictionary, resources.getAnalysisDictionary());
+        Assert.assertSame(resources.getTable(), modified.getTable());
+
+        //불규칙 사전을 다시 설정해도 수정한 관측 사전은 유지되어야 함
+        Resources reloaded = modified.withIrrTrie(modified.getIrrTrie());
+        Assert.assertNotNull(reloaded.getAnalysisDictionary().getScoredTags(unitParser.parse("꿹꿹")));
+        Assert.assertEquals(dictionary.getIrregularSize(), reloaded.getAnalysisDictionary().getIrregularSize());
+    }
+
+    @Test
+    public void loadedResourcesCannotBeModified() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        Assert.assertTrue(resources.isLoaded());
+        try {
+            resources.setObservation(resources.getObservation());
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        try {
+            resources.setIrrTrie(resources.getIrrTrie());
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertTrue(resources.withObservation(resources.getObservation()).isLoaded());
+    }
+}
@@ -0,0 +1,37 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CharacterClassTableTest {
+
+    @Test
+    public void classifyCharacters() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        CharacterClassTable table = resources.getAnalysisDictionary().getCharacterClassTable();
+
+        Assert.assertEquals(CharacterClassTable.SL, table.getSymbolClass('a'));
+        Assert.assertEquals(CharacterClassTable.SN, table.getSymbolClass('7'));
+        Assert.assertEquals(CharacterClassTable.SH, table.getSymbolClass('漢'));
+        Assert.assertEquals(CharacterClassTable.NONE, table.getSymbolClass('ㄱ'));
+        Assert.assertEquals(CharacterClassTable.NONE, table.getSymbolClass('#'));
+
+        Assert.assertTrue(table.isSymbol('★'));
+        Assert.assertFalse(table.isSymbol(' '));
+        Assert.assertFalse(table.isSymbol('a'));
+        Assert.assertFalse(table.isSymbol('ㄱ'));
+
+        //관측 사전에 있는 한 글자 기호는 SW로 추가하지 않음
+        for (char ch = 0; ch < 0x80; ch++) {
+            boolean dictionaryEntry = resources.getAnalysisDictionary().containsObservation(String.valueOf(ch));
+            Assert.assertEquals(dictionaryEntry, table.isDictionaryEntry(ch));
+            if (dictionaryEntry) {
+                Assert.assertFalse(table.isSymbol(ch));
+                Assert.assertTrue(table.isDictionaryCharacter(ch));
+            }
+        }
+        Assert.assertTrue(table.isDictionaryCharacter('ㄱ'));
+    }
+}
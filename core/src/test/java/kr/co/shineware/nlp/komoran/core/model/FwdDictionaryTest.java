@@ -0,0 +1,58 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import kr.co.shineware.util.common.model.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class FwdDictionaryTest {
+
+    @Test
+    public void entriesArePerfectlyHashed() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+
+        String[] stems = {"감기", "바람", "사과", "학교", "코모란"};
+        String[] josas = {"는", "가", "를", "도", "에서", "에게"};
+        FwdDictionary.Builder builder = new FwdDictionary.Builder(resources.getTable());
+        Map<String, List<Pair<String, String>>> expected = new HashMap<>();
+        for (String stem : stems) {
+            for (String josa : josas) {
+                List<Pair<String, String>> analysis = Arrays.asList(new Pair<>(stem, "NNG"), new Pair<>(josa, "JX"));
+                String key = unitParser.parse(stem + josa);
+                builder.put(key, analysis);
+                expected.put(key, analysis);
+            }
+        }
+        FwdDictionary fwd = builder.build();
+
+        Assert.assertEquals(expected.size(), fwd.size());
+        Set<Integer> entries = new HashSet<>();
+        for (Map.Entry<String, List<Pair<String, String>>> entry : expected.entrySet()) {
+            entries.add(fwd.find(entry.getKey(), 0, entry.getKey().length()));
+            List<Pair<String, String>> analysis = fwd.get(entry.getKey());
+            Assert.assertEquals(entry.getValue().size(), analysis.size());
+            for (int i = 0; i < analysis.size(); i++) {
+                Assert.assertEquals(entry.getValue().get(i).getFirst(), analysis.get(i).getFirst());
+                Assert.assertEquals(entry.getValue().get(i).getSecond(), analysis.get(i).getSecond());
+            }
+            Assert.assertEquals(fwd.find(entry.getKey(), 0, entry.getKey().length()),
+                    fwd.findWord(entry.getKey() + " " + entry.getKey(), 0));
+        }
+        Assert.assertEquals(expected.size(), entries.size());
+        Assert.assertFalse(entries.contains(FwdDictionary.NONE));
+        Assert.assertNull(fwd.get(unitParser.parse("감기")));
+        Assert.assertEquals(FwdDictionary.NONE, fwd.findWord(unitParser.parse("감기는요"), 0));
+
+        //조사 부분의 상태는 모든 어간이 공유
+        int stemStates = 0;
+        for (String stem : stems) {
+            stemStates += unitParser.parse(stem).length();
+        }
+        Assert.assertTrue(fwd.getStateCount() < stemStates + 20);
+    }
+}
@@ -0,0 +1,44 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class JasoSequenceTest {
+
+    @Test
+    public void roundTripAndOrder() {
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+        String[] words = {"", "감기", "감기는", "자주 걸리는 병이다", "바람과함께사라지다", "KOMORAN3.0은", "ㄱ", "1 2"};
+        String[] keys = new String[words.length];
+        JasoSequence[] sequences = new JasoSequence[words.length];
+        for (int i = 0; i < words.length; i++) {
+            keys[i] = unitParser.parse(words[i]);
+            sequences[i] = JasoSequence.of(keys[i]);
+            Assert.assertEquals(keys[i], sequences[i].toString());
+            Assert.assertEquals(keys[i].length(), sequences[i].length());
+            Assert.assertEquals(sequences[i], JasoSequence.of("#" + keys[i] + "#", 1, keys[i].length() + 1));
+            Assert.assertEquals(sequences[i].hashCode(), JasoSequence.of(keys[i]).hashCode());
+        }
+        Arrays.sort(keys);
+        Arrays.sort(sequences);
+        for (int i = 0; i < words.length; i++) {
+            Assert.assertEquals(keys[i], sequences[i].toString());
+        }
+    }
+
+    @Test
+    public void startsWith() {
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+        JasoSequence sequence = JasoSequence.of(unitParser.parse("바람과함께사라지다"));
+        for (int i = 0; i <= sequence.length(); i++) {
+            Assert.assertTrue(sequence.startsWith(sequence.subSequence(0, i)));
+        }
+        Assert.assertFalse(sequence.startsWith(JasoSequence.of(unitParser.parse("바람과함께사라진"))));
+        Assert.assertTrue(JasoSequence.of("ㄱA1").startsWith(JasoSequence.of("ㄱA")));
+        Assert.assertFalse(JasoSequence.of("ㄱA1").startsWith(JasoSequence.of("ㄱB")));
+        Assert.assertNotEquals(JasoSequence.of("ㄱA"), JasoSequence.of("ㄱB"));
+    }
+}
@@ -0,0 +1,28 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class LatticeTest {
+
+    @Test
+    public void defaultCombinationRuleChecker() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        String jasoUnits = new KoreanUnitParser().parse("감기");
+
+        //결합 규칙 검사기를 지정하지 않아도 기본 검사기로 분석되어야 함
+        Lattice lattice = new Lattice(resources, null);
+        Assert.assertTrue(lattice.put(0, jasoUnits.length(), jasoUnits, resources.getTable().getId("NNG"), -1.0));
+        lattice.setLastIdx(jasoUnits.length());
+        Assert.assertTrue(lattice.appendEndNode());
+
+        List<List<LatticeNode>> nBestPath = lattice.findNBestPath();
+        Assert.assertNotNull(nBestPath);
+        Assert.assertEquals("NNG", nBestPath.get(0).get(1).getMorphTag().getTag());
+    }
+}
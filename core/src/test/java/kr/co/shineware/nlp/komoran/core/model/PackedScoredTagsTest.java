@@ -0,0 +1,53 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.model.ScoredTag;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PackedScoredTagsTest {
+
+    @Test
+    public void packAndView() {
+        PackedScoredTags.Builder builder = new PackedScoredTags.Builder();
+        List<ScoredTag> first = Arrays.asList(new ScoredTag("NNG", 7, -3.25), new ScoredTag("VV", 0, -1.5));
+        int firstEntry = builder.add(first);
+        int emptyEntry = builder.add(Collections.<ScoredTag>emptyList());
+        int lastEntry = builder.add(Collections.singletonList(new ScoredTag("EC", 20, -0.125)));
+        PackedScoredTags packed = builder.build();
+
+        Assert.assertEquals(3, packed.size());
+        Assert.assertEquals(packed.getBegin(emptyEntry), packed.getEnd(emptyEntry));
+        Assert.assertEquals("EC", packed.getTag(packed.getBegin(lastEntry)));
+        Assert.assertEquals(20, packed.getTagId(packed.getBegin(lastEntry)));
+
+        List<ScoredTag> view = packed.getScoredTags(firstEntry);
+        Assert.assertEquals(2, view.size());
+        for (int i = 0; i < first.size(); i++) {
+            Assert.assertEquals(first.get(i).getTag(), view.get(i).getTag());
+            Assert.assertEquals(first.get(i).getTagId(), view.get(i).getTagId());
+            Assert.assertEquals(first.get(i).getScore(), view.get(i).getScore(), 0.0);
+        }
+    }
+
+    @Test
+    public void duplicateTag() {
+        PackedScoredTags.Builder builder = new PackedScoredTags.Builder();
+        int firstEntry = builder.add(Arrays.asList(new ScoredTag("EC", 20, -0.5), new ScoredTag("NNG", 7, -2.0)));
+        int lastEntry = builder.add(Collections.singletonList(new ScoredTag("NNG", 7, -1.0)));
+        PackedScoredTags duplicated = builder.build().duplicateTag(20, 21, "EF");
+
+        Assert.assertEquals(2, duplicated.size());
+        List<ScoredTag> first = duplicated.getScoredTags(firstEntry);
+        Assert.assertEquals(3, first.size());
+        Assert.assertEquals("EC", first.get(0).getTag());
+        Assert.assertEquals("EF", first.get(1).getTag());
+        Assert.assertEquals(21, first.get(1).getTagId());
+        Assert.assertEquals(-0.5, first.get(1).getScore(), 0.0);
+        Assert.assertEquals("NNG", first.get(2).getTag());
+        Assert.assertEquals(1, duplicated.getScoredTags(lastEntry).size());
+    }
+}
@@ -0,0 +1,70 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.constant.SEJONGTAGS;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.modeler.model.SejongTagIdTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class ResourcesRegistryTest {
+
+    @Test
+    public void acquireAndRelease() {
+        ResourcesRegistry registry = new ResourcesRegistry();
+        Resources first = registry.acquire(DEFAULT_MODEL.STABLE);
+        Resources second = registry.acquire(DEFAULT_MODEL.STABLE);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(2, registry.getReferenceCount(first));
+        Assert.assertEquals(1, registry.size());
+
+        Assert.assertEquals(1, registry.release(first));
+        Assert.assertEquals(0, registry.release(second));
+        Assert.assertEquals(0, registry.size());
+        Assert.assertEquals(-1, registry.release(first));
+    }
+
+    @Test
+    public void failedLoadIsNotRegistered() {
+        ResourcesRegistry registry = new ResourcesRegistry() {
+            @Override
+            Resources load(String modelPath, DEFAULT_MODEL modelType) {
+                throw new IllegalStateException("broken model");
+            }
+        };
+        try {
+            registry.acquire(DEFAULT_MODEL.STABLE);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void tagIdsArePerModel() {
+        ResourcesRegistry registry = new ResourcesRegistry();
+        Resources resources = registry.acquire(DEFAULT_MODEL.STABLE);
+        Komoran komoran = new Komoran(resources);
+        String expected = komoran.analyze("감기는 자주 걸리는 병이다").getPlainText();
+
+        //다른 id 체계를 가진 pos.table을 로드해도 먼저 로드된 모델에는 영향이 없어야 함
+        StringBuilder otherTable = new StringBuilder();
+        SEJONGTAGS[] tags = SEJONGTAGS.values();
+        for (int i = 0; i < tags.length; i++) {
+            otherTable.append(tags[i].name()).append("\t").append(tags.length - i - 1).append("\n");
+        }
+        PosTable otherPosTable = new PosTable();
+        otherPosTable.load(new StringReader(otherTable.toString()));
+        SejongTagIdTable otherIds = otherPosTable.getSejongTagIdTable();
+
+        Assert.assertEquals(tags.length - 1, otherIds.getId(tags[0]));
+        Assert.assertNotEquals(otherIds.getId(SEJONGTAGS.EF), resources.getSejongTagIdTable().getId(SEJONGTAGS.EF));
+        Assert.assertEquals(expected, komoran.analyze("감기는 자주 걸리는 병이다").getPlainText());
+
+        registry.release(resources);
+    }
+}
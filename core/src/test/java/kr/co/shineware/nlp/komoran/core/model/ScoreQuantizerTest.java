@@ -0,0 +1,77 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.constant.SCORE_QUANTIZATION;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import kr.co.shineware.nlp.komoran.modeler.model.Transition;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScoreQuantizerTest {
+
+    @Test
+    public void fixedPointScoresAreOnGrid() {
+        ScoreQuantizer quantizer = ScoreQuantizer.create(SCORE_QUANTIZATION.FIXED_16, new double[]{-7.3, -0.01, -2.5});
+        Assert.assertEquals(12, quantizer.getFractionBits());
+        double quantized = quantizer.quantize(-7.3);
+        Assert.assertEquals(-7.3, quantized, quantizer.getStep() / 2);
+        Assert.assertEquals(0.0, quantized / quantizer.getStep() - Math.rint(quantized / quantizer.getStep()), 0.0);
+        Assert.assertTrue(quantizer.encode(-7.3) >= Short.MIN_VALUE);
+    }
+
+    @Test
+    public void codebookPicksNearestValue() {
+        double[] scores = new double[1000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = -i / 100.0;
+        }
+        ScoreQuantizer quantizer = ScoreQuantizer.create(SCORE_QUANTIZATION.CODEBOOK_8, scores);
+        Assert.assertEquals(256, quantizer.getCodebookSize());
+        for (double score : scores) {
+            int code = quantizer.encode(score);
+            Assert.assertTrue(code >= 0 && code < 256);
+            Assert.assertEquals(score, quantizer.decode(code), 0.03);
+        }
+    }
+
+    @Test
+    public void quantizedModelAnalyzes() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        Resources quantized = resources.quantize(SCORE_QUANTIZATION.FIXED_16);
+
+        Assert.assertNull(resources.getScoreQuantizer());
+        Assert.assertNotNull(quantized.getScoreQuantizer());
+        Assert.assertSame(resources.getTable(), quantized.getTable());
+        Assert.assertEquals(new Komoran(resources).analyze("감기는 자주 걸리는 병이다").getPlainText(),
+                new Komoran(quantized).analyze("감기는 자주 걸리는 병이다").getPlainText());
+    }
+
+    @Test
+    public void quantizedTransitionKeepsCodes() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        for (SCORE_QUANTIZATION quantization : SCORE_QUANTIZATION.values()) {
+            Resources quantized = resources.quantize(quantization);
+            Assert.assertTrue(quantized.getTransition() instanceof QuantizedTransition);
+
+            ScoreQuantizer quantizer = quantized.getScoreQuantizer();
+            Transition transition = resources.getTransition();
+            Assert.assertEquals(transition.size(), quantized.getTransition().size());
+            for (int prevId = 0; prevId < transition.size(); prevId++) {
+                for (int curId = 0; curId < transition.size(); curId++) {
+                    Double transitionScore = transition.get(prevId, curId);
+                    Double quantizedScore = quantized.getTransition().get(prevId, curId);
+                    double primitiveScore = quantized.getTransition().getScore(prevId, curId);
+                    if (transitionScore == null) {
+                        Assert.assertNull(quantizedScore);
+                        Assert.assertEquals(Double.NEGATIVE_INFINITY, primitiveScore, 0.0);
+                    } else {
+                        Assert.assertEquals(quantizer.quantize(transitionScore), quantizedScore, 0.0);
+                        Assert.assertEquals(quantizedScore, primitiveScore, 0.0);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package kr.co.shineware.nlp.komoran.core.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import kr.co.shineware.nlp.komoran.core.KomoranView;
+import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class UserDictionaryTest {
+
+    private Komoran komoran;
+    private KoreanUnitParser unitParser;
+
+    @Before
+    public void initKomoran() {
+        this.komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        this.unitParser = new KoreanUnitParser();
+    }
+
+    @Test
+    public void addAndRemoveEntry() {
+        String sentence = "코모란은 형태소 분석기다";
+        String before = this.komoran.analyze(sentence).getPlainText();
+        Assert.assertFalse(before.contains("코모란/NNP"));
+
+        this.komoran.addUserDicEntry("코모란", "NNP");
+        Assert.assertTrue(this.komoran.analyze(sentence).getPlainText().contains("코모란/NNP"));
+
+        this.komoran.removeUserDicEntry("코모란");
+        Assert.assertEquals(before, this.komoran.analyze(sentence).getPlainText());
+    }
+
+    @Test
+    public void compactKeepsEntries() {
+        UserDictionary userDic = UserDictionary.empty(this.komoran.getResources().getTable());
+        userDic = userDic.add("코모란", "NNP").add("코모란", "NNG").add("샤인웨어", "NNP");
+        Assert.assertSame(userDic, userDic.add("코모란", "NNP"));
+
+        UserDictionary compacted = userDic.compact();
+        Assert.assertEquals(0, compacted.getDeltaSize());
+        Assert.assertEquals(2, compacted.getScoredTags(this.unitParser.parse("코모란")).size());
+
+        //compact 이후의 변경은 delta로 남고, base의 형태소를 가릴 수 있어야 함
+        UserDictionary removed = compacted.remove("코모란", "NNG");
+        Assert.assertEquals(1, removed.getScoredTags(this.unitParser.parse("코모란")).size());
+        Assert.assertEquals(1, removed.getDeltaSize());
+    }
+
+    @Test
+    public void removeUnknownTag() {
+        UserDictionary userDic = UserDictionary.empty(this.komoran.getResources().getTable()).add("코모란", "NNP");
+        Assert.assertSame(userDic, userDic.remove("코모란", "UNKNOWN_TAG"));
+
+        this.komoran.addUserDicEntry("코모란", "NNP");
+        this.komoran.removeUserDicEntry("코모란", "UNKNOWN_TAG");
+        Assert.assertTrue(this.komoran.analyze("코모란은 형태소 분석기다").getPlainText().contains("코모란/NNP"));
+    }
+
+    @Test
+    public void rebaseKeepsConcurrentUpdates() {
+        UserDictionary userDic = UserDictionary.empty(this.komoran.getResources().getTable()).add("코모란", "NNP");
+        UserDictionary compacted = userDic.compact();
+
+        //compact하는 동안 반영된 변경
+        UserDictionary current = userDic.add("샤인웨어", "NNP").remove("코모란");
+        UserDictionary rebased = current.rebase(userDic, compacted);
+
+        Assert.assertEquals(2, rebased.getDeltaSize());
+        Assert.assertTrue(rebased.getScoredTags(this.unitParser.parse("코모란")).isEmpty());
+        Assert.assertEquals(1, rebased.getScoredTags(this.unitParser.parse("샤인웨어")).size());
+    }
+
+    @Test
+    public void overlayViews() {
+        String sentence = "코모란은 형태소 분석기다";
+        String before = this.komoran.analyze(sentence).getPlainText();
+
+        UserDictionary tenantA = UserDictionary.empty(this.komoran.getResources().getTable()).add("코모란", "NNP");
+        UserDictionary tenantB = UserDictionary.empty(this.komoran.getResources().getTable()).add("코모란", "NNG");
+        KomoranView viewA = this.komoran.newView(tenantA);
+        KomoranView viewB = this.komoran.newView(tenantB);
+
+        Assert.assertTrue(viewA.analyze(sentence).getPlainText().contains("코모란/NNP"));
+        Assert.assertTrue(viewB.analyze(sentence).getPlainText().contains("코모란/NNG"));
+        Assert.assertEquals(before, this.komoran.analyze(sentence).getPlainText());
+    }
+
+    @Test
+    public void compiledRoundTrip() throws IOException {
+        File compiled = File.createTempFile("komoran", ".dic.bin");
+        compiled.deleteOnExit();
+        UserDictionary.compile("user_data/dic.user", compiled.getPath(), this.komoran.getResources().getTable());
+
+        String sentence = "바람과 함께 사라지다를 봤어";
+        this.komoran.setUserDic("user_data/dic.user");
+        String expected = this.komoran.analyze(sentence).getPlainText();
+        this.komoran.setCompiledUserDic(compiled.getPath());
+        Assert.assertEquals(expected, this.komoran.analyze(sentence).getPlainText());
+
+        //다른 pos.table로 컴파일된 사전은 로드하지 않음
+        try {
+            UserDictionary.loadCompiled(compiled.getPath(), new PosTable());
+            Assert.fail();
+        } catch (IOException expectedException) {
+            Assert.assertTrue(expectedException.getMessage().contains("pos.table"));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package kr.co.shineware.nlp.komoran.core.model.combinationrules;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.core.model.MorphUtil;
+import kr.co.shineware.nlp.komoran.core.model.Resources;
+import kr.co.shineware.nlp.komoran.core.model.TagUtil;
+import kr.co.shineware.nlp.komoran.modeler.model.PosTable;
+import kr.co.shineware.nlp.komoran.parser.KoreanUnitParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MergedCombinationRuleCheckerTest {
+
+    @Test
+    public void sameRuleClassGivesSameResult() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        PosTable posTable = resources.getTable();
+        MergedCombinationRuleChecker checker = new MergedCombinationRuleChecker(new MorphUtil(), new TagUtil(posTable));
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+
+        String[] prevMorphs = {"감기", "바람", "먹", "가", "KOMORAN", "1"};
+        String[] prevTags = {"NNG", "NNP", "VV", "VA", "SL", "SN"};
+        String[] morphs = {"이", "가", "을", "를", "ㄹ", "은", "는", "ㄴ", "음", "ㅁ", "과", "와", "으로", "로", "에서", "요"};
+        String[] tags = {"JKS", "JKC", "JKO", "JKV", "JC", "JKB", "JX", "ETM", "ETN", "EC", "EF"};
+
+        for (String tag : tags) {
+            int tagId = posTable.getId(tag);
+            for (String morph : morphs) {
+                String morphJaso = unitParser.parse(morph);
+                for (String otherMorph : morphs) {
+                    String otherMorphJaso = unitParser.parse(otherMorph);
+                    if (checker.getRuleClass(morphJaso, tagId) != checker.getRuleClass(otherMorphJaso, tagId)) {
+                        continue;
+                    }
+                    //class가 같으면 모든 이전 형태소에 대해 결합 규칙 검사 결과가 같아야 함
+                    for (String prevMorph : prevMorphs) {
+                        String prevMorphJaso = unitParser.parse(prevMorph);
+                        for (String prevTag : prevTags) {
+                            int prevTagId = posTable.getId(prevTag);
+                            Assert.assertEquals(
+                                    checker.isValidRule(prevMorphJaso, prevTagId, morphJaso, tagId),
+                                    checker.isValidRule(prevMorphJaso, prevTagId, otherMorphJaso, tagId));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void samePrevRuleClassGivesSameResult() {
+        Resources resources = new Resources();
+        resources.load(DEFAULT_MODEL.STABLE);
+        PosTable posTable = resources.getTable();
+        MergedCombinationRuleChecker checker = new MergedCombinationRuleChecker(new MorphUtil(), new TagUtil(posTable));
+        KoreanUnitParser unitParser = new KoreanUnitParser();
+
+        String[] prevMorphs = {"감기", "바람", "먹", "가", "사과", "책"};
+        String[] prevTags = {"NNG", "NNP", "NNB", "VV", "VA", "MAG"};
+        String[] morphs = {"이", "가", "을", "를", "ㄹ", "은", "는", "ㄴ", "음", "ㅁ", "과", "와"};
+        String[] tags = {"JKS", "JKO", "JX", "JC", "ETM", "ETN", "EC"};
+
+        for (String prevTag : prevTags) {
+            int prevTagId = posTable.getId(prevTag);
+            for (String prevMorph : prevMorphs) {
+                String prevMorphJaso = unitParser.parse(prevMorph);
+                for (String otherPrevMorph : prevMorphs) {
+                    String otherPrevMorphJaso = unitParser.parse(otherPrevMorph);
+                    if (checker.getPrevRuleClass(prevMorphJaso, prevTagId) != checker.getPrevRuleClass(otherPrevMorphJaso, prevTagId)) {
+                        continue;
+                    }
+                    for (String morph : morphs) {
+                        String morphJaso = unitParser.parse(morph);
+                        for (String tag : tags) {
+                            int tagId = posTable.getId(tag);
+                            Assert.assertEquals(
+                                    checker.isValidRule(prevMorphJaso, prevTagId, morphJaso, tagId),
+                                    checker.isValidRule(otherPrevMorphJaso, prevTagId, morphJaso, tagId));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package kr.co.shineware.nlp.komoran.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class KomoranResultTest {
+
+    @Test
+    public void accessorsDoNotChangeResult() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        //불규칙 node가 포함된 문장
+        List<KomoranResult> results = komoran.analyze("바람과 함께 사라졌다", 3);
+        for (KomoranResult result : results) {
+            List<Token> first = result.getTokenList();
+            String plainText = result.getPlainText();
+            List<Token> second = result.getTokenList();
+
+            Assert.assertEquals(first.size(), second.size());
+            for (int i = 0; i < first.size(); i++) {
+                Assert.assertEquals(first.get(i), second.get(i));
+                Assert.assertEquals(first.get(i).getBeginIndex(), second.get(i).getBeginIndex());
+                Assert.assertEquals(first.get(i).getEndIndex(), second.get(i).getEndIndex());
+            }
+            Assert.assertSame(plainText, result.getPlainText());
+            Assert.assertEquals(result.getResultNodeList().size(), result.getResultNodeList().size());
+        }
+
+        KomoranResult best = results.get(0);
+        Assert.assertTrue(best.getPlainText().startsWith("바람/NNG 과/JC 함께/MAG 사라지/VV 었/EP 다/"));
+        List<Token> tokens = best.getTokenList();
+        Assert.assertEquals(0, tokens.get(0).getBeginIndex());
+        Assert.assertEquals(2, tokens.get(0).getEndIndex());
+        //'사라졌' 음절에 '지'와 '었'이 함께 포함됨
+        Assert.assertEquals(tokens.get(3).getEndIndex(), tokens.get(4).getEndIndex());
+    }
+}
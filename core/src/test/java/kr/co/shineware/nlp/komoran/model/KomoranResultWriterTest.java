@@ -0,0 +1,84 @@
+package kr.co.shineware.nlp.komoran.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.constant.RESULT_FORMAT;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class KomoranResultWriterTest {
+
+    private List<KomoranResult> results;
+
+    @Before
+    public void analyze() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        this.results = Arrays.asList(komoran.analyze("감기는 자주 걸리는 병이다"),
+                komoran.analyze("\"바람과\" 함께 😀 사라졌다"));
+    }
+
+    @Test
+    public void plainTextMatchesGetPlainText() throws Exception {
+        StringBuilder out = new StringBuilder();
+        new KomoranResultWriter(RESULT_FORMAT.PLAIN).writeAll(results, out);
+        Assert.assertEquals(results.get(0).getPlainText() + "\n" + results.get(1).getPlainText() + "\n", out.toString());
+    }
+
+    @Test
+    public void conllAndJsonContainTokenOffsets() throws Exception {
+        KomoranResult result = results.get(0);
+        List<Token> tokens = result.getTokenList();
+
+        StringBuilder conll = new StringBuilder();
+        new KomoranResultWriter(RESULT_FORMAT.CONLL).write(result, conll);
+        String[] lines = conll.toString().split("\n");
+        Assert.assertEquals(tokens.size(), lines.length);
+        Token token = tokens.get(1);
+        Assert.assertEquals("2\t" + token.getMorph() + "\t" + token.getPos() + "\t" + token.getBeginIndex() + "\t" + token.getEndIndex(), lines[1]);
+
+        StringBuilder json = new StringBuilder();
+        new KomoranResultWriter(RESULT_FORMAT.JSON).write(result, json);
+        token = tokens.get(0);
+        Assert.assertTrue(json.toString().startsWith("{\"tokens\":[{\"morph\":\"" + token.getMorph() + "\",\"pos\":\"" + token.getPos()
+                + "\",\"beginIndex\":" + token.getBeginIndex() + ",\"endIndex\":" + token.getEndIndex() + "},"));
+        Assert.assertTrue(json.toString().endsWith("]}"));
+    }
+
+    @Test
+    public void utf8OutputMatchesEncodedString() throws Exception {
+        for (RESULT_FORMAT format : RESULT_FORMAT.values()) {
+            KomoranResultWriter writer = new KomoranResultWriter(format);
+            StringBuilder text = new StringBuilder();
+            writer.writeAll(results, text);
+            byte[] expected = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            writer.writeAll(results, stream);
+            Assert.assertArrayEquals(expected, stream.toByteArray());
+
+            ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+            writer.writeAll(results, buffer);
+            Assert.assertArrayEquals(expected, buffer.array());
+        }
+    }
+
+    @Test
+    public void byteBufferOverflow() {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        try {
+            new KomoranResultWriter(RESULT_FORMAT.PLAIN).write(results.get(0), buffer);
+            Assert.fail();
+        } catch (BufferOverflowException e) {
+            //'감'(3 byte) 다음의 문자는 나뉘어 쓰이지 않음
+            Assert.assertEquals(3, buffer.position());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package kr.co.shineware.nlp.komoran.model;
+
+import kr.co.shineware.nlp.komoran.constant.DEFAULT_MODEL;
+import kr.co.shineware.nlp.komoran.core.Komoran;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TokenColumnsTest {
+
+    @Test
+    public void columnsMatchTokenList() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        List<String> sentences = Arrays.asList("감기는 자주 걸리는 병이다", "", "바람과 함께 사라졌다", "감기는 자주");
+        //배열이 늘어나는 경우를 확인하기 위해 작은 크기로 시작
+        TokenColumns columns = new TokenColumns(1, 1);
+
+        for (int batch = 0; batch < 2; batch++) {
+            columns.clear();
+            komoran.analyze(sentences, columns);
+            Assert.assertEquals(sentences.size(), columns.getSentenceCount());
+
+            assertTokenList(komoran, sentences, columns);
+        }
+        //첫 문장과 마지막 문장의 같은 형태소는 같은 id를 가짐
+        Assert.assertEquals(columns.getMorphIds()[0], columns.getMorphIds()[columns.getSentenceOffsets()[3]]);
+    }
+
+    @Test
+    public void columnsMatchTokenListWithUnknownAndSymbolTokens() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        List<String> sentences = Arrays.asList("뷁", " ", "2024년 COVID-19 확진자가 12,345명!!", "나는 밥을 먹었고 그는 빵을 구웠다", "ㅋㅋㅋ 배송감사ㅋ1뷁");
+        TokenColumns columns = new TokenColumns();
+        komoran.analyze(sentences, columns);
+        assertTokenList(komoran, sentences, columns);
+    }
+
+    @Test
+    public void resetClearsMorphIds() {
+        Komoran komoran = new Komoran(DEFAULT_MODEL.STABLE);
+        TokenColumns columns = new TokenColumns();
+        komoran.analyze(Arrays.asList("감기는 자주 걸리는 병이다"), columns);
+        int morphCount = columns.getMorphCount();
+        Assert.assertTrue(morphCount > 0);
+
+        columns.clear();
+        komoran.analyze(Arrays.asList("바람과 함께 사라졌다"), columns);
+        Assert.assertTrue(columns.getMorphCount() > morphCount);
+
+        columns.reset();
+        Assert.assertEquals(0, columns.getTokenCount());
+        Assert.assertEquals(0, columns.getSentenceCount());
+        Assert.assertEquals(0, columns.getMorphCount());
+        komoran.analyze(Arrays.asList("감기는 자주 걸리는 병이다"), columns);
+        Assert.assertEquals(morphCount, columns.getMorphCount());
+        Assert.assertEquals(0, columns.getMorphIds()[0]);
+    }
+
+    private void assertTokenList(Komoran komoran, List<String> sentences, TokenColumns columns) {
+        Assert.assertEquals(sentences.size(), columns.getSentenceCount());
+
+        int[] sentenceOffsets = columns.getSentenceOffsets();
+        Assert.assertEquals(0, sentenceOffsets[0]);
+        Assert.assertEquals(columns.getTokenCount(), sentenceOffsets[columns.getSentenceCount()]);
+        for (int sentenceIdx = 0; sentenceIdx < sentences.size(); sentenceIdx++) {
+            List<Token> tokens = komoran.analyze(sentences.get(sentenceIdx)).getTokenList();
+            Assert.assertEquals(tokens.size(), sentenceOffsets[sentenceIdx + 1] - sentenceOffsets[sentenceIdx]);
+            for (int i = 0; i < tokens.size(); i++) {
+                int tokenIdx = sentenceOffsets[sentenceIdx] + i;
+                Token token = tokens.get(i);
+                Assert.assertEquals(token.getMorph(), columns.getMorph(columns.getMorphIds()[tokenIdx]));
+                Assert.assertEquals(token.getPos(), columns.getTag(columns.getTagIds()[tokenIdx]));
+                Assert.assertEquals(token.getBeginIndex(), columns.getBeginIndexes()[tokenIdx]);
+                Assert.assertEquals(token.getEndIndex(), columns.getEndIndexes()[tokenIdx]);
+            }
+        }
+    }
+}